@@ -0,0 +1,217 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code AStarSP} class answers point-to-point shortest-path queries on an
+ * {@link EdgeWeightedDigraph} with the A* algorithm: vertices are taken out of the
+ * priority queue in order of their distance from the source plus a
+ * {@link DistanceHeuristic} estimate of their distance to the target,
+ * and the search stops when the target is taken out.
+ * <p>
+ * The estimate must be admissible. If it is not consistent as well
+ * (an edge v-&gt;w with h(v) &gt; weight + h(w)), a vertex already taken out
+ * may be reached by a shorter path later, it is then put back in the queue,
+ * so the distance found is still the shortest one.
+ * A vertex with an infinite estimate cannot reach the target and is never expanded.
+ * <p>
+ * Like {@link DijkstraQuery}, the <em>V</em>-sized arrays are allocated once
+ * and every query only resets the vertices touched by the previous one.
+ */
+public class AStarSP {
+    private final EdgeWeightedDigraph G;
+    private final DistanceHeuristic heuristic;
+    private final double[] distTo;      // distTo[v] = length of the best s->v path found so far
+    private final double[] estimate;    // estimate[v] = heuristic estimate from v to the target
+    private final DirectedEdge[] edgeTo; // edgeTo[v] = last edge on the best s->v path
+    private final int[] visited;        // vertices touched by the last query
+    private int visitedCount;
+    private final DoubleIndexMinPQ pq;
+    private int target = -1;
+    private int settledCount;
+
+    /**
+     * Prepares queries on the edge-weighted digraph {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     * @param heuristic the admissible estimate of the distance to the target
+     * @throws IllegalArgumentException if any edge has negative weight
+     */
+    public AStarSP(EdgeWeightedDigraph G, DistanceHeuristic heuristic) {
+        for(DirectedEdge e : G.edges()) {
+            if (e.weight() < 0)
+                throw new IllegalArgumentException(e + " has negative weight");
+        }
+        this.G = G;
+        this.heuristic = heuristic;
+        distTo = new double[G.V()];
+        estimate = new double[G.V()];
+        edgeTo = new DirectedEdge[G.V()];
+        visited = new int[G.V()];
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+        }
+        pq = new DoubleIndexMinPQ(G.V());
+    }
+
+    private void validateVertex(int v) {
+        int V = G.V();
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    // undoes the last query on the vertices it touched
+    private void reset() {
+        for(int i = 0; i < visitedCount; i++) {
+            distTo[visited[i]] = Double.POSITIVE_INFINITY;
+            edgeTo[visited[i]] = null;
+        }
+        visitedCount = 0;
+        settledCount = 0;
+        pq.clear();
+    }
+
+    /**
+     * Computes the shortest path from {@code s} to {@code t}.
+     *
+     * @param s the source vertex
+     * @param t the target vertex
+     * @return the distance from {@code s} to {@code t},
+     * {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double query(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        reset();
+        target = t;
+        distTo[s] = 0.0;
+        estimate[s] = heuristic.estimate(s, t);
+        visited[visitedCount++] = s;
+        pq.insert(s, estimate[s]);
+
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            settledCount++;
+            if (v == t) break;
+            for(DirectedEdge e : G.adj(v)) {
+                relax(e);
+            }
+        }
+        return distTo[t];
+    }
+
+    private void relax(DirectedEdge e) {
+        int w = e.to();
+        double dist = distTo[e.from()] + e.weight();
+        if (dist < distTo[w]) {
+            if (distTo[w] == Double.POSITIVE_INFINITY) {
+                visited[visitedCount++] = w;
+                estimate[w] = heuristic.estimate(w, target);
+            }
+            distTo[w] = dist;
+            edgeTo[w] = e;
+            // an infinite estimate proves that t cannot be reached from w
+            if (estimate[w] == Double.POSITIVE_INFINITY) return;
+            // a vertex taken out earlier goes back in the queue;
+            // adding the estimate may round the new key to the old one, so no decreaseKey
+            if (pq.contains(w)) pq.changeKey(w, dist + estimate[w]);
+            else pq.insert(w, dist + estimate[w]);
+        }
+    }
+
+    /**
+     * Is there a path from the source to the target of the last query?
+     *
+     * @return {@code true} if there is such path, {@code false} otherwise
+     */
+    public boolean hasPath() {
+        return target != -1 && distTo[target] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from the source to the target of the last query.
+     *
+     * @return the distance, {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double distance() {
+        return target == -1 ? Double.POSITIVE_INFINITY : distTo[target];
+    }
+
+    /**
+     * Returns the number of vertices taken out of the queue by the last query,
+     * a vertex put back counts again.
+     *
+     * @return the number of vertices settled by the last query
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Returns the directed edges from the source to the target of the last query.
+     *
+     * @return the directed edges from the source to the target,
+     * or {@code null} if there is no path
+     */
+    public Iterable<DirectedEdge> path() {
+        if (!hasPath()) return null;
+        Stack<DirectedEdge> stack = new Stack<>();
+        for(DirectedEdge e = edgeTo[target]; e != null; e = edgeTo[e.from()]) {
+            stack.push(e);
+        }
+        return stack;
+    }
+
+    // unit test code
+    // AStarSP mediumEWD.txt queries landmarks
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int queries = Integer.parseInt(args[1]);
+        int landmarks = Integer.parseInt(args[2]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+
+        int[] s = new int[queries];
+        int[] t = new int[queries];
+        for(int i = 0; i < queries; i++) {
+            s[i] = StdRandom.uniform(G.V());
+            t[i] = StdRandom.uniform(G.V());
+        }
+
+        DijkstraQuery dijkstra = new DijkstraQuery(G);
+        BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(G);
+        Stopwatch timer = new Stopwatch();
+        AStarSP alt = new AStarSP(G, new LandmarkHeuristic(G, landmarks));
+        StdOut.printf("%d landmarks in %.3f s\n", landmarks, timer.elapsedTime());
+
+        long[] settled = new long[3];
+        double[] elapsed = new double[3];
+        for(int i = 0; i < queries; i++) {
+            timer = new Stopwatch();
+            double d0 = dijkstra.query(s[i], t[i]);
+            elapsed[0] += timer.elapsedTime();
+            settled[0] += dijkstra.settledCount();
+
+            timer = new Stopwatch();
+            double d1 = bidirectional.query(s[i], t[i]);
+            elapsed[1] += timer.elapsedTime();
+            settled[1] += bidirectional.settledCount();
+
+            timer = new Stopwatch();
+            double d2 = alt.query(s[i], t[i]);
+            elapsed[2] += timer.elapsedTime();
+            settled[2] += alt.settledCount();
+
+            if (Math.abs(d0 - d1) > 1e-9 || Math.abs(d0 - d2) > 1e-9) {
+                StdOut.printf("%d to %d: %.5f %.5f %.5f\n", s[i], t[i], d0, d1, d2);
+            }
+        }
+        String[] names = { "DijkstraQuery", "BidirectionalDijkstra", "AStarSP (ALT)" };
+        for(int k = 0; k < names.length; k++) {
+            StdOut.printf("%-22s %.3f s, %.1f settled vertices per query\n",
+                    names[k], elapsed[k], (double) settled[k] / queries);
+        }
+    }
+}
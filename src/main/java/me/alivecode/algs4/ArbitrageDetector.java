@@ -0,0 +1,466 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ArbitrageDetector} class watches a stream of exchange-rate quotes
+ * between <em>n</em> currencies and reports the arbitrage opportunities they open,
+ * that is the negative cycles of the complete digraph with an edge
+ * {@code v->w} of weight {@code -ln(rate)} for every quoted pair, see {@link Arbitrage}.
+ * <p>
+ * Instead of running {@link BellmanFordSP} on the whole table after every quote,
+ * the detector keeps a potential {@code p} for every currency with
+ * {@code p[w] <= p[v] + weight(v->w)} for every edge. A quote that keeps its edge
+ * above that bound costs a constant time. A quote below it can only close a cycle
+ * through its own edge {@code v->w}: a Dijkstra search from {@code w} on the reduced
+ * weights, which visits only the currencies whose potential must decrease, either
+ * gets back to {@code v} through a negative cycle or gives the new potentials.
+ * <p>
+ * An edge that closes a negative cycle is left out of the potentials while the
+ * opportunity is open. It is tried again when its own rate changes or when any
+ * other rate gets worse, which is the only way for the cycle to disappear, unless
+ * the cycle found for it is still negative.
+ * Cycles whose gain is below {@code 1e-12} are taken as rounding errors.
+ * <p>
+ * The time from each quote to the end of its processing is counted in a
+ * {@link LatencyHistogram} of fixed size, which gives its percentiles for the
+ * quotes and for the opportunities within 1/16.
+ */
+public class ArbitrageDetector {
+    private static final double EPSILON = 1e-12;
+
+    private final int n;
+    private final String[] names;
+    private final double[] weight;     // weight[v*n+w] = -ln(rate of v->w), or infinity if not quoted
+    private final double[] potential;  // potential[v] <= potential[u] + weight[u*n+v] for edges not open
+    private final boolean[] open;      // open[v*n+w] = does v->w close a negative cycle?
+    private int[] openEdges = new int[4];
+    private int[][] openCycles = new int[4][]; // openCycles[k] = a negative cycle through openEdges[k]
+    private int openCount;
+
+    // state of the search, reset lazily
+    private final double[] label;      // label[v] = new potential of v, if visited
+    private final int[] parent;        // parent[v] = previous vertex on the path from the new edge
+    private final boolean[] visited;
+    private final int[] visitedList;
+    private int visitedCount;
+    private final DoubleIndexMinPQ pq;
+    private int[] lastCycle;           // the cycle found by the last search
+
+    private final LatencyHistogram updateLatency = new LatencyHistogram();
+    private int updates;
+    private final LatencyHistogram detectionLatency = new LatencyHistogram();
+    private int detections;
+
+    /**
+     * An arbitrage opportunity: exchanging along {@code currencies()}
+     * and back to the first one multiplies the stake by {@code profit()}.
+     */
+    public static class Opportunity {
+        private final int[] currencies;
+        private final double profit;
+        private final long latency;
+        private final String[] names;
+
+        private Opportunity(int[] currencies, double profit, long latency, String[] names) {
+            this.currencies = currencies;
+            this.profit = profit;
+            this.latency = latency;
+            this.names = names;
+        }
+
+        /**
+         * Returns the currencies of the cycle, in the order of the exchanges.
+         *
+         * @return the currencies of the cycle
+         */
+        public int[] currencies() {
+            return currencies.clone();
+        }
+
+        /**
+         * Returns the factor applied to the stake by one turn of the cycle.
+         *
+         * @return the profit factor, greater than 1
+         */
+        public double profit() {
+            return profit;
+        }
+
+        /**
+         * Returns the time from the quote to the detection.
+         *
+         * @return the latency in nanoseconds
+         */
+        public long latency() {
+            return latency;
+        }
+
+        /**
+         * Returns a string representation of this opportunity.
+         *
+         * @return a string representation of this opportunity
+         */
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            for(int v : currencies) {
+                s.append(names[v]).append(" -> ");
+            }
+            s.append(names[currencies[0]]);
+            s.append(String.format("  x%.6f  (%d us)", profit, latency / 1000));
+            return s.toString();
+        }
+    }
+
+    /**
+     * Initializes a detector for {@code n} currencies named 0 through {@code n} - 1,
+     * with no quotes.
+     *
+     * @param n the number of currencies
+     */
+    public ArbitrageDetector(int n) {
+        this(defaultNames(n));
+    }
+
+    /**
+     * Initializes a detector for the currencies {@code names}, with no quotes.
+     *
+     * @param names the names of the currencies
+     */
+    public ArbitrageDetector(String[] names) {
+        n = names.length;
+        this.names = names.clone();
+        weight = new double[n * n];
+        Arrays.fill(weight, Double.POSITIVE_INFINITY);
+        potential = new double[n];
+        open = new boolean[n * n];
+        label = new double[n];
+        parent = new int[n];
+        visited = new boolean[n];
+        visitedList = new int[n];
+        pq = new DoubleIndexMinPQ(n);
+    }
+
+    private static String[] defaultNames(int n) {
+        if (n < 0) throw new IllegalArgumentException("number of currencies must be nonnegative");
+        String[] names = new String[n];
+        for(int v = 0; v < n; v++) {
+            names[v] = Integer.toString(v);
+        }
+        return names;
+    }
+
+    private void validateCurrency(int v) {
+        if (v < 0 || v >= n) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (n-1));
+        }
+    }
+
+    /**
+     * Processes a quote received now.
+     *
+     * @param from the currency sold
+     * @param to the currency bought
+     * @param rate the units of {@code to} per unit of {@code from}
+     * @return the opportunity opened by the quote, or {@code null} if there is none
+     * @throws IllegalArgumentException if {@code rate} is not positive
+     * or {@code from} is {@code to}
+     */
+    public Opportunity update(int from, int to, double rate) {
+        return update(from, to, rate, System.nanoTime());
+    }
+
+    /**
+     * Processes a quote.
+     *
+     * @param tick the quote
+     * @return the opportunity opened by the quote, or {@code null} if there is none
+     */
+    public Opportunity update(RateTickGenerator.Tick tick) {
+        return update(tick.from(), tick.to(), tick.rate(), tick.time());
+    }
+
+    /**
+     * Processes a quote received at {@code time}.
+     *
+     * @param from the currency sold
+     * @param to the currency bought
+     * @param rate the units of {@code to} per unit of {@code from}
+     * @param time the time the quote was received, from {@link System#nanoTime()}
+     * @return the opportunity opened by the quote, or {@code null} if there is none
+     * @throws IllegalArgumentException if {@code rate} is not positive
+     * or {@code from} is {@code to}
+     */
+    public Opportunity update(int from, int to, double rate, long time) {
+        validateCurrency(from);
+        validateCurrency(to);
+        if (from == to) throw new IllegalArgumentException("a currency is not exchanged for itself");
+        if (!(rate > 0.0)) throw new IllegalArgumentException("rate must be positive: " + rate);
+
+        int e = from * n + to;
+        double old = weight[e];
+        weight[e] = -Math.log(rate);
+        if (open[e]) {
+            for(int k = 0; k < openCount; k++) {
+                if (openEdges[k] == e) removeOpen(k);
+            }
+        }
+        int[] cycle = null;
+        if (!insert(from, to)) {
+            cycle = lastCycle;
+            addOpen(e, cycle);
+        }
+        if (weight[e] > old) {
+            // a worse rate may close other opportunities
+            retryOpen();
+        }
+
+        long latency = System.nanoTime() - time;
+        updateLatency.record(latency);
+        updates++;
+        assert check();
+        if (cycle == null) return null;
+        detectionLatency.record(latency);
+        detections++;
+        return new Opportunity(cycle, Math.exp(-weight(cycle)), latency, names);
+    }
+
+    private double weight(int[] cycle) {
+        double w = 0.0;
+        for(int k = 0; k < cycle.length; k++) {
+            w += weight[cycle[k] * n + cycle[(k + 1) % cycle.length]];
+        }
+        return w;
+    }
+
+    private void addOpen(int e, int[] cycle) {
+        if (openCount == openEdges.length) {
+            openEdges = Arrays.copyOf(openEdges, 2 * openCount);
+            openCycles = Arrays.copyOf(openCycles, 2 * openCount);
+        }
+        openEdges[openCount] = e;
+        openCycles[openCount++] = cycle;
+        open[e] = true;
+    }
+
+    private void removeOpen(int k) {
+        open[openEdges[k]] = false;
+        openEdges[k] = openEdges[--openCount];
+        openCycles[k] = openCycles[openCount];
+        openCycles[openCount] = null;
+    }
+
+    private void retryOpen() {
+        for(int k = openCount - 1; k >= 0; k--) {
+            // the cycle found last is still negative, no search is needed
+            if (weight(openCycles[k]) < -EPSILON) continue;
+            int e = openEdges[k];
+            if (insert(e / n, e % n)) removeOpen(k);
+            else openCycles[k] = lastCycle;
+        }
+    }
+
+    // adds the edge u->v to the potentials, returns false and sets lastCycle
+    // if it closes a negative cycle, in which case the potentials are unchanged
+    private boolean insert(int u, int v) {
+        double w = weight[u * n + v];
+        double reduced = potential[u] + w - potential[v];
+        if (reduced >= -EPSILON) return true;
+
+        visit(v, potential[u] + w, u);
+        pq.insert(v, reduced);
+        boolean found = false;
+        while (!pq.isEmpty() && !found) {
+            int x = pq.delMin();
+            for(int y = 0; y < n; y++) {
+                int e = x * n + y;
+                if (y == x || open[e]) continue;
+                double d = label[x] + weight[e];
+                if (d < (visited[y] ? label[y] : potential[y]) - EPSILON) {
+                    if (y == u) {
+                        // back to u with less than its potential, through v->...->x->u
+                        cycle(u, x);
+                        found = true;
+                        break;
+                    }
+                    visit(y, d, x);
+                    if (pq.contains(y)) pq.changeKey(y, d - potential[y]);
+                    else pq.insert(y, d - potential[y]);
+                }
+            }
+        }
+        pq.clear();
+
+        for(int k = 0; k < visitedCount; k++) {
+            int x = visitedList[k];
+            if (!found) potential[x] = label[x];
+            visited[x] = false;
+        }
+        visitedCount = 0;
+        return !found;
+    }
+
+    private void visit(int v, double d, int from) {
+        if (!visited[v]) {
+            visited[v] = true;
+            visitedList[visitedCount++] = v;
+        }
+        label[v] = d;
+        parent[v] = from;
+    }
+
+    // the cycle u->v->...->x->u, following the parents from x back to u
+    private void cycle(int u, int x) {
+        int length = 1;
+        for(int y = x; y != u; y = parent[y]) {
+            length++;
+        }
+        lastCycle = new int[length];
+        int k = length - 1;
+        for(int y = x; y != u; y = parent[y]) {
+            lastCycle[k--] = y;
+        }
+        lastCycle[0] = u;
+    }
+
+    /**
+     * Returns the number of currencies.
+     *
+     * @return the number of currencies
+     */
+    public int currencies() {
+        return n;
+    }
+
+    /**
+     * Returns the number of open opportunities, the quoted pairs whose edge
+     * still closes a negative cycle.
+     *
+     * @return the number of open opportunities
+     */
+    public int openCount() {
+        return openCount;
+    }
+
+    /**
+     * Returns the number of quotes processed.
+     *
+     * @return the number of quotes processed
+     */
+    public int updates() {
+        return updates;
+    }
+
+    /**
+     * Returns the number of opportunities reported.
+     *
+     * @return the number of opportunities reported
+     */
+    public int detections() {
+        return detections;
+    }
+
+    /**
+     * Returns the {@code p}th percentile of the time taken by the quotes.
+     *
+     * @param p the percentile, between 0 and 100
+     * @return the latency in nanoseconds, 0 if no quote was processed
+     */
+    public long updateLatencyPercentile(double p) {
+        return updateLatency.percentile(p);
+    }
+
+    /**
+     * Returns the {@code p}th percentile of the time from a quote to the
+     * opportunity it opens.
+     *
+     * @param p the percentile, between 0 and 100
+     * @return the latency in nanoseconds, 0 if no opportunity was reported
+     */
+    public long detectionLatencyPercentile(double p) {
+        return detectionLatency.percentile(p);
+    }
+
+    /**
+     * Returns the quoted exchange digraph, with an edge {@code v->w} of weight
+     * {@code -ln(rate)} for every quoted pair.
+     *
+     * @return the exchange digraph
+     */
+    public EdgeWeightedDigraph toEdgeWeightedDigraph() {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(n);
+        for(int v = 0; v < n; v++) {
+            for(int w = 0; w < n; w++) {
+                if (weight[v * n + w] < Double.POSITIVE_INFINITY) {
+                    G.addEdge(new DirectedEdge(v, w, weight[v * n + w]));
+                }
+            }
+        }
+        return G;
+    }
+
+    // the potentials are feasible for every edge that is not open
+    private boolean check() {
+        for(int v = 0; v < n; v++) {
+            for(int w = 0; w < n; w++) {
+                int e = v * n + w;
+                if (v == w || open[e] || weight[e] == Double.POSITIVE_INFINITY) continue;
+                if (potential[v] + weight[e] < potential[w] - 1e-9) {
+                    System.err.printf("edge %d->%d violates the potentials by %g\n",
+                            v, w, potential[w] - potential[v] - weight[e]);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // unit test code
+    // ArbitrageDetector n ticks
+    // drives a detector with simulated quotes, then compares with BellmanFordSP
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        int ticks = Integer.parseInt(args[1]);
+        RateTickGenerator generator = new RateTickGenerator(n, 1L);
+        ArbitrageDetector detector = new ArbitrageDetector(n);
+        // the quotes of the snapshot are all made first, they are timed from now on
+        for(RateTickGenerator.Tick tick : generator.snapshot()) {
+            detector.update(tick.from(), tick.to(), tick.rate());
+        }
+
+        int shown = 0;
+        Stopwatch timer = new Stopwatch();
+        for(int i = 0; i < ticks; i++) {
+            Opportunity opportunity = detector.update(generator.next());
+            if (opportunity != null && shown++ < 10) {
+                StdOut.println(opportunity);
+            }
+        }
+        double elapsed = timer.elapsedTime();
+        StdOut.printf("%d ticks in %.3f s, %d opportunities, %d open\n",
+                ticks, elapsed, detector.detections(), detector.openCount());
+        StdOut.printf("quote latency (us):     p50 %.1f  p90 %.1f  p99 %.1f  max %.1f\n",
+                detector.updateLatencyPercentile(50) / 1e3, detector.updateLatencyPercentile(90) / 1e3,
+                detector.updateLatencyPercentile(99) / 1e3, detector.updateLatencyPercentile(100) / 1e3);
+        StdOut.printf("detection latency (us): p50 %.1f  p90 %.1f  p99 %.1f  max %.1f\n",
+                detector.detectionLatencyPercentile(50) / 1e3, detector.detectionLatencyPercentile(90) / 1e3,
+                detector.detectionLatencyPercentile(99) / 1e3, detector.detectionLatencyPercentile(100) / 1e3);
+
+        // BellmanFordSP from a new vertex with an edge to every currency
+        EdgeWeightedDigraph table = detector.toEdgeWeightedDigraph();
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(n + 1);
+        for(DirectedEdge e : table.edges()) {
+            G.addEdge(e);
+        }
+        for(int v = 0; v < n; v++) {
+            G.addEdge(new DirectedEdge(n, v, 0.0));
+        }
+        timer = new Stopwatch();
+        BellmanFordSP sp = new BellmanFordSP(G, n);
+        StdOut.printf("BellmanFordSP on the table: %s in %.3f s\n",
+                sp.hasNegativeCycle() ? "negative cycle" : "no negative cycle", timer.elapsedTime());
+    }
+}
@@ -4,16 +4,30 @@ import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 
 /**
- * The {@code BellmanFordSP} class implements the Bellman Ford
+ * The {@code BellmanFordSP} class implements the queue-based Bellman Ford
  * algorithm for determining shortest path in edge-weighted digraph.
+ * <p>
+ * Negative cycles are found with Tarjan's subtree disassembly. The vertices of
+ * the shortest-paths tree are kept in preorder in a doubly-linked thread, with
+ * their depth. When the distance to {@code w} is improved, the subtree of
+ * {@code w} is cut off the tree: its vertices have a shorter path through
+ * {@code w} that is not known yet, so they are not scanned until they are reached
+ * again. If the tail of the improving edge is in that subtree, the edge closes a
+ * negative cycle, which is reported at once. The cost of the cut is paid by the
+ * vertices removed from the tree, and there is no periodic search of the tree.
  */
 public class BellmanFordSP {
     private DirectedEdge[] edgeTo;          // edgeTo[v] = last edge on shortest s-v path
     private double[] distTo;                // distTo[v] = distance from s to v
-    private Queue<Integer> queue;           // queue of vertices to be relaxed
+    private int[] queue;                    // ring buffer of vertices to be relaxed
+    private int head;                       // queue[head] = next vertex to be relaxed
+    private int size;                       // number of vertices on queue
     private boolean[] onQueue;              // onQueue[v] = is v on queue?
-    private int cost;                       // number of calls to relax
-    private Iterable<DirectedEdge> cycle;   // negative cycle (or null if no such cycle)
+    private boolean[] inTree;               // inTree[v] = is v in the shortest-paths tree?
+    private int[] next;                     // next[v] = vertex after v in preorder of the tree
+    private int[] prev;                     // prev[v] = vertex before v in preorder of the tree
+    private int[] depth;                    // depth[v] = number of edges from s to v in the tree
+    private Stack<DirectedEdge> cycle;      // negative cycle (or null if no such cycle)
 
     /**
      * Determines shortest paths from {@code s} to
@@ -22,63 +36,101 @@ public class BellmanFordSP {
      * @param s the source vertex
      */
     public BellmanFordSP(EdgeWeightedDigraph G, int s) {
-        edgeTo = new DirectedEdge[G.V()];
-        onQueue = new boolean[G.V()];
-        distTo = new double[G.V()];
-        for (int v = 0; v < G.V(); v++) {
+        int V = G.V();
+        edgeTo = new DirectedEdge[V];
+        onQueue = new boolean[V];
+        distTo = new double[V];
+        for (int v = 0; v < V; v++) {
             distTo[v] = Double.POSITIVE_INFINITY;
         }
 
         validateVertex(s);
         distTo[s] = 0.0;
 
-        queue = new Queue<>();
-        queue.enqueue(s);
-        onQueue[s] = true;
-        while (!queue.isEmpty() && !hasNegativeCycle()) {
-            int v = queue.dequeue();
-            onQueue[v] = false;
-            relax(G, v);
+        // the tree is s alone, its thread is circular
+        inTree = new boolean[V];
+        next = new int[V];
+        prev = new int[V];
+        depth = new int[V];
+        inTree[s] = true;
+        next[s] = s;
+        prev[s] = s;
+
+        // a vertex is on the queue at most once, so V slots are enough
+        queue = new int[V];
+        enqueue(s);
+        while (size > 0 && !hasNegativeCycle()) {
+            int v = dequeue();
+            // a vertex cut off the tree waits until it is reached again
+            if (inTree[v]) relax(G, v);
         }
 
         assert check(G, s);
     }
 
+    private void enqueue(int v) {
+        queue[(head + size) % queue.length] = v;
+        size++;
+        onQueue[v] = true;
+    }
+
+    private int dequeue() {
+        int v = queue[head];
+        head = (head + 1) % queue.length;
+        size--;
+        onQueue[v] = false;
+        return v;
+    }
+
     // relax all edges points from v
     private void relax(EdgeWeightedDigraph G, int v) {
         for(DirectedEdge e : G.adj(v)) {
             int w = e.to();
-            if (distTo[v] + e.weight() < distTo[w] ) {
+            if (distTo[v] + e.weight() < distTo[w]) {
+                if (inTree[w] && disassemble(w, v)) {
+                    cycle = new Stack<>();
+                    cycle.push(e);
+                    for(int x = v; x != w; x = edgeTo[x].from()) {
+                        cycle.push(edgeTo[x]);
+                    }
+                    return;
+                }
                 edgeTo[w] = e;
                 distTo[w] = distTo[v] + e.weight();
+                attach(w, v);
                 // put w to the queue to be relaxed
                 if (!onQueue[w]) {
-                    queue.enqueue(w);
-                    onQueue[w] = true;
+                    enqueue(w);
                 }
             }
-
-            if (cost++ % G.V() == 0) {
-                findNegativeCycle();
-                if (hasNegativeCycle()) return;
-            }
         }
-
     }
 
-    private void findNegativeCycle() {
-        int V = edgeTo.length;
-        EdgeWeightedDigraph spt = new EdgeWeightedDigraph(V);
-        for(int v = 0; v < V; v++) {
-            if (edgeTo[v] != null) {
-                spt.addEdge(edgeTo[v]);
-            }
+    // cuts the subtree of w off the tree and keeps w alone,
+    // returns true if v is in the subtree, so the edge v->w closes a cycle
+    private boolean disassemble(int w, int v) {
+        if (v == w) return true;
+        int x = next[w];
+        while (depth[x] > depth[w]) {
+            if (x == v) return true;
+            inTree[x] = false;
+            x = next[x];
         }
+        // unlink w and its subtree, x is the vertex following them
+        next[prev[w]] = x;
+        prev[x] = prev[w];
+        return false;
+    }
 
-        EdgeWeightedDirectedCycle finder = new EdgeWeightedDirectedCycle(spt);
-        if (finder.hasCycle()) {
-            cycle = finder.cycle();
-        }
+    // puts w in the tree as the first child of v
+    private void attach(int w, int v) {
+        inTree[w] = true;
+        depth[w] = depth[v] + 1;
+        int x = next[v];
+        next[v] = w;
+        prev[w] = v;
+        next[w] = x;
+        prev[x] = w;
     }
 
     /**
@@ -178,8 +230,8 @@ public class BellmanFordSP {
             }
             for(int v = 0; v < G.V(); v++) {
                 if (v == s) continue;
-                if (edgeTo[v] != null && distTo[v] != Double.POSITIVE_INFINITY) {
-                    System.err.printf("edgeTo[%d] and distTo[%d] inconsistent", v, v);
+                if ((edgeTo[v] == null) != (distTo[v] == Double.POSITIVE_INFINITY)) {
+                    System.err.printf("edgeTo[%d] and distTo[%d] inconsistent\n", v, v);
                     return false;
                 }
             }
@@ -188,8 +240,8 @@ public class BellmanFordSP {
             for(int i = 0; i < G.V(); i++) {
                 for(DirectedEdge e : G.adj(i)) {
                     int w = e.to();
-                    if (distTo[i] + e.weight() > distTo[w]) {
-                        System.err.printf("edge " + e + " not relaxed");
+                    if (distTo[i] + e.weight() < distTo[w]) {
+                        System.err.println("edge " + e + " not relaxed");
                         return false;
                     }
                 }
@@ -197,13 +249,13 @@ public class BellmanFordSP {
 
             // check that all edges v->w on shortest path satisfy
             // distTo[w] = dist[v] + e.weight()
-            for(int j = 0; j < G.V(); j++) {
-                DirectedEdge e = edgeTo[j];
+            for(int w = 0; w < G.V(); w++) {
+                DirectedEdge e = edgeTo[w];
                 if (e == null) continue;
-                int w = e.to();
-                if (e.from() != j) return false;
-                if (distTo[w] != distTo[j] + e.weight()) {
+                if (e.to() != w) return false;
+                if (distTo[w] != distTo[e.from()] + e.weight()) {
                     System.err.println("edge " + e + " on shortest path not tight");
+                    return false;
                 }
             }
         }
@@ -212,7 +264,7 @@ public class BellmanFordSP {
     }
 
     // unit test code
-    public static void  main(String[] args) {
+    public static void main(String[] args) {
         In in = new In(args[0]);
         int s = Integer.parseInt(args[1]);
         EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
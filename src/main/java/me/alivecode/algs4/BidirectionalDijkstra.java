@@ -0,0 +1,210 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code BidirectionalDijkstra} class answers point-to-point shortest-path
+ * queries on an {@link EdgeWeightedDigraph} by running Dijkstra forward from the
+ * source on the digraph and backward from the target on its reverse,
+ * always advancing the side with the smaller queue minimum.
+ * It stops once the two minimums add up to at least the best s-v-t distance found,
+ * which usually settles far fewer vertices than one search from the source.
+ * <p>
+ * The reverse digraph and the <em>V</em>-sized arrays are built once,
+ * every query only resets the vertices touched by the previous one.
+ */
+public class BidirectionalDijkstra {
+    private final EdgeWeightedDigraph G;
+    private final EdgeWeightedDigraph R; // reverse of G
+    private final Search forward;
+    private final Search backward;
+    private double distance = Double.POSITIVE_INFINITY;
+    private int meet = -1; // the vertex where the best path crosses from forward to backward
+
+    // one direction of the search with its own lazily reset state
+    private static class Search {
+        final double[] distTo;
+        final DirectedEdge[] edgeTo;
+        final int[] visited;
+        int visitedCount;
+        int settledCount;
+        final DoubleIndexMinPQ pq;
+
+        Search(int V) {
+            distTo = new double[V];
+            edgeTo = new DirectedEdge[V];
+            visited = new int[V];
+            pq = new DoubleIndexMinPQ(V);
+            for(int v = 0; v < V; v++) {
+                distTo[v] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        void reset(int s) {
+            for(int i = 0; i < visitedCount; i++) {
+                distTo[visited[i]] = Double.POSITIVE_INFINITY;
+                edgeTo[visited[i]] = null;
+            }
+            visitedCount = 0;
+            settledCount = 0;
+            pq.clear();
+            distTo[s] = 0.0;
+            visited[visitedCount++] = s;
+            pq.insert(s, 0.0);
+        }
+
+        double minKey() {
+            return pq.isEmpty() ? Double.POSITIVE_INFINITY : pq.minKey();
+        }
+    }
+
+    /**
+     * Prepares queries on the edge-weighted digraph {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     * @throws IllegalArgumentException if any edge has negative weight
+     */
+    public BidirectionalDijkstra(EdgeWeightedDigraph G) {
+        for(DirectedEdge e : G.edges()) {
+            if (e.weight() < 0)
+                throw new IllegalArgumentException(e + " has negative weight");
+        }
+        this.G = G;
+        this.R = G.reverse();
+        forward = new Search(G.V());
+        backward = new Search(G.V());
+    }
+
+    private void validateVertex(int v) {
+        int V = G.V();
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Computes the shortest path from {@code s} to {@code t}.
+     *
+     * @param s the source vertex
+     * @param t the target vertex
+     * @return the distance from {@code s} to {@code t},
+     * {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double query(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        forward.reset(s);
+        backward.reset(t);
+        distance = s == t ? 0.0 : Double.POSITIVE_INFINITY;
+        meet = s == t ? s : -1;
+
+        while (!forward.pq.isEmpty() || !backward.pq.isEmpty()) {
+            // no path shorter than the two minimums can be found any more
+            if (forward.minKey() + backward.minKey() >= distance) break;
+            if (forward.minKey() <= backward.minKey()) {
+                scan(G, forward, backward);
+            }
+            else {
+                scan(R, backward, forward);
+            }
+        }
+        return distance;
+    }
+
+    // settles the closest vertex of `search` and relaxes its edges in `graph`
+    private void scan(EdgeWeightedDigraph graph, Search search, Search other) {
+        int v = search.pq.delMin();
+        search.settledCount++;
+        for(DirectedEdge e : graph.adj(v)) {
+            int w = e.to();
+            double dist = search.distTo[v] + e.weight();
+            if (dist < search.distTo[w]) {
+                if (search.distTo[w] == Double.POSITIVE_INFINITY) search.visited[search.visitedCount++] = w;
+                search.distTo[w] = dist;
+                search.edgeTo[w] = e;
+                if (search.pq.contains(w)) search.pq.decreaseKey(w, dist);
+                else search.pq.insert(w, dist);
+            }
+            if (search.distTo[w] + other.distTo[w] < distance) {
+                distance = search.distTo[w] + other.distTo[w];
+                meet = w;
+            }
+        }
+    }
+
+    /**
+     * Is there a path from the source to the target of the last query?
+     *
+     * @return {@code true} if there is such path, {@code false} otherwise
+     */
+    public boolean hasPath() {
+        return meet != -1;
+    }
+
+    /**
+     * Returns the distance from the source to the target of the last query.
+     *
+     * @return the distance, {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double distance() {
+        return distance;
+    }
+
+    /**
+     * Returns the number of vertices settled by both searches of the last query.
+     *
+     * @return the number of vertices settled by the last query
+     */
+    public int settledCount() {
+        return forward.settledCount + backward.settledCount;
+    }
+
+    /**
+     * Returns the directed edges from the source to the target of the last query,
+     * in the same order as {@link DijkstraSP#pathTo}.
+     *
+     * @return the directed edges from the source to the target,
+     * or {@code null} if there is no path
+     */
+    public Iterable<DirectedEdge> path() {
+        if (!hasPath()) return null;
+        // backward half, edges of R are turned back into edges of G
+        Stack<DirectedEdge> back = new Stack<>();
+        for(DirectedEdge e = backward.edgeTo[meet]; e != null; e = backward.edgeTo[e.from()]) {
+            back.push(new DirectedEdge(e.to(), e.from(), e.weight()));
+        }
+        // push the path from its last edge to its first one
+        Stack<DirectedEdge> path = new Stack<>();
+        for(DirectedEdge e : back) {
+            path.push(e);
+        }
+        for(DirectedEdge e = forward.edgeTo[meet]; e != null; e = forward.edgeTo[e.from()]) {
+            path.push(e);
+        }
+        return path;
+    }
+
+    // unit test code
+    // BidirectionalDijkstra tinyEWD.txt s t
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int s = Integer.parseInt(args[1]);
+        int t = Integer.parseInt(args[2]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        BidirectionalDijkstra sp = new BidirectionalDijkstra(G);
+        sp.query(s, t);
+        if (sp.hasPath()) {
+            StdOut.printf("%d to %d (%.2f)", s, t, sp.distance());
+            for(DirectedEdge e : sp.path()) {
+                StdOut.print("  " + e);
+            }
+            StdOut.println();
+        }
+        else {
+            StdOut.printf("%d to %d         no path\n", s, t);
+        }
+        StdOut.println(sp.settledCount() + " vertices settled, DijkstraSP distance "
+                + new DijkstraSP(G, s).distTo(t));
+    }
+}
@@ -0,0 +1,558 @@
+package me.alivecode.algs4;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code BinaryGraph} class writes graphs in a versioned binary file format
+ * and maps such files back as read-only graphs with {@link FileChannel#map},
+ * so loading a graph costs no parsing and no copy onto the heap.
+ * <p>
+ * The file is little-endian and laid out as
+ * <pre>
+ *     int    magic     0x47344C41 ("AL4G")
+ *     int    version   1
+ *     int    flags     WEIGHTED | UNDIRECTED
+ *     int    V         number of vertices
+ *     long   arcs      number of stored adjacency entries
+ *     long[] offsets   V+1 entries, arcs of v are [offsets[v], offsets[v+1])
+ *     int[]  targets   arcs entries, padded to a multiple of 8 bytes
+ *     double[] weights arcs entries, only if WEIGHTED
+ * </pre>
+ * An undirected graph stores every edge in both adjacency lists like {@link Graph} does.
+ * Every section starts at a multiple of 8 bytes, so no value spans two mapped segments.
+ * <p>
+ * Mapping checks the header, the size and the first and last offsets only;
+ * the other offsets and the targets are checked when copied onto the heap.
+ */
+public class BinaryGraph {
+    public static final int MAGIC = 0x47344C41;
+    public static final int VERSION = 1;
+    public static final int WEIGHTED = 1;   // the file has a weights section
+    public static final int UNDIRECTED = 2; // every edge is stored in both directions
+
+    private static final int HEADER_BYTES = 24;
+    private static final int SEGMENT_SHIFT = 30; // map the file in 1GB segments
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final int flags;
+    private final int V;
+    private final long arcs;
+    private final long targetsAt; // file position of targets[0]
+    private final long weightsAt; // file position of weights[0]
+
+    /**
+     * Maps the binary graph file {@code path} as a read-only graph.
+     * The file stays mapped until this object is garbage collected.
+     *
+     * @param path the binary graph file
+     * @throws IllegalArgumentException if the file is not a valid binary graph
+     */
+    public BinaryGraph(String path) {
+        try (RandomAccessFile file = new RandomAccessFile(path, "r");
+             FileChannel channel = file.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IllegalArgumentException(path + " is too short to be a binary graph");
+            int n = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[n];
+            for(int i = 0; i < n; i++) {
+                long at = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(size - at, 1L << SEGMENT_SHIFT);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, at, length);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            if (getInt(0) != MAGIC) throw new IllegalArgumentException(path + " is not a binary graph");
+            int version = getInt(4);
+            if (version != VERSION) throw new IllegalArgumentException("unsupported binary graph version " + version);
+            flags = getInt(8);
+            V = getInt(12);
+            arcs = getLong(16);
+            // arcs is bounded by the size first, so that the sections below cannot overflow
+            if (V < 0 || arcs < 0 || arcs > size / 4) throw new IllegalArgumentException("invalid header in " + path);
+            targetsAt = HEADER_BYTES + 8L * V + 8;
+            weightsAt = targetsAt + pad(4 * arcs);
+            long expected = weightsAt + (isWeighted() ? 8 * arcs : 0);
+            if (size != expected)
+                throw new IllegalArgumentException(path + " has " + size + " bytes, expected " + expected);
+            if (getLong(HEADER_BYTES) != 0 || getLong(targetsAt - 8) != arcs)
+                throw new IllegalArgumentException("offsets in " + path + " do not span the " + arcs + " arcs");
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("could not map " + path, e);
+        }
+    }
+
+    private static long pad(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private int getInt(long at) {
+        return segments[(int) (at >>> SEGMENT_SHIFT)].getInt((int) (at & SEGMENT_MASK));
+    }
+
+    private long getLong(long at) {
+        return segments[(int) (at >>> SEGMENT_SHIFT)].getLong((int) (at & SEGMENT_MASK));
+    }
+
+    private double getDouble(long at) {
+        return segments[(int) (at >>> SEGMENT_SHIFT)].getDouble((int) (at & SEGMENT_MASK));
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    private void validateArc(long i) {
+        if (i < 0 || i >= arcs)
+            throw new IllegalArgumentException("arc " + i + " is not between 0 and " + (arcs-1));
+    }
+
+    /**
+     * Returns the number of vertices.
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges.
+     * An undirected edge is counted once although it is stored twice.
+     */
+    public long E() {
+        return isUndirected() ? arcs / 2 : arcs;
+    }
+
+    /**
+     * Does the file store edge weights?
+     */
+    public boolean isWeighted() {
+        return (flags & WEIGHTED) != 0;
+    }
+
+    /**
+     * Was the file written from an undirected graph?
+     */
+    public boolean isUndirected() {
+        return (flags & UNDIRECTED) != 0;
+    }
+
+    /**
+     * Returns the index of the first arc leaving vertex {@code v}.
+     */
+    public long begin(int v) {
+        validateVertex(v);
+        return getLong(HEADER_BYTES + 8L * v);
+    }
+
+    /**
+     * Returns one past the index of the last arc leaving vertex {@code v}.
+     */
+    public long end(int v) {
+        validateVertex(v);
+        return getLong(HEADER_BYTES + 8L * (v + 1));
+    }
+
+    /**
+     * Returns the number of arcs leaving vertex {@code v}.
+     */
+    public int outdegree(int v) {
+        return (int) (end(v) - begin(v));
+    }
+
+    /**
+     * Returns the vertex that arc {@code i} points to.
+     */
+    public int target(long i) {
+        validateArc(i);
+        return getInt(targetsAt + 4 * i);
+    }
+
+    /**
+     * Returns the weight of arc {@code i}.
+     *
+     * @throws UnsupportedOperationException if the file stores no weights
+     */
+    public double weight(long i) {
+        if (!isWeighted()) throw new UnsupportedOperationException("binary graph has no weights");
+        validateArc(i);
+        return getDouble(weightsAt + 8 * i);
+    }
+
+    // the offsets, checked to be nondecreasing, the header checked the first and last
+    private int[] offsets() {
+        int[] offsets = new int[V + 1];
+        for(int v = 1; v <= V; v++) {
+            long offset = getLong(HEADER_BYTES + 8L * v);
+            if (offset < offsets[v-1] || offset > arcs)
+                throw new IllegalArgumentException("offset " + offset + " of vertex " + v + " is out of order");
+            offsets[v] = (int) offset;
+        }
+        return offsets;
+    }
+
+    private int validTarget(long i) {
+        int w = target(i);
+        if (w < 0 || w >= V)
+            throw new IllegalArgumentException("arc " + i + " points to " + w + ", not between 0 and " + (V-1));
+        return w;
+    }
+
+    /**
+     * Copies the arcs of this graph onto the heap as a {@link CSRDigraph}.
+     *
+     * @throws IllegalArgumentException if the offsets are not nondecreasing
+     *         or an arc points to no vertex
+     */
+    public CSRDigraph toCSRDigraph() {
+        if (arcs > Integer.MAX_VALUE) throw new UnsupportedOperationException("too many arcs for a CSRDigraph");
+        int[] offsets = offsets();
+        int[] targets = new int[(int) arcs];
+        int[] indegree = new int[V];
+        for(int i = 0; i < targets.length; i++) {
+            targets[i] = validTarget(i);
+            indegree[targets[i]]++;
+        }
+        return new CSRDigraph(offsets, targets, indegree);
+    }
+
+    /**
+     * Copies the arcs of this graph onto the heap as a {@link CSREdgeWeightedDigraph}.
+     *
+     * @throws UnsupportedOperationException if the file stores no weights
+     * @throws IllegalArgumentException if the offsets are not nondecreasing
+     *         or an arc points to no vertex
+     */
+    public CSREdgeWeightedDigraph toCSREdgeWeightedDigraph() {
+        if (!isWeighted()) throw new UnsupportedOperationException("binary graph has no weights");
+        if (arcs > Integer.MAX_VALUE) throw new UnsupportedOperationException("too many arcs for a CSREdgeWeightedDigraph");
+        int[] offsets = offsets();
+        int[] heads = new int[(int) arcs];
+        double[] weights = new double[(int) arcs];
+        int[] indegree = new int[V];
+        for(int i = 0; i < heads.length; i++) {
+            heads[i] = validTarget(i);
+            weights[i] = weight(i);
+            indegree[heads[i]]++;
+        }
+        return new CSREdgeWeightedDigraph(offsets, heads, weights, indegree);
+    }
+
+    /***************************************************************************
+     *  Writers, one per graph type.
+     *  Each writes the header and offsets, then targets, then weights
+     *  in separate passes over the adjacency lists.
+     ***************************************************************************/
+
+    /**
+     * Writes the digraph {@code G} to {@code path}.
+     */
+    public static void write(String path, Digraph G) {
+        try (Output out = new Output(path)) {
+            out.header(0, G.V(), G.E());
+            long offset = 0;
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                offset += G.outdegree(v);
+                out.putLong(offset);
+            }
+            for(int v = 0; v < G.V(); v++) {
+                for(int w : G.adj(v)) {
+                    out.putInt(w);
+                }
+            }
+            out.pad();
+        }
+    }
+
+    /**
+     * Writes the compressed digraph {@code G} to {@code path}.
+     */
+    public static void write(String path, CSRDigraph G) {
+        try (Output out = new Output(path)) {
+            out.header(0, G.V(), G.E());
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                out.putLong(G.end(v));
+            }
+            for(int i = 0; i < G.E(); i++) {
+                out.putInt(G.target(i));
+            }
+            out.pad();
+        }
+    }
+
+    /**
+     * Writes the undirected graph {@code G} to {@code path}.
+     */
+    public static void write(String path, Graph G) {
+        try (Output out = new Output(path)) {
+            out.header(UNDIRECTED, G.V(), 2L * G.E());
+            long offset = 0;
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                offset += G.degree(v);
+                out.putLong(offset);
+            }
+            for(int v = 0; v < G.V(); v++) {
+                for(int w : G.adj(v)) {
+                    out.putInt(w);
+                }
+            }
+            out.pad();
+        }
+    }
+
+    /**
+     * Writes the primitive undirected graph {@code G} to {@code path}.
+     */
+    public static void write(String path, IntGraph G) {
+        try (Output out = new Output(path)) {
+            out.header(UNDIRECTED, G.V(), 2L * G.E());
+            long offset = 0;
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                offset += G.degree(v);
+                out.putLong(offset);
+            }
+            for(int v = 0; v < G.V(); v++) {
+                for(int i = 0; i < G.degree(v); i++) {
+                    out.putInt(G.neighbor(v, i));
+                }
+            }
+            out.pad();
+        }
+    }
+
+    /**
+     * Writes the edge-weighted digraph {@code G} to {@code path}.
+     */
+    public static void write(String path, EdgeWeightedDigraph G) {
+        try (Output out = new Output(path)) {
+            out.header(WEIGHTED, G.V(), G.E());
+            long offset = 0;
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                offset += G.outdegree(v);
+                out.putLong(offset);
+            }
+            for(int v = 0; v < G.V(); v++) {
+                for(DirectedEdge e : G.adj(v)) {
+                    out.putInt(e.to());
+                }
+            }
+            out.pad();
+            for(int v = 0; v < G.V(); v++) {
+                for(DirectedEdge e : G.adj(v)) {
+                    out.putDouble(e.weight());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the packed edge-weighted digraph {@code G} to {@code path}.
+     */
+    public static void write(String path, CSREdgeWeightedDigraph G) {
+        try (Output out = new Output(path)) {
+            out.header(WEIGHTED, G.V(), G.E());
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                out.putLong(G.end(v));
+            }
+            for(int i = 0; i < G.E(); i++) {
+                out.putInt(G.head(i));
+            }
+            out.pad();
+            for(int i = 0; i < G.E(); i++) {
+                out.putDouble(G.weight(i));
+            }
+        }
+    }
+
+    /**
+     * Writes the edge-weighted graph {@code G} to {@code path}.
+     */
+    public static void write(String path, EdgeWeightedGraph G) {
+        try (Output out = new Output(path)) {
+            out.header(WEIGHTED | UNDIRECTED, G.V(), 2L * G.E());
+            long offset = 0;
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                offset += G.degree(v);
+                out.putLong(offset);
+            }
+            for(int v = 0; v < G.V(); v++) {
+                for(Edge e : G.adj(v)) {
+                    out.putInt(e.other(v));
+                }
+            }
+            out.pad();
+            for(int v = 0; v < G.V(); v++) {
+                for(Edge e : G.adj(v)) {
+                    out.putDouble(e.weight());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the flow network {@code G} to {@code path}.
+     * Only the forward edges are stored, with their capacity as weight,
+     * the current flow is not part of the format.
+     * Self loops are skipped like {@link FlowNetwork#edges()} does.
+     */
+    public static void write(String path, FlowNetwork G) {
+        long arcs = 0;
+        for(int v = 0; v < G.V(); v++) {
+            for(FlowEdge e : G.adj(v)) {
+                if (e.to() != v) arcs++;
+            }
+        }
+        try (Output out = new Output(path)) {
+            out.header(WEIGHTED, G.V(), arcs);
+            long offset = 0;
+            out.putLong(0);
+            for(int v = 0; v < G.V(); v++) {
+                for(FlowEdge e : G.adj(v)) {
+                    if (e.to() != v) offset++;
+                }
+                out.putLong(offset);
+            }
+            for(int v = 0; v < G.V(); v++) {
+                for(FlowEdge e : G.adj(v)) {
+                    if (e.to() != v) out.putInt(e.to());
+                }
+            }
+            out.pad();
+            for(int v = 0; v < G.V(); v++) {
+                for(FlowEdge e : G.adj(v)) {
+                    if (e.to() != v) out.putDouble(e.capacity());
+                }
+            }
+        }
+    }
+
+    // buffered little-endian writer over a file channel
+    private static class Output implements AutoCloseable {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        Output(String path) {
+            try {
+                file = new RandomAccessFile(path, "rw");
+                file.setLength(0);
+                channel = file.getChannel();
+            }
+            catch (IOException e) {
+                throw new IllegalArgumentException("could not open " + path, e);
+            }
+        }
+
+        void header(int flags, int V, long arcs) {
+            putInt(MAGIC);
+            putInt(VERSION);
+            putInt(flags);
+            putInt(V);
+            putLong(arcs);
+        }
+
+        void putInt(int x) {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(x);
+            written += 4;
+        }
+
+        void putLong(long x) {
+            if (buffer.remaining() < 8) flush();
+            buffer.putLong(x);
+            written += 8;
+        }
+
+        void putDouble(double x) {
+            if (buffer.remaining() < 8) flush();
+            buffer.putDouble(x);
+            written += 8;
+        }
+
+        // pads the file to a multiple of 8 bytes
+        void pad() {
+            while (written % 8 != 0) {
+                if (!buffer.hasRemaining()) flush();
+                buffer.put((byte) 0);
+                written++;
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("could not write binary graph", e);
+            }
+            buffer.clear();
+        }
+
+        public void close() {
+            flush();
+            try {
+                channel.close();
+                file.close();
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("could not close binary graph", e);
+            }
+        }
+    }
+
+    // unit test code
+    // BinaryGraph tinyDG.txt tinyDG.bin
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        Digraph DG = new Digraph(in);
+        BinaryGraph.write(args[1], DG);
+
+        BinaryGraph G = new BinaryGraph(args[1]);
+        StdOut.println(G.V() + " vertices, " + G.E() + " edges");
+        for(int v = 0; v < G.V(); v++) {
+            StdOut.print("v " + v + ":");
+            for(long i = G.begin(v); i < G.end(v); i++) {
+                StdOut.print(" " + G.target(i));
+            }
+            StdOut.println();
+        }
+
+        // a target out of range is caught when the arcs are copied
+        if (G.E() > 0) {
+            try (RandomAccessFile file = new RandomAccessFile(args[1], "rw")) {
+                file.seek(G.targetsAt);
+                file.write(new byte[] { -1, -1, -1, 127 });
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("could not corrupt " + args[1], e);
+            }
+            try {
+                new BinaryGraph(args[1]).toCSRDigraph();
+                StdOut.println("corrupt target not detected");
+            }
+            catch (IllegalArgumentException e) {
+                StdOut.println(e.getMessage());
+            }
+        }
+    }
+}
@@ -25,27 +25,38 @@ public class Bipartite {
         color = new boolean[G.V()];
         edgeTo = new int[G.V()];
         isBipartite = true;
-
-        for(int v = 0; v < G.V(); v++) {
-            if (!marked[v]) {
-                dfs(G, v);
-            }
-        }
+        dfs(new CSRDigraph(G));
     }
 
-    private void dfs(Graph G, int v) {
-        marked[v] = true;
-
-        for(int w : G.adj(v)) {
+    /**
+     * Computes if the specified primitive graph is bipartite.
+     *
+     * @param G the specified graph.
+     */
+    public Bipartite(IntGraph G) {
+        marked = new boolean[G.V()];
+        color = new boolean[G.V()];
+        edgeTo = new int[G.V()];
+        isBipartite = true;
+        dfs(new CSRDigraph(G));
+    }
 
-            if (oddCycle != null) return;
+    // an undirected edge is seen twice, the first time as a tree
+    // or back edge, so the back edges are the only ones to check
+    private void dfs(CSRDigraph G) {
+        final DepthFirstTraversal dfs = new DepthFirstTraversal(G);
+        dfs.searchAll(new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+            }
 
-            if (!marked[w]) {
+            public void treeEdge(int v, int w, int i) {
                 color[w] = !color[v];
                 edgeTo[w] = v;
-                dfs(G, w);
             }
-            else if(color[w] == color[v]) {
+
+            public void backEdge(int v, int w, int i) {
+                if (color[w] != color[v]) return;
                 isBipartite = false;
                 // The sub connected component containing w
                 // must be a cycle with odd edges
@@ -56,8 +67,9 @@ public class Bipartite {
                     oddCycle.push(x);
                 }
                 oddCycle.push(w);
+                dfs.stop();
             }
-        }
+        });
     }
 
     /**
@@ -0,0 +1,287 @@
+package me.alivecode.algs4;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code BoruvkaMST} class computes a minimum spanning forest by
+ * Borůvka's algorithm, every round handled in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Every component is named by one of its vertices. In a round every edge
+ * between two components offers itself to both of them, the cheapest offer
+ * being kept by compare-and-set; the edges are ordered by weight, then by
+ * index, so that no cycle can be chosen. Every component is then linked to
+ * the component across its cheapest edge, two components that chose each
+ * other keeping the smaller name, and the links are followed by pointer
+ * jumping to relabel the vertices. The edges inside a component are dropped.
+ * At least half of the components disappear in a round, so there are at most
+ * lg <em>V</em> rounds.
+ */
+public class BoruvkaMST {
+    private static final int GRAIN = 4096; // edges or vertices handled by one task
+
+    private final int[] v, w;        // endpoints of edge i
+    private final double[] weights;  // weights[i] = weight of edge i
+    private final Edge[] source;     // the edges of the graph
+    private final Queue<Integer> mst = new Queue<Integer>(); // indices of the edges in the forest
+    private double weight;           // weight of the forest
+    private int rounds;              // number of rounds
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the edge-weighted graph
+     */
+    public BoruvkaMST(EdgeWeightedGraph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G}
+     * on the fork-join pool {@code pool}.
+     *
+     * @param G the edge-weighted graph
+     * @param pool the pool running the rounds
+     */
+    public BoruvkaMST(EdgeWeightedGraph G, ForkJoinPool pool) {
+        int E = G.E();
+        v = new int[E];
+        w = new int[E];
+        weights = new double[E];
+        source = new Edge[E];
+        int i = 0;
+        for(Edge e : G.edges()) {
+            v[i] = e.either();
+            w[i] = e.other(v[i]);
+            weights[i] = e.weight();
+            source[i++] = e;
+        }
+        Rounds rounds = new Rounds(G.V());
+        pool.invoke(rounds);
+
+        // the forest summed in increasing order of weight, as by Kruskal's algorithm
+        Queue<Integer> forest = new Queue<Integer>();
+        for(i = 0; i < E; i++) {
+            if (rounds.taken[i]) forest.enqueue(i);
+        }
+        int[] index = new int[forest.size()];
+        double[] forestWeights = new double[forest.size()];
+        int p = 0;
+        for(int f : forest) {
+            index[p] = f;
+            forestWeights[p++] = weights[f];
+        }
+        for(int q : RadixKruskalMST.sort(forestWeights, pool)) {
+            mst.enqueue(index[q]);
+            weight += forestWeights[q];
+        }
+    }
+
+    // runs body on lo to hi-1, GRAIN indices per task
+    private static void parallelFor(int lo, int hi, IntConsumer body) {
+        new ParallelFor(lo, hi, GRAIN, body).invoke();
+    }
+
+    // is edge i lighter than edge j, j = -1 being heavier than any edge?
+    private boolean less(int i, int j) {
+        if (j == -1) return true;
+        return weights[i] < weights[j] || weights[i] == weights[j] && i < j;
+    }
+
+    // the rounds, run as a task of the pool
+    private class Rounds extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int V;
+        private final int[] comp;   // comp[x] = name of the component of vertex x
+        private final int[] link;   // link[c] = component c is merged into, c for a root
+        private final AtomicIntegerArray cheapest; // cheapest[c] = lightest edge leaving component c, or -1
+        private final boolean[] taken; // taken[i] = is edge i in the forest?
+        private int[] live;         // live[0..n) = the edges between two components
+        private int[] kept;
+        private int n;
+
+        Rounds(int V) {
+            this.V = V;
+            comp = new int[V];
+            link = new int[V];
+            cheapest = new AtomicIntegerArray(V);
+            taken = new boolean[v.length];
+            live = new int[v.length];
+            kept = new int[v.length];
+        }
+
+        @Override
+        protected void compute() {
+            parallelFor(0, V, x -> {
+                comp[x] = x;
+                cheapest.set(x, -1);
+            });
+            parallelFor(0, live.length, i -> live[i] = i);
+            n = compact(live.length);
+
+            while (n > 0) {
+                rounds++;
+                parallelFor(0, n, p -> {
+                    int i = live[p];
+                    offer(comp[v[i]], i);
+                    offer(comp[w[i]], i);
+                });
+
+                // the links, a pair of components that chose each other being
+                // broken at the smaller one, which becomes a root
+                parallelFor(0, V, c -> {
+                    int i = cheapest.get(c);
+                    if (comp[c] != c || i == -1) link[c] = c;
+                    else link[c] = comp[v[i]] == c ? comp[w[i]] : comp[v[i]];
+                });
+                parallelFor(0, V, c -> {
+                    int d = link[c];
+                    if (d != c && c < d && link[d] == c) link[c] = c;
+                });
+                parallelFor(0, V, c -> {
+                    if (link[c] != c) taken[cheapest.get(c)] = true;
+                    cheapest.set(c, -1);
+                });
+
+                // pointer jumping, every link ending at a root
+                boolean[] changed = { true };
+                while (changed[0]) {
+                    changed[0] = false;
+                    parallelFor(0, V, c -> {
+                        int d = link[c];
+                        int e = link[d];
+                        if (d != e) {
+                            link[c] = e;
+                            changed[0] = true;
+                        }
+                    });
+                }
+                parallelFor(0, V, x -> comp[x] = link[comp[x]]);
+                n = compact(n);
+            }
+        }
+
+        // the cheapest edge of component c becomes i if i is lighter
+        private void offer(int c, int i) {
+            int j = cheapest.get(c);
+            while (less(i, j) && !cheapest.compareAndSet(c, j, i)) {
+                j = cheapest.get(c);
+            }
+        }
+
+        // keeps the edges of live[0..n) between two components, in order
+        private int compact(int n) {
+            int blocks = (n + GRAIN - 1) / GRAIN;
+            int[] start = new int[blocks + 1];
+            new ParallelFor(0, blocks, 1, b -> {
+                int c = 0;
+                for(int p = b * GRAIN; p < b * GRAIN + Math.min(GRAIN, n - b * GRAIN); p++) {
+                    int i = live[p];
+                    if (comp[v[i]] != comp[w[i]]) c++;
+                }
+                start[b + 1] = c;
+            }).invoke();
+            for(int b = 0; b < blocks; b++) {
+                start[b + 1] += start[b];
+            }
+            new ParallelFor(0, blocks, 1, b -> {
+                int q = start[b];
+                for(int p = b * GRAIN; p < b * GRAIN + Math.min(GRAIN, n - b * GRAIN); p++) {
+                    int i = live[p];
+                    if (comp[v[i]] != comp[w[i]]) kept[q++] = i;
+                }
+            }).invoke();
+            int[] swap = live;
+            live = kept;
+            kept = swap;
+            return start[blocks];
+        }
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest, in increasing order of weight.
+     *
+     * @return the edges of the minimum spanning forest
+     */
+    public Iterable<Edge> edges() {
+        Queue<Edge> edges = new Queue<Edge>();
+        for(int i : mst) {
+            edges.enqueue(source[i]);
+        }
+        return edges;
+    }
+
+    /**
+     * Returns the weight of the minimum spanning forest.
+     *
+     * @return the weight of the minimum spanning forest
+     */
+    public double weight() {
+        return weight;
+    }
+
+    /**
+     * Returns the number of rounds.
+     *
+     * @return the number of rounds
+     */
+    public int rounds() {
+        return rounds;
+    }
+
+    // unit test code
+    // BoruvkaMST tinyEWG.txt
+    // BoruvkaMST -random V E
+    // runs on 1, 2, 4, ... threads and compares with KruskalMST
+    public static void main(String[] args) {
+        EdgeWeightedGraph G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            G = new EdgeWeightedGraph(V);
+            for(int i = 0; i < E; i++) {
+                G.addEdge(new Edge(StdRandom.uniform(V), StdRandom.uniform(V), StdRandom.uniform(1.0)));
+            }
+        }
+        else {
+            G = new EdgeWeightedGraph(new In(args[0]));
+        }
+
+        Stopwatch timer = new Stopwatch();
+        KruskalMST kruskal = new KruskalMST(G);
+        StdOut.printf("KruskalMST       %.3f s, weight %.5f\n", timer.elapsedTime(), kruskal.weight());
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        BoruvkaMST mst = null;
+        for(int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = Double.POSITIVE_INFINITY;
+            for(int run = 0; run < 3; run++) {
+                timer = new Stopwatch();
+                mst = new BoruvkaMST(G, pool);
+                best = Math.min(best, timer.elapsedTime());
+            }
+            pool.shutdown();
+            if (threads == 1) single = best;
+            StdOut.printf("%2d threads       %.3f s, speedup %.2f, %d rounds, weight %.5f, %s\n",
+                    threads, best, single / best, mst.rounds(), mst.weight(),
+                    mst.weight() == kruskal.weight() ? "same" : "different");
+            if (threads == processors) break;
+        }
+
+        if (G.V() <= 20) {
+            for(Edge e : mst.edges()) {
+                StdOut.println(e);
+            }
+        }
+    }
+}
@@ -28,6 +28,21 @@ public class BreadthFirstDirectedPaths {
         bfs(DG, s);
     }
 
+    /**
+     * Computes paths and distance from vertex {@code s} to every
+     * other vertices in the compressed digraph {@code DG}.
+     */
+    public BreadthFirstDirectedPaths(CSRDigraph DG, int s) {
+        marked = new boolean[DG.V()];
+        distTo = new int[DG.V()];
+        for(int v = 0; v < DG.V(); v++) {
+            distTo[v] = INFINITY;
+        }
+        edgeTo = new int[DG.V()];
+        validateVertex(s);
+        bfs(DG, s);
+    }
+
     private void bfs(Digraph DG, int s) {
         validateVertex(s);
 
@@ -48,6 +63,29 @@ public class BreadthFirstDirectedPaths {
             }
         }
     }
+
+    // every vertex is enqueued at most once, so an int[V] array is the queue.
+    private void bfs(CSRDigraph DG, int s) {
+        marked[s] = true;
+        distTo[s] = 0;
+
+        int[] q = new int[DG.V()];
+        int head = 0;
+        int tail = 0;
+        q[tail++] = s;
+        while(head < tail) {
+            int v = q[head++];
+            for(int i = DG.begin(v); i < DG.end(v); i++) {
+                int w = DG.target(i);
+                if (!marked[w]) {
+                    marked[w] = true;
+                    distTo[w] = distTo[v] + 1;
+                    edgeTo[w] = v;
+                    q[tail++] = w;
+                }
+            }
+        }
+    }
                 
     private void validateVertex(int v) {
         int V = marked.length;
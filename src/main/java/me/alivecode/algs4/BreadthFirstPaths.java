@@ -26,6 +26,20 @@ public class BreadthFirstPaths {
 
         assert check(G, s);
     }
+
+    /**
+     * Computes shortest path from {@code s} to
+     * erery other vertices in the primitive graph {@code G}.
+     */
+    public BreadthFirstPaths(IntGraph G, int s) {
+        marked = new boolean[G.V()];
+        edgeTo = new int[G.V()];
+        distTo = new int[G.V()];
+        validateVertex(s);
+        bfs(G, s);
+
+        assert check(G, s);
+    }
    
     private void validateVertex(int v) {
         int V = marked.length;
@@ -58,6 +72,32 @@ public class BreadthFirstPaths {
         }
     }
     
+    // every vertex is enqueued at most once, so an int[V] array is the queue.
+    private void bfs(IntGraph G, int s) {
+        int[] queue = new int[G.V()];
+        int head = 0;
+        int tail = 0;
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = INFINITY;
+        }
+        distTo[s] = 0;
+        marked[s] = true;
+        queue[tail++] = s;
+
+        while(head < tail) {
+            int v = queue[head++];
+            for(int i = 0; i < G.degree(v); i++) {
+                int w = G.neighbor(v, i);
+                if (!marked[w]) {
+                    marked[w] = true;
+                    edgeTo[w] = v;
+                    distTo[w] = distTo[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+    }
+
     private boolean check(Graph G, int s) {
         // check if diskTo[s] = 0;
         if (distTo[s] != 0) return false;
@@ -83,6 +123,27 @@ public class BreadthFirstPaths {
         return true;
     }
 
+    // same optimality conditions as check(Graph, int)
+    private boolean check(IntGraph G, int s) {
+        if (distTo[s] != 0) return false;
+
+        for(int v = 0; v < G.V(); v++) {
+            for(int i = 0; i < G.degree(v); i++) {
+                int w = G.neighbor(v, i);
+                if (hasPathTo(v) != hasPathTo(w)) return false;
+                if (hasPathTo(v) && distTo[w] > distTo[v] + 1) return false;
+            }
+        }
+
+        for(int w = 0; w < G.V(); w++) {
+            if (!hasPathTo(w) || w == s) continue;
+            int v = edgeTo[w];
+            if (distTo[w] != distTo[v] + 1) return false;
+        }
+
+        return true;
+    }
+
     /**
      * Is there a s-v path?
      */
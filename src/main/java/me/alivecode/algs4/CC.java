@@ -21,24 +21,36 @@ public class CC {
         id = new int[G.V()];
         size = new int[G.V()];
         count = 0;
+        dfs(new CSRDigraph(G));
+    } 
+
+    /**
+     * Computes connected components in the primitive undirected graph {@code G}
+     */
+    public CC(IntGraph G) {
+        marked = new boolean[G.V()];
+        id = new int[G.V()];
+        size = new int[G.V()];
+        count = 0;
+        dfs(new CSRDigraph(G));
+    }
+
+    // depth first search, one component per root
+    private void dfs(CSRDigraph G) {
+        DepthFirstTraversal dfs = new DepthFirstTraversal(G);
+        DepthFirstTraversal.Visitor visitor = new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+                id[v] = count;
+                size[count]++;
+            }
+        };
         for(int v = 0; v < G.V(); v++) {
             if (!marked[v]) {
-                dfs(G, v);
+                dfs.search(v, visitor);
                 count++;
             }
         }
-    } 
-
-    // depth first search
-    private void dfs(Graph G, int v) {
-        marked[v] = true;
-        id[v] = count;
-        size[count]++;
-        for(int w: G.adj(v)) {
-            if (!marked[w]) {
-                dfs(G, w);
-            }
-        }
     }
 
     /**
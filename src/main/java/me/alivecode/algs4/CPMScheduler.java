@@ -0,0 +1,541 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code CPMScheduler} class maintains the earliest schedule of jobs with
+ * durations and precedence constraints, by the <em>critical path method</em>,
+ * while jobs are added and durations and constraints change.
+ * <p>
+ * The start of a job is the latest finish of the jobs it must follow, and its
+ * tail is its duration plus the longest tail of the jobs that must follow it.
+ * The finish time of the schedule is the longest tail, the latest start of a job
+ * that does not delay it is the finish time less the tail, and the slack of a
+ * job is the difference between its latest and earliest starts.
+ * <p>
+ * A change only moves the starts of the jobs after it and the tails of the jobs
+ * before it. They are recomputed on the next query, in topological order from
+ * the changed jobs, and only as far as the values change. The topological order
+ * is kept by the algorithm of Pearce and Kelly: a constraint that agrees with it
+ * costs a constant time, otherwise only the jobs between its two ends are
+ * reordered, and a constraint that closes a cycle is rejected.
+ * See {@link CPM} for the reduction to longest paths in a DAG.
+ */
+public class CPMScheduler {
+    private int n;                   // number of jobs
+    private double[] duration;
+    private double[] start;          // start[j] = earliest start of job j
+    private double[] tail;           // tail[j] = longest duration of a chain of jobs from j
+    private int[][] succ;            // succ[j] = jobs that must follow j
+    private int[] succCount;
+    private int[][] pred;            // pred[j] = jobs that j must follow
+    private int[] predCount;
+    private int[] ord;               // ord[j] = position of j in the topological order
+
+    // changed jobs, to be propagated on the next query
+    private final JobHeap forward = new JobHeap(false);  // starts, lowest position first
+    private final JobHeap backward = new JobHeap(true);  // tails, highest position first
+    private double finishTime;
+    private boolean finishTimeStale;
+
+    // state of the searches of the reordering
+    private int[] mark;
+    private int stamp;
+    private int[] stack = new int[16];
+
+    /**
+     * Initializes a scheduler without jobs.
+     */
+    public CPMScheduler() {
+        int capacity = 16;
+        duration = new double[capacity];
+        start = new double[capacity];
+        tail = new double[capacity];
+        succ = new int[capacity][];
+        succCount = new int[capacity];
+        pred = new int[capacity][];
+        predCount = new int[capacity];
+        ord = new int[capacity];
+        mark = new int[capacity];
+    }
+
+    private void resize(int capacity) {
+        duration = Arrays.copyOf(duration, capacity);
+        start = Arrays.copyOf(start, capacity);
+        tail = Arrays.copyOf(tail, capacity);
+        succ = Arrays.copyOf(succ, capacity);
+        succCount = Arrays.copyOf(succCount, capacity);
+        pred = Arrays.copyOf(pred, capacity);
+        predCount = Arrays.copyOf(predCount, capacity);
+        ord = Arrays.copyOf(ord, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+    }
+
+    private void validateJob(int j) {
+        if (j < 0 || j >= n) {
+            throw new IllegalArgumentException(j + " is not between 0 and " + (n-1));
+        }
+    }
+
+    private static void validateDuration(double duration) {
+        if (!(duration >= 0.0) || duration == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("duration must be nonnegative and finite: " + duration);
+        }
+    }
+
+    /**
+     * Adds a job without constraints.
+     *
+     * @param duration the duration of the job
+     * @return the number of the job, the number of jobs added before
+     * @throws IllegalArgumentException if {@code duration} is negative or infinite
+     */
+    public int addJob(double duration) {
+        validateDuration(duration);
+        if (n == ord.length) resize(2 * n);
+        int j = n++;
+        this.duration[j] = duration;
+        start[j] = 0.0;
+        tail[j] = duration;
+        ord[j] = j;
+        if (duration > finishTime) finishTime = duration;
+        return j;
+    }
+
+    /**
+     * Changes the duration of job {@code j}.
+     *
+     * @param j the job
+     * @param duration the new duration
+     * @throws IllegalArgumentException if {@code duration} is negative or infinite
+     */
+    public void setDuration(int j, double duration) {
+        validateJob(j);
+        validateDuration(duration);
+        this.duration[j] = duration;
+        // the finish of j moves the jobs after it, its tail the jobs before it
+        for(int k = 0; k < succCount[j]; k++) {
+            forward.add(succ[j][k]);
+        }
+        backward.add(j);
+    }
+
+    /**
+     * Adds the constraint that job {@code before} finishes before job {@code after} starts.
+     *
+     * @param before the job to be finished first
+     * @param after the job to be started after
+     * @throws IllegalArgumentException if {@code after} must already be finished
+     * before {@code before} starts, or they are the same job
+     */
+    public void addPrecedence(int before, int after) {
+        validateJob(before);
+        validateJob(after);
+        if (before == after) throw new IllegalArgumentException("job " + before + " cannot follow itself");
+        if (ord[before] > ord[after]) reorder(before, after);
+        succ[before] = add(succ[before], succCount[before]++, after);
+        pred[after] = add(pred[after], predCount[after]++, before);
+        forward.add(after);
+        backward.add(before);
+    }
+
+    /**
+     * Removes a constraint that job {@code before} finishes before job {@code after} starts.
+     *
+     * @param before the job to be finished first
+     * @param after the job to be started after
+     * @throws NoSuchElementException if there is no such constraint
+     */
+    public void removePrecedence(int before, int after) {
+        validateJob(before);
+        validateJob(after);
+        int k = indexOf(succ[before], succCount[before], after);
+        if (k < 0) throw new NoSuchElementException("job " + after + " does not follow job " + before);
+        succ[before][k] = succ[before][--succCount[before]];
+        k = indexOf(pred[after], predCount[after], before);
+        pred[after][k] = pred[after][--predCount[after]];
+        forward.add(after);
+        backward.add(before);
+    }
+
+    private static int[] add(int[] a, int size, int x) {
+        if (a == null) a = new int[2];
+        else if (size == a.length) a = Arrays.copyOf(a, 2 * size);
+        a[size] = x;
+        return a;
+    }
+
+    private static int indexOf(int[] a, int size, int x) {
+        for(int k = 0; k < size; k++) {
+            if (a[k] == x) return k;
+        }
+        return -1;
+    }
+
+    // Pearce and Kelly: the new constraint before->after goes against the order,
+    // the jobs after `after` and the jobs before `before` between their positions
+    // swap places, keeping their relative order
+    private void reorder(int before, int after) {
+        // the pending jobs are ordered by position, they must go first
+        update();
+        int lower = ord[after];
+        int upper = ord[before];
+
+        stamp++;
+        int[] later = collect(after, upper, true, before);
+        if (later == null) {
+            throw new IllegalArgumentException("job " + before + " already follows job " + after
+                    + ", the constraint closes a cycle");
+        }
+        int[] earlier = collect(before, lower, false, -1);
+
+        int[] positions = new int[later.length + earlier.length];
+        sortByOrder(later);
+        sortByOrder(earlier);
+        int p = 0;
+        for(int j : earlier) positions[p++] = ord[j];
+        for(int j : later) positions[p++] = ord[j];
+        Arrays.sort(positions);
+        p = 0;
+        for(int j : earlier) ord[j] = positions[p++];
+        for(int j : later) ord[j] = positions[p++];
+    }
+
+    // the jobs reachable from j following the constraints (or against them),
+    // within the positions up to (or from) bound, or null if `target` is reached
+    private int[] collect(int j, int bound, boolean down, int target) {
+        int[] found = new int[8];
+        int count = 0;
+        int top = 0;
+        stack[top++] = j;
+        mark[j] = stamp;
+        while (top > 0) {
+            int v = stack[--top];
+            if (count == found.length) found = Arrays.copyOf(found, 2 * count);
+            found[count++] = v;
+            int[] next = down ? succ[v] : pred[v];
+            int size = down ? succCount[v] : predCount[v];
+            for(int k = 0; k < size; k++) {
+                int w = next[k];
+                if (w == target) return null;
+                if (mark[w] == stamp) continue;
+                if (down ? ord[w] > bound : ord[w] < bound) continue;
+                mark[w] = stamp;
+                if (top == stack.length) stack = Arrays.copyOf(stack, 2 * top);
+                stack[top++] = w;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private void sortByOrder(int[] jobs) {
+        long[] keys = new long[jobs.length];
+        for(int k = 0; k < jobs.length; k++) {
+            keys[k] = ((long) ord[jobs[k]] << 32) | jobs[k];
+        }
+        Arrays.sort(keys);
+        for(int k = 0; k < jobs.length; k++) {
+            jobs[k] = (int) keys[k];
+        }
+    }
+
+    // propagates the pending changes
+    private void update() {
+        while (!forward.isEmpty()) {
+            int j = forward.remove();
+            double s = 0.0;
+            for(int k = 0; k < predCount[j]; k++) {
+                int p = pred[j][k];
+                s = Math.max(s, start[p] + duration[p]);
+            }
+            if (s != start[j]) {
+                start[j] = s;
+                for(int k = 0; k < succCount[j]; k++) {
+                    forward.add(succ[j][k]);
+                }
+            }
+        }
+        while (!backward.isEmpty()) {
+            int j = backward.remove();
+            double t = 0.0;
+            for(int k = 0; k < succCount[j]; k++) {
+                t = Math.max(t, tail[succ[j][k]]);
+            }
+            t += duration[j];
+            if (t != tail[j]) {
+                if (t > finishTime) finishTime = t;
+                else if (tail[j] == finishTime) finishTimeStale = true;
+                tail[j] = t;
+                for(int k = 0; k < predCount[j]; k++) {
+                    backward.add(pred[j][k]);
+                }
+            }
+        }
+        if (finishTimeStale) {
+            finishTime = 0.0;
+            for(int j = 0; j < n; j++) {
+                finishTime = Math.max(finishTime, tail[j]);
+            }
+            finishTimeStale = false;
+        }
+    }
+
+    /**
+     * Returns the number of jobs.
+     *
+     * @return the number of jobs
+     */
+    public int jobs() {
+        return n;
+    }
+
+    /**
+     * Returns the duration of job {@code j}.
+     *
+     * @param j the job
+     * @return the duration of job {@code j}
+     */
+    public double duration(int j) {
+        validateJob(j);
+        return duration[j];
+    }
+
+    /**
+     * Returns the earliest start of job {@code j}.
+     *
+     * @param j the job
+     * @return the earliest start of job {@code j}
+     */
+    public double start(int j) {
+        validateJob(j);
+        update();
+        return start[j];
+    }
+
+    /**
+     * Returns the earliest finish of job {@code j}.
+     *
+     * @param j the job
+     * @return the earliest finish of job {@code j}
+     */
+    public double finish(int j) {
+        validateJob(j);
+        update();
+        return start[j] + duration[j];
+    }
+
+    /**
+     * Returns the latest start of job {@code j} that does not delay the schedule.
+     *
+     * @param j the job
+     * @return the latest start of job {@code j}
+     */
+    public double latestStart(int j) {
+        validateJob(j);
+        update();
+        return finishTime - tail[j];
+    }
+
+    /**
+     * Returns how long job {@code j} can be delayed without delaying the schedule.
+     *
+     * @param j the job
+     * @return the slack of job {@code j}
+     */
+    public double slack(int j) {
+        validateJob(j);
+        update();
+        return finishTime - tail[j] - start[j];
+    }
+
+    /**
+     * Returns the finish time of the schedule, the latest finish of a job.
+     *
+     * @return the finish time of the schedule
+     */
+    public double finishTime() {
+        update();
+        return finishTime;
+    }
+
+    /**
+     * Returns a critical path: a chain of jobs, each one constrained to follow the
+     * previous one, whose durations add up to the finish time.
+     *
+     * @return the jobs of a critical path in order, none if there are no jobs
+     */
+    public Iterable<Integer> criticalPath() {
+        update();
+        Queue<Integer> path = new Queue<>();
+        int j = -1;
+        for(int v = 0; v < n; v++) {
+            if (tail[v] == finishTime) {
+                j = v;
+                break;
+            }
+        }
+        while (j != -1) {
+            path.enqueue(j);
+            int next = -1;
+            for(int k = 0; k < succCount[j]; k++) {
+                int w = succ[j][k];
+                if (duration[j] + tail[w] == tail[j]) {
+                    next = w;
+                    break;
+                }
+            }
+            j = next;
+        }
+        return path;
+    }
+
+    // binary heap of jobs by position in the topological order, without duplicates
+    private class JobHeap {
+        private final boolean max;
+        private int[] items = new int[16];
+        private int size;
+        private boolean[] contains = new boolean[16];
+
+        JobHeap(boolean max) {
+            this.max = max;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private boolean less(int i, int j) {
+            return max ? ord[items[i]] > ord[items[j]] : ord[items[i]] < ord[items[j]];
+        }
+
+        private void swap(int i, int j) {
+            int t = items[i];
+            items[i] = items[j];
+            items[j] = t;
+        }
+
+        void add(int j) {
+            if (j >= contains.length) contains = Arrays.copyOf(contains, Math.max(2 * contains.length, j + 1));
+            if (contains[j]) return;
+            contains[j] = true;
+            if (size == items.length) items = Arrays.copyOf(items, 2 * size);
+            items[size] = j;
+            for(int k = size++; k > 0 && less(k, (k - 1) / 2); k = (k - 1) / 2) {
+                swap(k, (k - 1) / 2);
+            }
+        }
+
+        int remove() {
+            int j = items[0];
+            contains[j] = false;
+            items[0] = items[--size];
+            int k = 0;
+            while (2 * k + 1 < size) {
+                int c = 2 * k + 1;
+                if (c + 1 < size && less(c + 1, c)) c++;
+                if (!less(c, k)) break;
+                swap(k, c);
+                k = c;
+            }
+            return j;
+        }
+    }
+
+    // unit test code
+    // CPMScheduler jobsPC.txt
+    // CPMScheduler -random n updates
+    public static void main(String[] args) {
+        if (!args[0].equals("-random")) {
+            In in = new In(args[0]);
+            int n = in.readInt();
+            CPMScheduler scheduler = new CPMScheduler();
+            int[][] successors = new int[n][];
+            for(int i = 0; i < n; i++) {
+                scheduler.addJob(in.readDouble());
+                successors[i] = new int[in.readInt()];
+                for(int k = 0; k < successors[i].length; k++) {
+                    successors[i][k] = in.readInt();
+                }
+            }
+            for(int i = 0; i < n; i++) {
+                for(int j : successors[i]) {
+                    scheduler.addPrecedence(i, j);
+                }
+            }
+
+            StdOut.println(" job   start  finish   slack");
+            StdOut.println("----------------------------");
+            for(int i = 0; i < n; i++) {
+                StdOut.printf("%4d  %6.1f  %6.1f  %6.1f\n",
+                        i, scheduler.start(i), scheduler.finish(i), scheduler.slack(i));
+            }
+            StdOut.printf("Finish time:  %6.1f\n", scheduler.finishTime());
+            StdOut.print("Critical path:");
+            for(int j : scheduler.criticalPath()) {
+                StdOut.print(" " + j);
+            }
+            StdOut.println();
+            return;
+        }
+
+        // jobs with a few constraints to random later jobs, added in random order
+        int n = Integer.parseInt(args[1]);
+        int updates = Integer.parseInt(args[2]);
+        Random random = new Random(1L);
+        Stopwatch timer = new Stopwatch();
+        CPMScheduler scheduler = new CPMScheduler();
+        for(int j = 0; j < n; j++) {
+            scheduler.addJob(1.0 + random.nextInt(100));
+        }
+        int constraints = 0;
+        for(int j = 0; j < n; j++) {
+            int i = random.nextInt(n);
+            for(int k = 0; k < 3; k++) {
+                int w = i + 1 + random.nextInt(1000);
+                if (w >= n) break;
+                scheduler.addPrecedence(i, w);
+                constraints++;
+            }
+        }
+        double finishTime = scheduler.finishTime();
+        StdOut.printf("%d jobs, %d constraints: %.3f s, finish time %.1f\n",
+                n, constraints, timer.elapsedTime(), finishTime);
+
+        timer = new Stopwatch();
+        double slack = 0.0;
+        for(int k = 0; k < updates; k++) {
+            int j = random.nextInt(n);
+            scheduler.setDuration(j, 1.0 + random.nextInt(100));
+            slack += scheduler.slack(random.nextInt(n));
+        }
+        StdOut.printf("%d duration changes and queries: %.3f s, finish time %.1f\n",
+                updates, timer.elapsedTime(), scheduler.finishTime());
+
+        // the same schedule from scratch, by the reduction of CPM
+        timer = new Stopwatch();
+        int source = 2 * n;
+        int sink = 2 * n + 1;
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(2 * n + 2);
+        for(int j = 0; j < n; j++) {
+            G.addEdge(new DirectedEdge(j, j + n, scheduler.duration(j)));
+            G.addEdge(new DirectedEdge(source, j, 0.0));
+            G.addEdge(new DirectedEdge(j + n, sink, 0.0));
+            for(int k = 0; k < scheduler.succCount[j]; k++) {
+                G.addEdge(new DirectedEdge(j + n, scheduler.succ[j][k], 0.0));
+            }
+        }
+        AcyclicLP lp = new AcyclicLP(G, source);
+        int errors = 0;
+        for(int j = 0; j < n; j++) {
+            if (lp.distTo(j) != scheduler.start(j)) errors++;
+        }
+        if (lp.distTo(sink) != scheduler.finishTime()) errors++;
+        StdOut.printf("AcyclicLP from scratch: %.3f s, %d differences\n", timer.elapsedTime(), errors);
+    }
+}
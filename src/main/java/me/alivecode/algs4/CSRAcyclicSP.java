@@ -0,0 +1,122 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code CSRAcyclicSP} class determines the shortest path
+ * in acyclic {@link CSREdgeWeightedDigraph}s.
+ * Edges are handled by their index, see {@link CSRDijkstraSP}.
+ */
+public class CSRAcyclicSP {
+    private final CSREdgeWeightedDigraph G;
+    private final int[] edgeTo; // edgeTo[v] = index of previous edge to v, or -1
+    private final double[] distTo; // distTo[v] = distance to v
+
+    /**
+     * Determines shortest path in the specified acyclic digraph {@code G}.
+     *
+     * @param G the acyclic edge-weighted digraph
+     * @param s the source vertex
+     */
+    public CSRAcyclicSP(CSREdgeWeightedDigraph G, int s) {
+        this.G = G;
+        edgeTo = new int[G.V()];
+        distTo = new double[G.V()];
+        for (int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = -1;
+        }
+        validateVertex(s);
+        distTo[s] = 0.0;
+
+        Topological topological = new Topological(G.digraph());
+        if (!topological.hasOrder()) {
+            throw new IllegalArgumentException("the specified graph is not acyclic");
+        }
+        // relax vertices in topological order
+        for(int v : topological.order()) {
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                relax(v, i);
+            }
+        }
+    }
+
+    // relax edge i leaving v
+    private void relax(int v, int i) {
+        int w = G.head(i);
+        if (distTo[v] + G.weight(i) < distTo[w]) {
+            distTo[w] = distTo[v] + G.weight(i);
+            edgeTo[w] = i;
+        }
+    }
+
+    private void validateVertex(int v) {
+        int V = edgeTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Is there any path from source vertex to v?
+     * @param v the target vertex
+     * @return {@code true} if the edge-weighted digraph has a path from source vertex to v,
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from the source vertex to {@code v}.
+     *
+     * @param v the target vertex
+     * @return the distance if the edge-weighted digraph has a path from vertex to v,
+     * {@code Double.POSITIVE_INFINITY} otherwise
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns the edges on the shortest path from the source vertex to {@code v}.
+     *
+     * @param v the target vertex
+     * @return the edges on the shortest path from the source vertex to {@code v}
+     * if the path exists, {@code null} otherwise
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        Stack<DirectedEdge> path = null;
+        if (hasPathTo(v)) {
+            path = new Stack<>();
+            for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+                path.push(G.edge(i));
+            }
+        }
+        return path;
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CSREdgeWeightedDigraph G = new CSREdgeWeightedDigraph(in);
+        int s = Integer.parseInt(args[1]);
+        CSRAcyclicSP sp = new CSRAcyclicSP(G, s);
+
+        for(int v = 0; v < G.V(); v++) {
+            if (sp.hasPathTo(v)) {
+                StdOut.printf("%d to %d (%.2f)", s, v, sp.distTo(v));
+                for(DirectedEdge e : sp.pathTo(v)) {
+                    StdOut.print("  " + e);
+                }
+                StdOut.println();
+            }
+            else {
+                StdOut.printf("%d to %d         no path\n", s, v);
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code CSRBellmanFordSP} class implements the queue-based Bellman Ford
+ * algorithm over a {@link CSREdgeWeightedDigraph}.
+ * Edges are handled by their index, see {@link CSRDijkstraSP}.
+ * Negative cycles are searched on the parent pointers {@code edgeTo[]} directly
+ * instead of copying the shortest-paths tree into a new digraph.
+ */
+public class CSRBellmanFordSP {
+    private final CSREdgeWeightedDigraph G;
+    private int[] edgeTo;                   // edgeTo[v] = index of last edge on shortest s-v path, or -1
+    private double[] distTo;                // distTo[v] = distance from s to v
+    private int[] queue;                    // ring buffer of vertices to be relaxed
+    private int head;                       // queue[head] = next vertex to be relaxed
+    private int size;                       // number of vertices on queue
+    private boolean[] onQueue;              // onQueue[v] = is v on queue?
+    private int cost;                       // number of calls to relax
+    private Stack<DirectedEdge> cycle;      // negative cycle (or null if no such cycle)
+
+    /**
+     * Determines shortest paths from {@code s} to
+     * every other vertices in edge-weighted digraph {@code G}
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     */
+    public CSRBellmanFordSP(CSREdgeWeightedDigraph G, int s) {
+        this.G = G;
+        edgeTo = new int[G.V()];
+        onQueue = new boolean[G.V()];
+        distTo = new double[G.V()];
+        for (int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = -1;
+        }
+
+        validateVertex(s);
+        distTo[s] = 0.0;
+
+        // a vertex is on the queue at most once, so V slots are enough
+        queue = new int[G.V()];
+        enqueue(s);
+        while (size > 0 && !hasNegativeCycle()) {
+            int v = dequeue();
+            relax(v);
+        }
+
+        assert check(s);
+    }
+
+    private void enqueue(int v) {
+        queue[(head + size) % queue.length] = v;
+        size++;
+        onQueue[v] = true;
+    }
+
+    private int dequeue() {
+        int v = queue[head];
+        head = (head + 1) % queue.length;
+        size--;
+        onQueue[v] = false;
+        return v;
+    }
+
+    // relax all edges points from v
+    private void relax(int v) {
+        for(int i = G.begin(v); i < G.end(v); i++) {
+            int w = G.head(i);
+            if (distTo[v] + G.weight(i) < distTo[w]) {
+                edgeTo[w] = i;
+                distTo[w] = distTo[v] + G.weight(i);
+                if (!onQueue[w]) {
+                    enqueue(w);
+                }
+            }
+
+            if (cost++ % G.V() == 0) {
+                findNegativeCycle();
+                if (hasNegativeCycle()) return;
+            }
+        }
+    }
+
+    // every vertex has at most one parent edge, so a cycle in the
+    // shortest-paths tree is found by following edgeTo[] from each vertex
+    // and stopping at a vertex already seen on the same walk.
+    private void findNegativeCycle() {
+        int V = edgeTo.length;
+        int[] walk = new int[V]; // walk[v] = 1 + the start vertex of the walk that reached v
+        for(int s = 0; s < V; s++) {
+            int v = s;
+            while (walk[v] == 0 && edgeTo[v] != -1) {
+                walk[v] = s + 1;
+                v = G.tail(edgeTo[v]);
+            }
+            if (walk[v] == s + 1) {
+                // v is on a cycle
+                cycle = new Stack<>();
+                int x = v;
+                do {
+                    cycle.push(G.edge(edgeTo[x]));
+                    x = G.tail(edgeTo[x]);
+                } while (x != v);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Does the digraph have negative cycle?
+     * @return {@code true} if the digraph has negative cycle,
+     * {@code false} otherwise
+     */
+    public boolean hasNegativeCycle() {
+        return cycle != null;
+    }
+
+    /**
+     * Returns the negative cycle.
+     *
+     * @return the negative cycle
+     * @throws UnsupportedOperationException if there is no such cycle
+     */
+    public Iterable<DirectedEdge> negativeCycle() {
+        if (!hasNegativeCycle()) {
+            throw new UnsupportedOperationException("No negative cost cycle exists");
+        }
+
+        return cycle;
+    }
+
+    private void validateVertex(int v) {
+        int V = edgeTo.length;
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Is there any path from the source vertex to {@code v}?
+     * @param v the target vertex
+     * @return {@code true} if there is a path from the source vertex to {@code v},
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from the source vertex to {@code v}.
+     * @param v the target vertex
+     * @return the distance from the source vertex to {@code v}
+     *
+     * @throws UnsupportedOperationException if the digraph has negative cycle
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        if (hasNegativeCycle()) {
+            throw new UnsupportedOperationException("Negative cost cycle exists");
+        }
+        return distTo[v];
+    }
+
+    /**
+     * Returns the shortest path from source vertex to {@code v}.
+     * @param v the target vertex
+     * @return the shortest path form source vertex to {@code v}
+     * if there is no such path, {@code null} otherwise
+     *
+     * @throws UnsupportedOperationException if the digraph has negative cycle
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        if (hasNegativeCycle()) {
+            throw new UnsupportedOperationException("Negative cost cycle exists");
+        }
+        Stack<DirectedEdge> path = null;
+        if (hasPathTo(v)) {
+            path = new Stack<>();
+            for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+                path.push(G.edge(i));
+            }
+        }
+        return path;
+    }
+
+    // see BellmanFordSP
+    private boolean check(int s) {
+        if (hasNegativeCycle()) {
+            double weight = 0.0;
+            for(DirectedEdge e : cycle) {
+                weight += e.weight();
+            }
+            if (weight >= 0.0) {
+                System.err.println("error: weight of negative cycle = " + weight);
+                return false;
+            }
+        }
+        else {
+            if (edgeTo[s] != -1 || distTo[s] != 0.0) {
+                System.err.println("edgeTo[s] and distTo[s] inconsistent");
+                return false;
+            }
+
+            // check that all edges v->w satisfy distTo[w] <= distTo[v] + e.weight()
+            for(int v = 0; v < G.V(); v++) {
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    if (distTo[v] + G.weight(i) < distTo[G.head(i)]) {
+                        System.err.println("edge " + G.edge(i) + " not relaxed");
+                        return false;
+                    }
+                }
+            }
+
+            // check that all edges v->w on shortest path satisfy
+            // distTo[w] = dist[v] + e.weight()
+            for(int w = 0; w < G.V(); w++) {
+                int i = edgeTo[w];
+                if (i == -1) continue;
+                if (G.head(i) != w) return false;
+                if (distTo[w] != distTo[G.tail(i)] + G.weight(i)) {
+                    System.err.println("edge " + G.edge(i) + " on shortest path not tight");
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int s = Integer.parseInt(args[1]);
+        CSREdgeWeightedDigraph G = new CSREdgeWeightedDigraph(in);
+        CSRBellmanFordSP sp = new CSRBellmanFordSP(G, s);
+        if (sp.hasNegativeCycle()) {
+            StdOut.println("Has negative cost cycle");
+            for(DirectedEdge e : sp.negativeCycle()) {
+                StdOut.println(e);
+            }
+        }
+        else {
+            for(int v = 0; v < G.V(); v++) {
+                if (sp.hasPathTo(v)) {
+                    StdOut.printf("%d to %d (%.2f)", s, v, sp.distTo(v));
+                    for(DirectedEdge e : sp.pathTo(v)) {
+                        StdOut.print("  " + e);
+                    }
+                    StdOut.println();
+                }
+                else {
+                    StdOut.printf("%d to %d  no path\n", s, v);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package me.alivecode.algs4;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code CSRDigraph} class represents an immutable directed graph of vertices
+ * named 0 through <em>V</em>-1 in compressed sparse row form.
+ * The edges leaving vertex v are stored in {@code targets[offsets[v]]}
+ * through {@code targets[offsets[v+1]-1]}, so the whole digraph takes
+ * two {@code int} arrays instead of one {@link Bag} node and one boxed
+ * {@code Integer} per edge.
+ * <p>
+ * The neighbors of v are iterated without allocation by
+ * <pre>
+ *     for(int i = G.begin(v); i &lt; G.end(v); i++) {
+ *         int w = G.target(i);
+ *     }
+ * </pre>
+ * The adjacency lists keep the same order as the {@link Digraph}
+ * built from the same input, so traversals give identical results.
+ */
+public class CSRDigraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+    private final int V; // number of vertices
+    private final int E; // number of edges
+    private final int[] offsets; // edges of v are targets[offsets[v]..offsets[v+1])
+    private final int[] targets; // targets[i] = head of the i-th edge
+    private final int[] indegree; // indegree[v] = number of edges go to v
+
+    /**
+     * Initializes a compressed digraph that has the same edges
+     * as the digraph {@code G}, in the same adjacency order.
+     *
+     * @param G the digraph
+     */
+    public CSRDigraph(Digraph G) {
+        V = G.V();
+        E = G.E();
+        offsets = new int[V + 1];
+        targets = new int[E];
+        indegree = new int[V];
+        int i = 0;
+        for(int v = 0; v < V; v++) {
+            offsets[v] = i;
+            for(int w : G.adj(v)) {
+                targets[i++] = w;
+                indegree[w]++;
+            }
+        }
+        offsets[V] = i;
+    }
+
+    /**
+     * Initializes a compressed digraph with each edge of the undirected graph {@code G}
+     * in both directions, in the same adjacency order as {@link Graph#adj}.
+     *
+     * @param G the graph
+     */
+    public CSRDigraph(Graph G) {
+        V = G.V();
+        E = 2 * G.E();
+        offsets = new int[V + 1];
+        targets = new int[E];
+        indegree = new int[V];
+        int i = 0;
+        for(int v = 0; v < V; v++) {
+            offsets[v] = i;
+            for(int w : G.adj(v)) {
+                targets[i++] = w;
+                indegree[w]++;
+            }
+        }
+        offsets[V] = i;
+    }
+
+    /**
+     * Initializes a compressed digraph with each edge of the undirected graph {@code G}
+     * in both directions, in the same adjacency order as {@link IntGraph#neighbor}.
+     *
+     * @param G the graph
+     */
+    public CSRDigraph(IntGraph G) {
+        V = G.V();
+        E = 2 * G.E();
+        offsets = new int[V + 1];
+        targets = new int[E];
+        indegree = new int[V];
+        int i = 0;
+        for(int v = 0; v < V; v++) {
+            offsets[v] = i;
+            for(int k = 0; k < G.degree(v); k++) {
+                int w = G.neighbor(v, k);
+                targets[i++] = w;
+                indegree[w]++;
+            }
+        }
+        offsets[V] = i;
+    }
+
+    /**
+     * Initializes a compressed digraph from the edge stream {@code from[i]->to[i]}.
+     * The adjacency lists have the same order as calling
+     * {@link Digraph#addEdge} with the same edges.
+     *
+     * @param V the number of vertices
+     * @param from the tail of each edge
+     * @param to the head of each edge
+     * @throws IllegalArgumentException if {@code V < 0}, the arrays have different length
+     * or any vertex is not between 0 and <em>V</em>-1
+     */
+    public CSRDigraph(int V, int[] from, int[] to) {
+        if (V < 0) throw new IllegalArgumentException("number of vertices in a Digraph must nonnegative");
+        if (from.length != to.length) throw new IllegalArgumentException("from[] and to[] must have the same length");
+        this.V = V;
+        this.E = from.length;
+        this.offsets = new int[V + 1];
+        this.targets = new int[E];
+        this.indegree = new int[V];
+        for(int i = 0; i < E; i++) {
+            validateVertex(from[i]);
+            validateVertex(to[i]);
+        }
+        fill(from, to);
+    }
+
+    /**
+     * Initializes a compressed digraph from specified input stream.
+     * The input format is the same as {@link Digraph#Digraph(In)}.
+     *
+     * @param in the input stream
+     */
+    public CSRDigraph(In in) {
+        try {
+            V = in.readInt();
+            if (V < 0) throw new IllegalArgumentException("number of vertices in a Digraph must nonnegative");
+            E = in.readInt();
+            if (E < 0) throw new IllegalArgumentException("number of edges in a Digraph must nonnegative");
+            offsets = new int[V + 1];
+            targets = new int[E];
+            indegree = new int[V];
+            int[] from = new int[E];
+            int[] to = new int[E];
+            for(int i = 0; i < E; i++) {
+                from[i] = in.readInt();
+                to[i] = in.readInt();
+                validateVertex(from[i]);
+                validateVertex(to[i]);
+            }
+            fill(from, to);
+        }
+        catch(NoSuchElementException e) {
+            throw new IllegalArgumentException("invalid input format in CSRDigraph constructor", e);
+        }
+    }
+
+    // wraps already built arrays without copying them
+    CSRDigraph(int[] offsets, int[] targets, int[] indegree) {
+        this.V = indegree.length;
+        this.E = targets.length;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.indegree = indegree;
+    }
+
+    // counting sort of the edges by tail vertex.
+    // every list is filled from its end so the order matches Bag.put().
+    private void fill(int[] from, int[] to) {
+        for(int i = 0; i < E; i++) {
+            offsets[from[i] + 1]++;
+            indegree[to[i]]++;
+        }
+        for(int v = 0; v < V; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = new int[V]; // next[v] = next free slot of v, counted from the end
+        for(int v = 0; v < V; v++) {
+            next[v] = offsets[v + 1];
+        }
+        for(int i = 0; i < E; i++) {
+            targets[--next[from[i]]] = to[i];
+        }
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns number of vertices in this digraph.
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns number of edges in this digraph.
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns outdegree of vertex {@code v}.
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Return indegree of vertex {@code v}.
+     */
+    public int indegree(int v) {
+        validateVertex(v);
+        return indegree[v];
+    }
+
+    /**
+     * Returns the index of the first edge leaving vertex {@code v}.
+     */
+    public int begin(int v) {
+        validateVertex(v);
+        return offsets[v];
+    }
+
+    /**
+     * Returns one past the index of the last edge leaving vertex {@code v}.
+     */
+    public int end(int v) {
+        validateVertex(v);
+        return offsets[v + 1];
+    }
+
+    /**
+     * Returns the vertex that edge {@code i} points to.
+     *
+     * @param i the edge index, between {@code begin(v)} and {@code end(v)-1}
+     */
+    public int target(int i) {
+        return targets[i];
+    }
+
+    /**
+     * Returns the adjacency list of {@code v}.
+     * Prefer {@link #begin}/{@link #end}/{@link #target} on hot paths,
+     * this method boxes every vertex.
+     */
+    public Iterable<Integer> adj(int v) {
+        validateVertex(v);
+        final int lo = offsets[v];
+        final int hi = offsets[v + 1];
+        return new Iterable<Integer>() {
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    private int i = lo;
+
+                    public boolean hasNext() {
+                        return i < hi;
+                    }
+
+                    public Integer next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return targets[i++];
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns a new compressed digraph in reverse order of this digraph,
+     * with the same adjacency order as {@link Digraph#reverse()}.
+     */
+    public CSRDigraph reverse() {
+        int[] rOffsets = new int[V + 1];
+        int[] rTargets = new int[E];
+        int[] rIndegree = new int[V];
+        for(int v = 0; v < V; v++) {
+            rOffsets[v + 1] = rOffsets[v] + indegree[v];
+            rIndegree[v] = offsets[v + 1] - offsets[v];
+        }
+        int[] next = new int[V];
+        for(int v = 0; v < V; v++) {
+            next[v] = rOffsets[v + 1];
+        }
+        for(int v = 0; v < V; v++) {
+            for(int i = offsets[v]; i < offsets[v + 1]; i++) {
+                rTargets[--next[targets[i]]] = v;
+            }
+        }
+        return new CSRDigraph(rOffsets, rTargets, rIndegree);
+    }
+
+    /**
+     * Represents a digraph.
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " vertices, " + E + " edges" + NEWLINE);
+        for(int v = 0; v < V; v++) {
+            s.append("v " + v + ":");
+            for(int i = offsets[v]; i < offsets[v + 1]; i++) {
+                s.append(" " + targets[i]);
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        Digraph DG = new Digraph(in);
+        CSRDigraph G = new CSRDigraph(DG);
+        StdOut.println(G);
+        StdOut.println(G.reverse());
+    }
+}
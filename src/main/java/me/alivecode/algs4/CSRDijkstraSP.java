@@ -0,0 +1,171 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code CSRDijkstraSP} class implements the Dijkstra Algorithm
+ * over a {@link CSREdgeWeightedDigraph}.
+ * Edges are handled by their index, the path is only turned into
+ * {@link DirectedEdge}s when {@link #pathTo} is called.
+ */
+public class CSRDijkstraSP {
+    private final CSREdgeWeightedDigraph G;
+    private DoubleIndexMinPQ pq;
+    private double[] distTo; // distTo[v] = distance of shortest s->v path
+    private int[] edgeTo; // edgeTo[v] = index of last edge on shortest s->v path, or -1
+
+    /**
+     * Determines the shortest paths from vertex {@code s} to
+     * every other vertices in the edge-weighted digraph {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     */
+    public CSRDijkstraSP(CSREdgeWeightedDigraph G, int s) {
+        for(int i = 0; i < G.E(); i++) {
+            if (G.weight(i) < 0)
+                throw new IllegalArgumentException(G.edge(i) + " has negative weight");
+        }
+
+        this.G = G;
+        distTo = new double[G.V()];
+        edgeTo = new int[G.V()];
+
+        validateVertex(s);
+
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = -1;
+        }
+        distTo[s] = 0.0;
+
+        // relax vertices in order of distance from s
+        pq = new DoubleIndexMinPQ(G.V());
+        pq.insert(s, distTo[s]);
+        while(!pq.isEmpty()) {
+            int v = pq.delMin();
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                relax(v, i);
+            }
+        }
+
+        assert check(s);
+    }
+
+    // update the path from source vertex to head of edge i
+    // if edge i has less weight
+    private void relax(int v, int i) {
+        int w = G.head(i);
+        double dist = distTo[v] + G.weight(i);
+        if (distTo[w] > dist) {
+            distTo[w] = dist;
+            edgeTo[w] = i;
+            if (pq.contains(w)) { pq.decreaseKey(w, dist); }
+            else { pq.insert(w, dist); }
+        }
+    }
+
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Is there any path from source vertex to vertex {@code v}?
+     *
+     * @param v the target vertex
+     * @return {@code true} if there is a path from source vertex to v,
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from source vertex to {@code v}.
+     * @param v the target vertex
+     * @return the distance from source vertex to {@code v}
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns the directed edges from the source vertex to {@code v}
+     * if there is a path between the source vertex and {@code v}.
+     * @param v the target vertex
+     * @return the directed edges  from the source vertex to {@code v}
+     * if there is a path between them, {@code null} otherwise
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<DirectedEdge> stack = new Stack<>();
+        for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+            stack.push(G.edge(i));
+        }
+        return stack;
+    }
+
+    // check optimality conditions, see DijkstraSP
+    private boolean check(int s) {
+        if (edgeTo[s] != -1 || distTo[s] != 0.0) {
+            System.err.println("edgeTo[s] and distTo[s] are inconsistent");
+            return false;
+        }
+        for(int v = 0; v < G.V(); v++) {
+            if (v == s) continue;
+            if (edgeTo[v] == -1 && distTo[v] != Double.POSITIVE_INFINITY) {
+                System.err.printf("edgeTo[%d] and distTo[%d] are inconsistent\n", v, v);
+                return false;
+            }
+        }
+
+        // check that all edges e = v->w satisfy distTo[w] <= distTo[v] + e.weight()
+        for(int v = 0; v < G.V(); v++) {
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                if (distTo[v] + G.weight(i) < distTo[G.head(i)]) {
+                    System.err.println("edge " + G.edge(i) + " not relaxed");
+                    return false;
+                }
+            }
+        }
+
+        // check that all edges e = v->w on SPT satisfy distTo[w] == distTo[v] + e.weight()
+        for(int w = 0; w < G.V(); w++) {
+            int i = edgeTo[w];
+            if (i == -1) continue;
+            if (G.head(i) != w) return false;
+            if (distTo[G.tail(i)] + G.weight(i) != distTo[w]) {
+                System.err.println("edge " + G.edge(i) + " on shortest path not tight");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int s = Integer.parseInt(args[1]);
+        CSREdgeWeightedDigraph G = new CSREdgeWeightedDigraph(in);
+        CSRDijkstraSP sp = new CSRDijkstraSP(G, s);
+        for(int v = 0; v < G.V(); v++) {
+            if (sp.hasPathTo(v)) {
+                StdOut.printf("%d to %d (%.2f)", s, v, sp.distTo(v));
+                for(DirectedEdge e : sp.pathTo(v)) {
+                    StdOut.print("  " + e);
+                }
+                StdOut.println();
+            }
+            else {
+                StdOut.printf("%d to %d         no path\n", s, v);
+            }
+        }
+    }
+}
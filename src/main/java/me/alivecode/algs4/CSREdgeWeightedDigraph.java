@@ -0,0 +1,303 @@
+package me.alivecode.algs4;
+
+import java.util.NoSuchElementException;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code CSREdgeWeightedDigraph} class represents an immutable edge-weighted
+ * digraph of vertices named 0 through <em>V</em>-1 stored as a struct of arrays.
+ * Edge i leaves the vertex v with {@code begin(v) <= i < end(v)},
+ * points to {@code head(i)} and has weight {@code weight(i)},
+ * so no {@link DirectedEdge} object exists until {@link #edge} is called.
+ * <p>
+ * The adjacency lists keep the same order as the {@link EdgeWeightedDigraph}
+ * built from the same input.
+ */
+public class CSREdgeWeightedDigraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+    private final int V; // number of vertices
+    private final int E; // number of edges
+    private final int[] offsets; // edges of v are [offsets[v], offsets[v+1])
+    private final int[] heads; // heads[i] = vertex that edge i points to
+    private final double[] weights; // weights[i] = weight of edge i
+    private final int[] indegree; // indegree[v] = number of edges point to v
+
+    /**
+     * Initializes a packed copy of the edge-weighted digraph {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     */
+    public CSREdgeWeightedDigraph(EdgeWeightedDigraph G) {
+        V = G.V();
+        E = G.E();
+        offsets = new int[V + 1];
+        heads = new int[E];
+        weights = new double[E];
+        indegree = new int[V];
+        int i = 0;
+        for(int v = 0; v < V; v++) {
+            offsets[v] = i;
+            for(DirectedEdge e : G.adj(v)) {
+                heads[i] = e.to();
+                weights[i] = e.weight();
+                indegree[e.to()]++;
+                i++;
+            }
+        }
+        offsets[V] = i;
+    }
+
+    /**
+     * Initializes a packed edge-weighted digraph from the edge stream
+     * {@code from[i]->to[i]} with weight {@code weight[i]}.
+     * The adjacency lists have the same order as calling
+     * {@link EdgeWeightedDigraph#addEdge} with the same edges.
+     *
+     * @param V the number of vertices
+     * @param from the tail of each edge
+     * @param to the head of each edge
+     * @param weight the weight of each edge
+     */
+    public CSREdgeWeightedDigraph(int V, int[] from, int[] to, double[] weight) {
+        if (V < 0) throw new IllegalArgumentException("argument to CSREdgeWeightedDigraph must be nonnegative");
+        if (from.length != to.length || from.length != weight.length)
+            throw new IllegalArgumentException("from[], to[] and weight[] must have the same length");
+        this.V = V;
+        this.E = from.length;
+        this.offsets = new int[V + 1];
+        this.heads = new int[E];
+        this.weights = new double[E];
+        this.indegree = new int[V];
+        for(int i = 0; i < E; i++) {
+            validateVertex(from[i]);
+            validateVertex(to[i]);
+            if (Double.isNaN(weight[i])) throw new IllegalArgumentException("weight is NaN");
+        }
+        fill(from, to, weight);
+    }
+
+    /**
+     * Initializes a packed edge-weighted digraph from the specified input stream.
+     * The format is the same as {@link EdgeWeightedDigraph#EdgeWeightedDigraph(In)}.
+     *
+     * @param in the input stream.
+     */
+    public CSREdgeWeightedDigraph(In in) {
+        try {
+            V = in.readInt();
+            if (V < 0) throw new IllegalArgumentException("number of vertices must be nonnegative");
+            E = in.readInt();
+            if (E < 0) throw new IllegalArgumentException("number of edges must be nonnegative");
+            offsets = new int[V + 1];
+            heads = new int[E];
+            weights = new double[E];
+            indegree = new int[V];
+            int[] from = new int[E];
+            int[] to = new int[E];
+            double[] weight = new double[E];
+            for(int i = 0; i < E; i++) {
+                from[i] = in.readInt();
+                to[i] = in.readInt();
+                weight[i] = in.readDouble();
+                validateVertex(from[i]);
+                validateVertex(to[i]);
+            }
+            fill(from, to, weight);
+        }
+        catch(NoSuchElementException e) {
+            throw new IllegalArgumentException("invalid input format in CSREdgeWeightedDigraph constructor", e);
+        }
+    }
+
+    // wraps already built arrays without copying them
+    CSREdgeWeightedDigraph(int[] offsets, int[] heads, double[] weights, int[] indegree) {
+        this.V = indegree.length;
+        this.E = heads.length;
+        this.offsets = offsets;
+        this.heads = heads;
+        this.weights = weights;
+        this.indegree = indegree;
+    }
+
+    // counting sort of the edges by tail vertex.
+    // every list is filled from its end so the order matches Bag.put().
+    private void fill(int[] from, int[] to, double[] weight) {
+        for(int i = 0; i < E; i++) {
+            offsets[from[i] + 1]++;
+            indegree[to[i]]++;
+        }
+        for(int v = 0; v < V; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = new int[V];
+        for(int v = 0; v < V; v++) {
+            next[v] = offsets[v + 1];
+        }
+        for(int i = 0; i < E; i++) {
+            int j = --next[from[i]];
+            heads[j] = to[i];
+            weights[j] = weight[i];
+        }
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    private void validateEdge(int i) {
+        if (i < 0 || i >= E) {
+            throw new IllegalArgumentException("edge " + i + " is not between 0 and " + (E-1));
+        }
+    }
+
+    /**
+     * Returns the number of vertices in this edge-weighted digraph.
+     *
+     * @return the number of vertices in this edge-weighted digraph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this edge-weighted digraph.
+     *
+     * @return the number of edges in this edge-weighted digraph
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the number of edges incident to vertex {@code v}.
+     *
+     * @param v the vertex.
+     * @return the number of edges incidents to vertex {@code v}
+     */
+    public int indegree(int v) {
+        validateVertex(v);
+        return indegree[v];
+    }
+
+    /**
+     * Returns the number of edges incident from vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the number of edges incident from vertex {@code v}
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Returns the index of the first edge incident from vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the index of the first edge incident from vertex {@code v}
+     */
+    public int begin(int v) {
+        validateVertex(v);
+        return offsets[v];
+    }
+
+    /**
+     * Returns one past the index of the last edge incident from vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return one past the index of the last edge incident from vertex {@code v}
+     */
+    public int end(int v) {
+        validateVertex(v);
+        return offsets[v + 1];
+    }
+
+    /**
+     * Returns the vertex that edge {@code i} points to.
+     *
+     * @param i the edge index
+     * @return the vertex that edge {@code i} points to
+     */
+    public int head(int i) {
+        return heads[i];
+    }
+
+    /**
+     * Returns the weight of edge {@code i}.
+     *
+     * @param i the edge index
+     * @return the weight of edge {@code i}
+     */
+    public double weight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Returns the vertex that edge {@code i} points from.
+     * The tail is not stored, it is found by a binary search
+     * over the offsets in O(log <em>V</em>).
+     *
+     * @param i the edge index
+     * @return the vertex that edge {@code i} points from
+     */
+    public int tail(int i) {
+        validateEdge(i);
+        // the largest v with offsets[v] <= i, which is never an empty vertex
+        int lo = 0, hi = V - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= i) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns edge {@code i} as a new {@link DirectedEdge}.
+     *
+     * @param i the edge index
+     * @return edge {@code i} as a new {@link DirectedEdge}
+     */
+    public DirectedEdge edge(int i) {
+        return new DirectedEdge(tail(i), heads[i], weights[i]);
+    }
+
+    /**
+     * Returns the unweighted digraph of this edge-weighted digraph.
+     * The returned digraph shares the arrays with this one, nothing is copied.
+     *
+     * @return the unweighted digraph of this edge-weighted digraph
+     */
+    public CSRDigraph digraph() {
+        return new CSRDigraph(offsets, heads, indegree);
+    }
+
+    /**
+     * Returns the string represents this edge-weighted digraph.
+     *
+     * @return the string represents this edge-weighted digraph
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + E + NEWLINE);
+        for(int v = 0; v < V; v++) {
+            s.append(v + ":");
+            for(int i = offsets[v]; i < offsets[v + 1]; i++) {
+                s.append("  " + new DirectedEdge(v, heads[i], weights[i]));
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CSREdgeWeightedDigraph G = new CSREdgeWeightedDigraph(in);
+        StdOut.println(G);
+    }
+}
@@ -0,0 +1,666 @@
+package me.alivecode.algs4;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ContractionHierarchy} class preprocesses an {@link EdgeWeightedDigraph}
+ * with nonnegative weights for fast point-to-point queries, see
+ * {@link ContractionHierarchyQuery}.
+ * <p>
+ * Vertices are contracted one by one, from the least to the most important:
+ * contracting v removes it from the remaining graph and adds a shortcut u-&gt;w
+ * of weight w(u,v) + w(v,w) for every pair of neighbors whose shortest path
+ * goes through v. The rank of a vertex is its position in that order.
+ * A limited Dijkstra search (the witness search) looks for another path that is
+ * not longer, when it gives up early a shortcut is added anyway, which costs
+ * some space but never correctness.
+ * <p>
+ * The importance of a vertex is 2 * (shortcuts it would add - arcs it removes)
+ * plus its contracted neighbors plus its depth in the hierarchy,
+ * estimated with shorter witness searches.
+ * Every round contracts, in parallel on a {@link ForkJoinPool}, all the vertices
+ * less important than each of their neighbors. Such vertices are never adjacent,
+ * so their shortcuts can be computed independently as long as the witness searches
+ * avoid the whole round.
+ * <p>
+ * The contraction stops when the remaining graph has a mean out-degree above
+ * 32: its vertices form the core, ranked last in any order, and keep all their
+ * arcs. The hierarchy targets sparse road-like digraphs, where few vertices
+ * lie on many shortest paths: the core of a grid of 22500 vertices is empty.
+ * A random digraph gets a large core instead, because contracting it would
+ * add shortcuts between almost every pair of its vertices.
+ * <p>
+ * The result keeps, for every contracted vertex, the arcs to its higher ranked
+ * neighbors, for every core vertex its arcs to the core (original edges and
+ * shortcuts), and for every shortcut the vertex it bypasses, so a path of the
+ * hierarchy can be unpacked into edges of the digraph.
+ * Parallel edges are merged into the lightest one and self-loops are dropped.
+ * The hierarchy can be saved with {@link #write} and loaded with
+ * {@link #ContractionHierarchy(String)}.
+ */
+public class ContractionHierarchy {
+    private static final int MAGIC = 0x43484831; // "CHH1"
+    private static final int VERSION = 2;  // version 1 had no core
+    private static final int WITNESS_SETTLE_LIMIT = 500; // vertices settled by one witness search
+    private static final int PRIORITY_SETTLE_LIMIT = 25; // the same when only estimating the priority
+    private static final int GRAIN = 64; // vertices handled by one parallel task
+    private static final int CORE_DEGREE = 32; // mean out-degree of the remaining graph stopping the contraction
+
+    private final int V;
+    private final int[] rank; // rank[v] = position of v in the contraction order
+    private final int shortcuts; // number of shortcuts kept
+    private final int core; // number of vertices left uncontracted, ranked last
+    // upward arcs v->w with rank[w] > rank[v], grouped by v
+    private final int[] upOffsets;
+    private final int[] upHeads;
+    private final double[] upWeights;
+    private final int[] upMiddle; // vertex bypassed by the shortcut, -1 for an edge of the digraph
+    // downward arcs u->v with rank[u] > rank[v], grouped by v and pointing to u
+    private final int[] downOffsets;
+    private final int[] downHeads;
+    private final double[] downWeights;
+    private final int[] downMiddle;
+    private final CSREdgeWeightedDigraph upward;
+    private final CSREdgeWeightedDigraph downward;
+
+    /**
+     * Builds the contraction hierarchy of {@code G} on the common fork-join pool.
+     *
+     * @param G the edge-weighted digraph
+     * @throws IllegalArgumentException if any edge has negative weight
+     */
+    public ContractionHierarchy(EdgeWeightedDigraph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the contraction hierarchy of {@code G} on the fork-join pool {@code pool}.
+     *
+     * @param G the edge-weighted digraph
+     * @param pool the pool running the witness searches
+     * @throws IllegalArgumentException if any edge has negative weight
+     */
+    public ContractionHierarchy(EdgeWeightedDigraph G, ForkJoinPool pool) {
+        for(DirectedEdge e : G.edges()) {
+            if (e.weight() < 0)
+                throw new IllegalArgumentException(e + " has negative weight");
+        }
+        V = G.V();
+        Builder builder = new Builder(G, pool);
+        builder.contractAll();
+        rank = builder.rank;
+        core = builder.core;
+
+        upOffsets = new int[V + 1];
+        downOffsets = new int[V + 1];
+        for(int v = 0; v < V; v++) {
+            upOffsets[v + 1] = upOffsets[v] + builder.out[v].size;
+            downOffsets[v + 1] = downOffsets[v] + builder.in[v].size;
+        }
+        upHeads = new int[upOffsets[V]];
+        upWeights = new double[upOffsets[V]];
+        upMiddle = new int[upOffsets[V]];
+        downHeads = new int[downOffsets[V]];
+        downWeights = new double[downOffsets[V]];
+        downMiddle = new int[downOffsets[V]];
+        int count = 0;
+        for(int v = 0; v < V; v++) {
+            count += builder.out[v].copyTo(upHeads, upWeights, upMiddle, upOffsets[v]);
+            count += builder.in[v].copyTo(downHeads, downWeights, downMiddle, downOffsets[v]);
+        }
+        shortcuts = count;
+        upward = view(upOffsets, upHeads, upWeights);
+        downward = view(downOffsets, downHeads, downWeights);
+    }
+
+    /**
+     * Loads a contraction hierarchy saved by {@link #write}.
+     *
+     * @param path the file name
+     * @throws IllegalArgumentException if the file cannot be read or is not a contraction hierarchy
+     */
+    public ContractionHierarchy(String path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IllegalArgumentException(path + " is not a contraction hierarchy");
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) throw new IllegalArgumentException("unsupported contraction hierarchy version " + version);
+            V = in.readInt();
+            int upArcs = in.readInt();
+            int downArcs = in.readInt();
+            shortcuts = in.readInt();
+            core = version >= 2 ? in.readInt() : 0;
+            if (V < 0 || upArcs < 0 || downArcs < 0) throw new IllegalArgumentException("invalid header in " + path);
+            rank = readInts(in, V);
+            upOffsets = readInts(in, V + 1);
+            upHeads = readInts(in, upArcs);
+            upWeights = readDoubles(in, upArcs);
+            upMiddle = readInts(in, upArcs);
+            downOffsets = readInts(in, V + 1);
+            downHeads = readInts(in, downArcs);
+            downWeights = readDoubles(in, downArcs);
+            downMiddle = readInts(in, downArcs);
+        }
+        catch (EOFException e) {
+            throw new IllegalArgumentException(path + " is truncated", e);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("could not read " + path, e);
+        }
+        upward = view(upOffsets, upHeads, upWeights);
+        downward = view(downOffsets, downHeads, downWeights);
+    }
+
+    private static int[] readInts(DataInputStream in, int n) throws IOException {
+        int[] a = new int[n];
+        for(int i = 0; i < n; i++) {
+            a[i] = in.readInt();
+        }
+        return a;
+    }
+
+    private static double[] readDoubles(DataInputStream in, int n) throws IOException {
+        double[] a = new double[n];
+        for(int i = 0; i < n; i++) {
+            a[i] = in.readDouble();
+        }
+        return a;
+    }
+
+    private static CSREdgeWeightedDigraph view(int[] offsets, int[] heads, double[] weights) {
+        int[] indegree = new int[offsets.length - 1];
+        for(int w : heads) {
+            indegree[w]++;
+        }
+        return new CSREdgeWeightedDigraph(offsets, heads, weights, indegree);
+    }
+
+    /**
+     * Saves the hierarchy to the file {@code path}.
+     *
+     * @param path the file name
+     * @throws IllegalArgumentException if the file cannot be written
+     */
+    public void write(String path) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(V);
+            out.writeInt(upHeads.length);
+            out.writeInt(downHeads.length);
+            out.writeInt(shortcuts);
+            out.writeInt(core);
+            writeInts(out, rank);
+            writeInts(out, upOffsets);
+            writeInts(out, upHeads);
+            writeDoubles(out, upWeights);
+            writeInts(out, upMiddle);
+            writeInts(out, downOffsets);
+            writeInts(out, downHeads);
+            writeDoubles(out, downWeights);
+            writeInts(out, downMiddle);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("could not write " + path, e);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] a) throws IOException {
+        for(int x : a) {
+            out.writeInt(x);
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] a) throws IOException {
+        for(double x : a) {
+            out.writeDouble(x);
+        }
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the position of {@code v} in the contraction order.
+     *
+     * @param v the vertex
+     * @return the rank of {@code v}
+     */
+    public int rank(int v) {
+        validateVertex(v);
+        return rank[v];
+    }
+
+    /**
+     * Returns the number of shortcuts in the hierarchy.
+     *
+     * @return the number of shortcuts
+     */
+    public int shortcuts() {
+        return shortcuts;
+    }
+
+    /**
+     * Returns the number of vertices left uncontracted in the core.
+     *
+     * @return the size of the core
+     */
+    public int core() {
+        return core;
+    }
+
+    /**
+     * Returns the number of arcs in the hierarchy, shortcuts included.
+     *
+     * @return the number of arcs
+     */
+    public int arcs() {
+        return upHeads.length + downHeads.length;
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    // arcs to higher ranked vertices, searched forward from the source
+    CSREdgeWeightedDigraph upward() {
+        return upward;
+    }
+
+    // arcs from higher ranked vertices, reversed, searched backward from the target
+    CSREdgeWeightedDigraph downward() {
+        return downward;
+    }
+
+    // appends the digraph edges of upward arc i of the hierarchy to path
+    void unpackUpward(int v, int i, Queue<DirectedEdge> path) {
+        unpack(v, upHeads[i], upWeights[i], upMiddle[i], path);
+    }
+
+    // appends the digraph edges of downward arc i of the hierarchy to path
+    void unpackDownward(int v, int i, Queue<DirectedEdge> path) {
+        unpack(downHeads[i], v, downWeights[i], downMiddle[i], path);
+    }
+
+    // a shortcut u->w bypassing m is made of the arcs u->m and m->w,
+    // both stored at m since m was contracted before u and w
+    private void unpack(int u, int w, double weight, int m, Queue<DirectedEdge> path) {
+        if (m == -1) {
+            path.enqueue(new DirectedEdge(u, w, weight));
+            return;
+        }
+        int i = downOffsets[m];
+        while (downHeads[i] != u) i++;
+        unpack(u, m, downWeights[i], downMiddle[i], path);
+        int j = upOffsets[m];
+        while (upHeads[j] != w) j++;
+        unpack(m, w, upWeights[j], upMiddle[j], path);
+    }
+
+    // the arcs of one vertex in the remaining graph, at most one per neighbor
+    private static class Arcs {
+        int[] vertex = new int[2];
+        double[] weight = new double[2];
+        int[] middle = new int[2];
+        int size;
+
+        int indexOf(int x) {
+            for(int i = 0; i < size; i++) {
+                if (vertex[i] == x) return i;
+            }
+            return -1;
+        }
+
+        // adds the arc to x, or makes the existing one lighter
+        void put(int x, double w, int m) {
+            int i = indexOf(x);
+            if (i >= 0) {
+                if (w < weight[i]) {
+                    weight[i] = w;
+                    middle[i] = m;
+                }
+                return;
+            }
+            if (size == vertex.length) {
+                vertex = Arrays.copyOf(vertex, 2 * size);
+                weight = Arrays.copyOf(weight, 2 * size);
+                middle = Arrays.copyOf(middle, 2 * size);
+            }
+            vertex[size] = x;
+            weight[size] = w;
+            middle[size] = m;
+            size++;
+        }
+
+        void remove(int x) {
+            int i = indexOf(x);
+            if (i < 0) return;
+            size--;
+            vertex[i] = vertex[size];
+            weight[i] = weight[size];
+            middle[i] = middle[size];
+        }
+
+        // copies the arcs at offset and returns the number of shortcuts among them
+        int copyTo(int[] vertices, double[] weights, int[] middles, int offset) {
+            System.arraycopy(vertex, 0, vertices, offset, size);
+            System.arraycopy(weight, 0, weights, offset, size);
+            System.arraycopy(middle, 0, middles, offset, size);
+            int count = 0;
+            for(int i = 0; i < size; i++) {
+                if (middle[i] != -1) count++;
+            }
+            return count;
+        }
+    }
+
+    // the shortcuts found for one vertex
+    private static class Shortcuts {
+        int[] from = new int[4];
+        int[] to = new int[4];
+        double[] weight = new double[4];
+        int size;
+
+        void add(int u, int w, double d) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, 2 * size);
+                to = Arrays.copyOf(to, 2 * size);
+                weight = Arrays.copyOf(weight, 2 * size);
+            }
+            from[size] = u;
+            to[size] = w;
+            weight[size] = d;
+            size++;
+        }
+    }
+
+    // per thread scratch space of the witness searches, reset lazily
+    private static class Witness {
+        final double[] dist;
+        final int[] touched;
+        int touchedCount;
+        final int[] target; // target[w] = id of the last search looking for w
+        int id;
+        final DoubleIndexMinPQ pq;
+
+        Witness(int V) {
+            dist = new double[V];
+            touched = new int[V];
+            target = new int[V];
+            pq = new DoubleIndexMinPQ(V);
+            for(int v = 0; v < V; v++) {
+                dist[v] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        // distances from u to the out-neighbors of v in the remaining graph without v
+        // and the excluded vertices, only exact up to maxDist and for the first settled vertices
+        void search(Arcs[] out, int u, int v, boolean[] excluded, double maxDist, int limit) {
+            for(int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            pq.clear();
+            id++;
+            int targets = 0;
+            for(int i = 0; i < out[v].size; i++) {
+                int w = out[v].vertex[i];
+                if (w != u) {
+                    target[w] = id;
+                    targets++;
+                }
+            }
+            dist[u] = 0.0;
+            touched[touchedCount++] = u;
+            pq.insert(u, 0.0);
+            int settled = 0;
+            while (!pq.isEmpty() && pq.minKey() <= maxDist && settled++ < limit) {
+                int x = pq.delMin();
+                // every target is settled, the other distances do not matter
+                if (target[x] == id && --targets == 0) break;
+                Arcs arcs = out[x];
+                for(int i = 0; i < arcs.size; i++) {
+                    int y = arcs.vertex[i];
+                    if (y == v || (excluded != null && excluded[y])) continue;
+                    double d = dist[x] + arcs.weight[i];
+                    if (d < dist[y]) {
+                        if (dist[y] == Double.POSITIVE_INFINITY) touched[touchedCount++] = y;
+                        dist[y] = d;
+                        if (pq.contains(y)) pq.decreaseKey(y, d);
+                        else pq.insert(y, d);
+                    }
+                }
+            }
+        }
+    }
+
+    // the state of the contraction, dropped once the hierarchy is packed
+    private static class Builder {
+        final int V;
+        final ForkJoinPool pool;
+        final Arcs[] out; // arcs of the remaining graph, then the upward arcs of a contracted vertex
+        final Arcs[] in;
+        final int[] rank;
+        final int[] priority;
+        final int[] deleted; // deleted[v] = number of contracted neighbors
+        final int[] level; // level[v] = depth of v in the hierarchy
+        final boolean[] dirty; // dirty[v] = must the priority of v be recomputed?
+        final boolean[] inRound; // inRound[v] = is v contracted by the current round?
+        final boolean[] contracted;
+        final ThreadLocal<Witness> witness;
+        int core; // number of vertices left uncontracted
+
+        Builder(EdgeWeightedDigraph G, ForkJoinPool pool) {
+            V = G.V();
+            this.pool = pool;
+            out = new Arcs[V];
+            in = new Arcs[V];
+            for(int v = 0; v < V; v++) {
+                out[v] = new Arcs();
+                in[v] = new Arcs();
+            }
+            for(DirectedEdge e : G.edges()) {
+                if (e.from() == e.to()) continue;
+                out[e.from()].put(e.to(), e.weight(), -1);
+                in[e.to()].put(e.from(), e.weight(), -1);
+            }
+            rank = new int[V];
+            priority = new int[V];
+            deleted = new int[V];
+            level = new int[V];
+            dirty = new boolean[V];
+            inRound = new boolean[V];
+            contracted = new boolean[V];
+            witness = ThreadLocal.withInitial(() -> new Witness(V));
+        }
+
+        // finds the shortcuts needed to contract v, only counts them if found is null
+        int shortcuts(int v, boolean[] excluded, Shortcuts found) {
+            Witness search = witness.get();
+            int count = 0;
+            for(int i = 0; i < in[v].size; i++) {
+                int u = in[v].vertex[i];
+                double toV = in[v].weight[i];
+                double maxDist = -1;
+                for(int j = 0; j < out[v].size; j++) {
+                    if (out[v].vertex[j] != u) maxDist = Math.max(maxDist, toV + out[v].weight[j]);
+                }
+                if (maxDist < 0) continue;
+                search.search(out, u, v, excluded, maxDist, found == null ? PRIORITY_SETTLE_LIMIT : WITNESS_SETTLE_LIMIT);
+                for(int j = 0; j < out[v].size; j++) {
+                    int w = out[v].vertex[j];
+                    if (w == u) continue;
+                    double via = toV + out[v].weight[j];
+                    if (search.dist[w] > via) {
+                        count++;
+                        if (found != null) found.add(u, w, via);
+                    }
+                }
+            }
+            return count;
+        }
+
+        // is v less important than all its neighbors? ties go to the smaller vertex
+        boolean isLocalMinimum(int v) {
+            for(int i = 0; i < out[v].size; i++) {
+                if (!less(v, out[v].vertex[i])) return false;
+            }
+            for(int i = 0; i < in[v].size; i++) {
+                if (!less(v, in[v].vertex[i])) return false;
+            }
+            return true;
+        }
+
+        boolean less(int v, int w) {
+            return priority[v] < priority[w] || (priority[v] == priority[w] && v < w);
+        }
+
+        void contractAll() {
+            int[] remaining = new int[V];
+            for(int v = 0; v < V; v++) {
+                remaining[v] = v;
+                dirty[v] = true;
+            }
+            int n = V;
+            int next = 0;
+            int[] batch = new int[V];
+            while (n > 0) {
+                // the remaining graph is dense: it stays as the core
+                long arcs = 0;
+                for(int k = 0; k < n; k++) {
+                    arcs += out[remaining[k]].size;
+                }
+                if (arcs > (long) CORE_DEGREE * n) {
+                    for(int k = 0; k < n; k++) {
+                        rank[remaining[k]] = next++;
+                    }
+                    core = n;
+                    break;
+                }
+
+                // update the priorities changed by the last round
+                int dirtyCount = 0;
+                for(int k = 0; k < n; k++) {
+                    if (dirty[remaining[k]]) batch[dirtyCount++] = remaining[k];
+                }
+                pool.invoke(new ParallelFor(0, dirtyCount, GRAIN, k -> {
+                    int v = batch[k];
+                    int edgeDifference = shortcuts(v, null, null) - in[v].size - out[v].size;
+                    priority[v] = 2 * edgeDifference + deleted[v] + level[v];
+                    dirty[v] = false;
+                }));
+
+                // pick the vertices of this round, no two of them are adjacent
+                int size = 0;
+                for(int k = 0; k < n; k++) {
+                    int v = remaining[k];
+                    if (isLocalMinimum(v)) {
+                        batch[size++] = v;
+                        inRound[v] = true;
+                    }
+                }
+
+                Shortcuts[] found = new Shortcuts[size];
+                pool.invoke(new ParallelFor(0, size, GRAIN, k -> {
+                    found[k] = new Shortcuts();
+                    shortcuts(batch[k], inRound, found[k]);
+                }));
+
+                for(int k = 0; k < size; k++) {
+                    int v = batch[k];
+                    rank[v] = next++;
+                    inRound[v] = false;
+                    contract(v, found[k]);
+                }
+
+                // drop the contracted vertices
+                int m = 0;
+                for(int k = 0; k < n; k++) {
+                    if (!contracted[remaining[k]]) remaining[m++] = remaining[k];
+                }
+                n = m;
+            }
+        }
+
+        // removes v from the remaining graph and adds its shortcuts
+        void contract(int v, Shortcuts found) {
+            contracted[v] = true;
+            for(int i = 0; i < out[v].size; i++) {
+                int w = out[v].vertex[i];
+                in[w].remove(v);
+                touch(v, w);
+            }
+            for(int i = 0; i < in[v].size; i++) {
+                int u = in[v].vertex[i];
+                out[u].remove(v);
+                touch(v, u);
+            }
+            for(int i = 0; i < found.size; i++) {
+                out[found.from[i]].put(found.to[i], found.weight[i], v);
+                in[found.to[i]].put(found.from[i], found.weight[i], v);
+            }
+        }
+
+        void touch(int v, int neighbor) {
+            deleted[neighbor]++;
+            level[neighbor] = Math.max(level[neighbor], level[v] + 1);
+            dirty[neighbor] = true;
+        }
+    }
+
+    // unit test code
+    // ContractionHierarchy mediumEWD.txt queries [file]
+    public static void main(String[] args) {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(args[0]));
+        int queries = Integer.parseInt(args[1]);
+
+        Stopwatch timer = new Stopwatch();
+        ContractionHierarchy ch = new ContractionHierarchy(G);
+        StdOut.printf("contracted %d vertices in %.3f s, %d shortcuts, core of %d vertices\n",
+                G.V() - ch.core(), timer.elapsedTime(), ch.shortcuts(), ch.core());
+        if (args.length > 2) {
+            ch.write(args[2]);
+            ch = new ContractionHierarchy(args[2]);
+        }
+
+        ContractionHierarchyQuery query = new ContractionHierarchyQuery(ch);
+        int errors = 0;
+        double elapsed = 0;
+        long settled = 0;
+        for(int i = 0; i < queries; i++) {
+            int s = StdRandom.uniform(G.V());
+            int t = StdRandom.uniform(G.V());
+            timer = new Stopwatch();
+            double dist = query.query(s, t);
+            elapsed += timer.elapsedTime();
+            settled += query.settledCount();
+            double expected = new DijkstraSP(G, s).distTo(t);
+            if (dist != expected && Math.abs(dist - expected) > 1e-9 * Math.max(1.0, expected)) {
+                StdOut.printf("%d to %d: %.5f, DijkstraSP %.5f\n", s, t, dist, expected);
+                errors++;
+            }
+        }
+        StdOut.printf("%d queries in %.3f s, %.1f settled vertices per query, %d errors\n",
+                queries, elapsed, (double) settled / queries, errors);
+    }
+}
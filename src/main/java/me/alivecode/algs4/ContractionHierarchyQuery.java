@@ -0,0 +1,219 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code ContractionHierarchyQuery} class answers point-to-point
+ * shortest-path queries on a {@link ContractionHierarchy}.
+ * A forward Dijkstra search from the source only follows arcs to higher ranked
+ * vertices, a backward one from the target only follows arcs from higher ranked
+ * vertices, and the shortest path is the best vertex settled by both.
+ * In the uncontracted core, if any, both searches follow all the arcs.
+ * Each search stops once its queue minimum reaches the best distance found.
+ * <p>
+ * A vertex reached with a longer distance than one of its higher ranked neighbors
+ * gives it (stall-on-demand) cannot be on a shortest path, its arcs are not relaxed.
+ * <p>
+ * Like {@link BidirectionalDijkstra}, the <em>V</em>-sized arrays are allocated
+ * once and every query only resets the vertices touched by the previous one.
+ */
+public class ContractionHierarchyQuery {
+    private final ContractionHierarchy H;
+    private final CSREdgeWeightedDigraph up;   // forward arcs
+    private final CSREdgeWeightedDigraph down; // backward arcs
+    private final Search forward;
+    private final Search backward;
+    private double distance = Double.POSITIVE_INFINITY;
+    private int meet = -1; // the highest ranked vertex of the best path
+
+    // one direction of the search with its own lazily reset state
+    private static class Search {
+        final double[] distTo;
+        final int[] parent;  // parent[v] = previous vertex of the search tree, or -1
+        final int[] arcTo;   // arcTo[v] = arc of the hierarchy from parent[v], or -1
+        final int[] visited;
+        int visitedCount;
+        int settledCount;
+        final DoubleIndexMinPQ pq;
+
+        Search(int V) {
+            distTo = new double[V];
+            parent = new int[V];
+            arcTo = new int[V];
+            visited = new int[V];
+            pq = new DoubleIndexMinPQ(V);
+            for(int v = 0; v < V; v++) {
+                distTo[v] = Double.POSITIVE_INFINITY;
+                parent[v] = -1;
+                arcTo[v] = -1;
+            }
+        }
+
+        void reset(int s) {
+            for(int i = 0; i < visitedCount; i++) {
+                distTo[visited[i]] = Double.POSITIVE_INFINITY;
+                parent[visited[i]] = -1;
+                arcTo[visited[i]] = -1;
+            }
+            visitedCount = 0;
+            settledCount = 0;
+            pq.clear();
+            distTo[s] = 0.0;
+            visited[visitedCount++] = s;
+            pq.insert(s, 0.0);
+        }
+
+        double minKey() {
+            return pq.isEmpty() ? Double.POSITIVE_INFINITY : pq.minKey();
+        }
+    }
+
+    /**
+     * Prepares queries on the contraction hierarchy {@code H}.
+     *
+     * @param H the contraction hierarchy
+     */
+    public ContractionHierarchyQuery(ContractionHierarchy H) {
+        this.H = H;
+        up = H.upward();
+        down = H.downward();
+        forward = new Search(H.V());
+        backward = new Search(H.V());
+    }
+
+    private void validateVertex(int v) {
+        int V = H.V();
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Computes the shortest path from {@code s} to {@code t}.
+     *
+     * @param s the source vertex
+     * @param t the target vertex
+     * @return the distance from {@code s} to {@code t},
+     * {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double query(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        forward.reset(s);
+        backward.reset(t);
+        distance = Double.POSITIVE_INFINITY;
+        meet = -1;
+
+        while (forward.minKey() < distance || backward.minKey() < distance) {
+            if (forward.minKey() <= backward.minKey()) {
+                scan(up, down, forward, backward);
+            }
+            else {
+                scan(down, up, backward, forward);
+            }
+        }
+        return distance;
+    }
+
+    // settles the closest vertex of `search`, which follows the arcs of `graph`;
+    // `stall` holds the arcs reaching the same vertex from higher ranked ones
+    private void scan(CSREdgeWeightedDigraph graph, CSREdgeWeightedDigraph stall, Search search, Search other) {
+        int v = search.pq.delMin();
+        search.settledCount++;
+        double dist = search.distTo[v];
+        if (dist + other.distTo[v] < distance) {
+            distance = dist + other.distTo[v];
+            meet = v;
+        }
+        for(int i = stall.begin(v); i < stall.end(v); i++) {
+            if (search.distTo[stall.head(i)] + stall.weight(i) < dist) return;
+        }
+        for(int i = graph.begin(v); i < graph.end(v); i++) {
+            int w = graph.head(i);
+            double d = dist + graph.weight(i);
+            if (d < search.distTo[w]) {
+                if (search.distTo[w] == Double.POSITIVE_INFINITY) search.visited[search.visitedCount++] = w;
+                search.distTo[w] = d;
+                search.parent[w] = v;
+                search.arcTo[w] = i;
+                if (search.pq.contains(w)) search.pq.decreaseKey(w, d);
+                else search.pq.insert(w, d);
+            }
+        }
+    }
+
+    /**
+     * Is there a path from the source to the target of the last query?
+     *
+     * @return {@code true} if there is such path, {@code false} otherwise
+     */
+    public boolean hasPath() {
+        return meet != -1;
+    }
+
+    /**
+     * Returns the distance from the source to the target of the last query.
+     *
+     * @return the distance, {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double distance() {
+        return distance;
+    }
+
+    /**
+     * Returns the number of vertices settled by both searches of the last query.
+     *
+     * @return the number of vertices settled by the last query
+     */
+    public int settledCount() {
+        return forward.settledCount + backward.settledCount;
+    }
+
+    /**
+     * Returns the edges of the digraph from the source to the target of the last query,
+     * with every shortcut replaced by the edges it stands for.
+     *
+     * @return the directed edges from the source to the target,
+     * or {@code null} if there is no path
+     */
+    public Iterable<DirectedEdge> path() {
+        if (!hasPath()) return null;
+        // the forward half is found from its end
+        Stack<Integer> upward = new Stack<>();
+        for(int v = meet; forward.parent[v] != -1; v = forward.parent[v]) {
+            upward.push(v);
+        }
+        Queue<DirectedEdge> path = new Queue<>();
+        for(int v : upward) {
+            H.unpackUpward(forward.parent[v], forward.arcTo[v], path);
+        }
+        for(int v = meet; backward.parent[v] != -1; v = backward.parent[v]) {
+            H.unpackDownward(backward.parent[v], backward.arcTo[v], path);
+        }
+        return path;
+    }
+
+    // unit test code
+    // ContractionHierarchyQuery tinyEWD.txt s t
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int s = Integer.parseInt(args[1]);
+        int t = Integer.parseInt(args[2]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        ContractionHierarchyQuery sp = new ContractionHierarchyQuery(new ContractionHierarchy(G));
+        sp.query(s, t);
+        if (sp.hasPath()) {
+            StdOut.printf("%d to %d (%.2f)", s, t, sp.distance());
+            for(DirectedEdge e : sp.path()) {
+                StdOut.print("  " + e);
+            }
+            StdOut.println();
+        }
+        else {
+            StdOut.printf("%d to %d         no path\n", s, t);
+        }
+        StdOut.println(sp.settledCount() + " vertices settled, DijkstraSP distance "
+                + new DijkstraSP(G, s).distTo(t));
+    }
+}
@@ -1,5 +1,7 @@
 package me.alivecode.algs4;
 
+import java.util.Arrays;
+
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 
@@ -20,11 +22,17 @@ public class Cycle {
         if (hasSelfLoop(G)) return;
         if (hasParallelEdges(G)) return;
 
-        for(int s = 0; s < G.V(); s++) {
-            if (!marked[s]) {
-                dfs(G, s, -1);
-            }
-        }
+        dfs(new CSRDigraph(G));
+    }
+
+    public Cycle(IntGraph G) {
+        marked = new boolean[G.V()];
+        edgeTo = new int[G.V()];
+
+        if (hasSelfLoop(G)) return;
+        if (hasParallelEdges(G)) return;
+
+        dfs(new CSRDigraph(G));
     }
 
     // v: v w1...wn represents self loop
@@ -53,6 +61,7 @@ public class Cycle {
                     cycle.push(v);
                     return true;
                 }
+                marked[w] = true;
             }
 
             for(int w: G.adj(v)) {
@@ -63,24 +72,67 @@ public class Cycle {
         return false;
     }
 
-    private void dfs(Graph G, int v, int s) {
-        marked[v] = true;
-        for(int w : G.adj(v)) {
-            if (cycle != null) return;
-            if (!marked[w]) {
+    // without self loops and parallel edges, a back edge
+    // to any vertex but the parent closes a cycle
+    private void dfs(CSRDigraph G) {
+        Arrays.fill(edgeTo, -1);
+        final DepthFirstTraversal dfs = new DepthFirstTraversal(G);
+        dfs.searchAll(new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+            }
+
+            public void treeEdge(int v, int w, int i) {
                 edgeTo[w] = v;
-                dfs(G, w, v);
             }
-            else if (w != s) {
+
+            public void backEdge(int v, int w, int i) {
+                if (w == edgeTo[v]) return;
                 cycle = new Stack<Integer>();
-                int x;
-                for(x = v; x != w; x = edgeTo[x]) {
+                for(int x = v; x != w; x = edgeTo[x]) {
                     cycle.push(x);
                 }
                 cycle.push(w);
                 cycle.push(v);
+                dfs.stop();
+            }
+        });
+    }
+
+    private boolean hasSelfLoop(IntGraph G) {
+        for(int v = 0; v < G.V(); v++) {
+            for(int i = 0; i < G.degree(v); i++) {
+                if (G.neighbor(v, i) == v) {
+                    cycle = new Stack<Integer>();
+                    cycle.push(v);
+                    cycle.push(v);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasParallelEdges(IntGraph G) {
+        for(int v = 0; v < G.V(); v++) {
+            for(int i = 0; i < G.degree(v); i++) {
+                int w = G.neighbor(v, i);
+                if (marked[w]) {
+                    cycle = new Stack<Integer>();
+                    cycle.push(v);
+                    cycle.push(w);
+                    cycle.push(v);
+                    return true;
+                }
+                marked[w] = true;
+            }
+
+            for(int i = 0; i < G.degree(v); i++) {
+                marked[G.neighbor(v, i)] = false;
             }
         }
+
+        return false;
     }
 
     /**
@@ -0,0 +1,177 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code DaryPrimMST} class computes a minimum spanning forest by the
+ * eager version of Prim's algorithm, on a {@link DoubleIndexMinPQ} of
+ * configurable arity.
+ * <p>
+ * Like {@link PrimMST} the queue holds at most one entry per vertex, keyed
+ * by the weight of its lightest edge to the tree, but the keys are primitive
+ * {@code double}s and are not boxed on every decrease. Prim's algorithm does
+ * about one {@code delMin} per vertex and up to one {@code decreaseKey} per
+ * edge, and {@code decreaseKey} only swims: a 4-ary heap, the default, halves
+ * the depth for the swims and keeps the children of a node for {@code delMin}
+ * in one cache line. A new tree is grown from every vertex not reached yet,
+ * so a disconnected graph gets a spanning forest.
+ */
+public class DaryPrimMST {
+    private final boolean[] marked; // marked[v] = true if v is on the forest
+    private final double[] distTo;  // distTo[v] = weight of the lightest edge from the forest to v
+    private final Edge[] edgeTo;    // edgeTo[v] = lightest edge from the forest to v
+    private final DoubleIndexMinPQ pq;
+    private final Queue<Edge> mst = new Queue<Edge>(); // edges of the minimum spanning forest
+    private double weight;          // weight of the minimum spanning forest
+    private int trees;              // number of trees of the forest
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G}
+     * with a 4-ary heap.
+     *
+     * @param G the edge-weighted graph
+     */
+    public DaryPrimMST(EdgeWeightedGraph G) {
+        this(G, 4);
+    }
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G}
+     * with a {@code d}-ary heap.
+     *
+     * @param G the edge-weighted graph
+     * @param d the arity of the heap
+     * @throws IllegalArgumentException if {@code d < 2}
+     */
+    public DaryPrimMST(EdgeWeightedGraph G, int d) {
+        marked = new boolean[G.V()];
+        distTo = new double[G.V()];
+        edgeTo = new Edge[G.V()];
+        pq = new DoubleIndexMinPQ(G.V(), d);
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+        }
+
+        for(int v = 0; v < G.V(); v++) {
+            if (!marked[v]) {
+                trees++;
+                prim(G, v);
+            }
+        }
+
+        for(int v = 0; v < G.V(); v++) {
+            if (edgeTo[v] != null) {
+                mst.enqueue(edgeTo[v]);
+                weight += distTo[v];
+            }
+        }
+    }
+
+    private void prim(EdgeWeightedGraph G, int s) {
+        distTo[s] = 0.0;
+        pq.insert(s, 0.0);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            marked[v] = true;
+            for(Edge e : G.adj(v)) {
+                int w = e.other(v);
+                if (marked[w]) continue;
+                double d = e.weight();
+                if (d < distTo[w]) {
+                    distTo[w] = d;
+                    edgeTo[w] = e;
+                    if (pq.contains(w)) pq.decreaseKey(w, d);
+                    else                pq.insert(w, d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest.
+     *
+     * @return the edges of the minimum spanning forest
+     */
+    public Iterable<Edge> edges() {
+        return mst;
+    }
+
+    /**
+     * Returns the weight of the minimum spanning forest.
+     *
+     * @return the weight of the minimum spanning forest
+     */
+    public double weight() {
+        return weight;
+    }
+
+    /**
+     * Returns the number of trees of the minimum spanning forest,
+     * the number of connected components of the graph.
+     *
+     * @return the number of trees of the minimum spanning forest
+     */
+    public int trees() {
+        return trees;
+    }
+
+    // unit test code
+    // DaryPrimMST tinyEWG.txt
+    // DaryPrimMST -random V E
+    // times LazyPrimMST, PrimMST and this class on 2, 4 and 8-ary heaps,
+    // the random graph being made connected by a path through all its vertices
+    public static void main(String[] args) {
+        EdgeWeightedGraph G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            G = new EdgeWeightedGraph(V);
+            for(int v = 0; v + 1 < V; v++) {
+                G.addEdge(new Edge(v, v + 1, StdRandom.uniform(1.0)));
+            }
+            for(int i = V - 1; i < E; i++) {
+                G.addEdge(new Edge(StdRandom.uniform(V), StdRandom.uniform(V), StdRandom.uniform(1.0)));
+            }
+        }
+        else {
+            G = new EdgeWeightedGraph(new In(args[0]));
+        }
+
+        double lazy = Double.POSITIVE_INFINITY;
+        double eager = Double.POSITIVE_INFINITY;
+        double[] dary = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+        int[] arity = { 2, 4, 8 };
+        double lazyWeight = 0, eagerWeight = 0;
+        DaryPrimMST mst = null;
+        int errors = 0;
+        for(int run = 0; run < 3; run++) {
+            Stopwatch timer = new Stopwatch();
+            lazyWeight = new LazyPrimMST(G).weight();
+            lazy = Math.min(lazy, timer.elapsedTime());
+            timer = new Stopwatch();
+            eagerWeight = new PrimMST(G).weight();
+            eager = Math.min(eager, timer.elapsedTime());
+            for(int k = 0; k < arity.length; k++) {
+                timer = new Stopwatch();
+                mst = new DaryPrimMST(G, arity[k]);
+                dary[k] = Math.min(dary[k], timer.elapsedTime());
+                if (mst.weight() != eagerWeight) errors++;
+            }
+        }
+        StdOut.printf("V = %d, E = %d, %d trees\n", G.V(), G.E(), mst.trees());
+        StdOut.printf("LazyPrimMST        %.3f s, weight %.5f\n", lazy, lazyWeight);
+        StdOut.printf("PrimMST            %.3f s, weight %.5f\n", eager, eagerWeight);
+        for(int k = 0; k < arity.length; k++) {
+            StdOut.printf("DaryPrimMST, d = %d %.3f s\n", arity[k], dary[k]);
+        }
+        StdOut.println(errors + " errors");
+
+        if (G.V() <= 20) {
+            for(Edge e : mst.edges()) {
+                StdOut.println(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package me.alivecode.algs4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code DeltaSteppingSP} class implements the delta-stepping algorithm
+ * of Meyer and Sanders for the shortest paths from a source vertex to every
+ * other vertex of an edge-weighted digraph with nonnegative weights.
+ * <p>
+ * Vertices are kept in buckets of width delta by their tentative distance.
+ * The smallest bucket is emptied in phases: all its vertices relax their light
+ * edges (weight &lt; delta) in parallel, the vertices improved into the same bucket
+ * form the next phase. Once the bucket stays empty, the vertices it held relax
+ * their heavy edges in parallel; a heavy edge rounded into the same bucket
+ * refills it, and the bucket is emptied again. A small delta does little wasted work but many
+ * phases, a large one the opposite; delta = infinity is Bellman-Ford and a delta
+ * below the smallest weight is Dijkstra.
+ * <p>
+ * Distances are updated with a compare-and-set on their bits, nonnegative doubles
+ * order like their {@code long} bits. The shortest-path tree is built from the
+ * final distances, every vertex taking its tight edge of smallest index, so it
+ * does not depend on the order of the updates.
+ * The work runs on a {@link ForkJoinPool}, the digraph is packed in a
+ * {@link CSREdgeWeightedDigraph} first when it is not one already.
+ */
+public class DeltaSteppingSP {
+    private static final int GRAIN = 256; // vertices relaxed by one task
+    private static final int MAX_BUCKETS = 1 << 26;
+
+    private final CSREdgeWeightedDigraph G;
+    private final double delta;
+    private final ForkJoinPool pool;
+    private final double[] distTo; // distTo[v] = distance of shortest s->v path
+    private final int[] edgeTo; // edgeTo[v] = index of last edge on shortest s->v path, or -1
+
+    // state of the search
+    private final AtomicLongArray dist; // bits of the tentative distances
+    private final AtomicIntegerArray queued; // queued[v] = last phase v was put in
+    private final long[] bucketOf; // bucketOf[v] = last bucket v was put in
+    private final int[] relaxedIn; // relaxedIn[v] = last round v relaxed its light edges in
+    private final IntList[] buckets; // cyclic, bucket b is buckets[b % buckets.length]
+    private int pending; // number of entries in the buckets
+    private int phase;
+    private int round; // number of times a bucket was emptied
+
+    /**
+     * Determines the shortest paths from vertex {@code s} to every other vertex
+     * in the edge-weighted digraph {@code G} on the common fork-join pool,
+     * with delta = the maximum weight / the average outdegree.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     */
+    public DeltaSteppingSP(EdgeWeightedDigraph G, int s) {
+        this(new CSREdgeWeightedDigraph(G), s);
+    }
+
+    /**
+     * Determines the shortest paths from vertex {@code s} to every other vertex
+     * in the edge-weighted digraph {@code G} on the common fork-join pool.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     * @param delta the width of a bucket
+     */
+    public DeltaSteppingSP(EdgeWeightedDigraph G, int s, double delta) {
+        this(new CSREdgeWeightedDigraph(G), s, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines the shortest paths from vertex {@code s} to every other vertex
+     * in the edge-weighted digraph {@code G} on the fork-join pool {@code pool}.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     * @param delta the width of a bucket
+     * @param pool the pool running the relaxations
+     */
+    public DeltaSteppingSP(EdgeWeightedDigraph G, int s, double delta, ForkJoinPool pool) {
+        this(new CSREdgeWeightedDigraph(G), s, delta, pool);
+    }
+
+    /**
+     * Determines the shortest paths from vertex {@code s} to every other vertex
+     * in the packed edge-weighted digraph {@code G} on the common fork-join pool,
+     * with delta = the maximum weight / the average outdegree.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     */
+    public DeltaSteppingSP(CSREdgeWeightedDigraph G, int s) {
+        this(G, s, defaultDelta(G), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines the shortest paths from vertex {@code s} to every other vertex
+     * in the packed edge-weighted digraph {@code G} on the fork-join pool {@code pool}.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     * @param delta the width of a bucket
+     * @param pool the pool running the relaxations
+     * @throws IllegalArgumentException if any edge has negative weight,
+     * or {@code delta} is not positive or too small for the largest weight
+     */
+    public DeltaSteppingSP(CSREdgeWeightedDigraph G, int s, double delta, ForkJoinPool pool) {
+        double maxWeight = 0.0;
+        for(int i = 0; i < G.E(); i++) {
+            if (G.weight(i) < 0)
+                throw new IllegalArgumentException(G.edge(i) + " has negative weight");
+            maxWeight = Math.max(maxWeight, G.weight(i));
+        }
+        if (!(delta > 0)) throw new IllegalArgumentException("delta must be positive");
+        // the pending distances span at most maxWeight + delta, so few buckets are live at once
+        double live = maxWeight / delta + 3;
+        if (live > MAX_BUCKETS) throw new IllegalArgumentException("delta " + delta + " is too small for weight " + maxWeight);
+
+        this.G = G;
+        this.delta = delta;
+        this.pool = pool;
+        distTo = new double[G.V()];
+        edgeTo = new int[G.V()];
+        validateVertex(s);
+
+        dist = new AtomicLongArray(G.V());
+        queued = new AtomicIntegerArray(G.V());
+        bucketOf = new long[G.V()];
+        relaxedIn = new int[G.V()];
+        for(int v = 0; v < G.V(); v++) {
+            dist.set(v, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+            bucketOf[v] = -1;
+            relaxedIn[v] = -1;
+            edgeTo[v] = -1;
+        }
+        buckets = new IntList[(int) live];
+        for(int b = 0; b < buckets.length; b++) {
+            buckets[b] = new IntList();
+        }
+
+        dist.set(s, Double.doubleToRawLongBits(0.0));
+        put(s);
+        search();
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.longBitsToDouble(dist.get(v));
+        }
+        buildTree(s);
+
+        assert check(s);
+    }
+
+    private static double defaultDelta(CSREdgeWeightedDigraph G) {
+        double maxWeight = 0.0;
+        for(int i = 0; i < G.E(); i++) {
+            maxWeight = Math.max(maxWeight, G.weight(i));
+        }
+        if (maxWeight == 0.0) return 1.0;
+        double degree = Math.max(1.0, (double) G.E() / Math.max(1, G.V()));
+        return maxWeight / degree;
+    }
+
+    private long bucket(double d) {
+        return (long) (d / delta);
+    }
+
+    private double tentative(int v) {
+        return Double.longBitsToDouble(dist.get(v));
+    }
+
+    // puts v in the bucket of its tentative distance, once
+    private void put(int v) {
+        long b = bucket(tentative(v));
+        if (bucketOf[v] == b) return;
+        bucketOf[v] = b;
+        buckets[(int) (b % buckets.length)].add(v);
+        pending++;
+    }
+
+    private void search() {
+        long current = 0;
+        while (pending > 0) {
+            IntList bucket = buckets[(int) (current % buckets.length)];
+            if (bucket.size == 0) {
+                current++;
+                continue;
+            }
+            // entries moved to another bucket since are stale
+            IntList frontier = new IntList();
+            for(int k = 0; k < bucket.size; k++) {
+                int v = bucket.items[k];
+                if (bucketOf[v] == current && bucket(tentative(v)) == current) {
+                    frontier.add(v);
+                    bucketOf[v] = -1;
+                }
+            }
+            pending -= bucket.size;
+            bucket.size = 0;
+            round++;
+
+            // light edges, until no vertex comes back to this bucket
+            IntList relaxed = new IntList();
+            while (frontier.size > 0) {
+                phase++;
+                IntList next = new IntList();
+                for(Relaxer r : relaxAll(frontier, true, current)) {
+                    next.addAll(r.current);
+                    relaxed.addAll(r.relaxed);
+                    for(int k = 0; k < r.later.size; k++) {
+                        put(r.later.items[k]);
+                    }
+                }
+                frontier = next;
+            }
+
+            // heavy edges of every vertex settled in this bucket, the ones
+            // rounded into this bucket fill it again
+            for(Relaxer r : relaxAll(relaxed, false, current)) {
+                for(int k = 0; k < r.later.size; k++) {
+                    put(r.later.items[k]);
+                }
+            }
+        }
+    }
+
+    // relaxes the light or heavy edges of the vertices in parallel chunks
+    private List<Relaxer> relaxAll(IntList vertices, boolean light, long current) {
+        int chunks = (int) Math.min(4L * pool.getParallelism(), (vertices.size + GRAIN - 1) / GRAIN);
+        List<Relaxer> tasks = new ArrayList<>();
+        if (chunks <= 1) {
+            Relaxer r = new Relaxer(vertices.items, 0, vertices.size, light, current);
+            r.call();
+            tasks.add(r);
+            return tasks;
+        }
+        for(int c = 0; c < chunks; c++) {
+            int lo = (int) ((long) vertices.size * c / chunks);
+            int hi = (int) ((long) vertices.size * (c + 1) / chunks);
+            tasks.add(new Relaxer(vertices.items, lo, hi, light, current));
+        }
+        try {
+            for(Future<Relaxer> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while relaxing edges", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        return tasks;
+    }
+
+    // lowers the tentative distance of w to d, returns false if it is not lower
+    private boolean lower(int w, double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        long old = dist.get(w);
+        while (bits < old) {
+            if (dist.compareAndSet(w, old, bits)) return true;
+            old = dist.get(w);
+        }
+        return false;
+    }
+
+    // relaxes the light or heavy edges of vertices[lo, hi)
+    private class Relaxer implements Callable<Relaxer> {
+        private final int[] vertices;
+        private final int lo, hi;
+        private final boolean light;
+        private final long bucket;
+        final IntList current = new IntList(); // improved into the bucket being emptied
+        final IntList later = new IntList(); // improved by a heavy edge or into a later bucket
+        final IntList relaxed = new IntList(); // relaxed for the first time in this bucket
+
+        Relaxer(int[] vertices, int lo, int hi, boolean light, long bucket) {
+            this.vertices = vertices;
+            this.lo = lo;
+            this.hi = hi;
+            this.light = light;
+            this.bucket = bucket;
+        }
+
+        public Relaxer call() {
+            for(int k = lo; k < hi; k++) {
+                int v = vertices[k];
+                if (light && relaxedIn[v] != round) {
+                    relaxedIn[v] = round;
+                    relaxed.add(v);
+                }
+                double dv = tentative(v);
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    double weight = G.weight(i);
+                    if ((weight < delta) != light) continue;
+                    int w = G.head(i);
+                    double d = dv + weight;
+                    if (!lower(w, d)) continue;
+                    if (!light || bucket(d) != bucket) later.add(w);
+                    else if (claim(w)) current.add(w);
+                }
+            }
+            return this;
+        }
+
+        // takes w for the next phase unless another task already did
+        private boolean claim(int w) {
+            int last = queued.get(w);
+            return last != phase && queued.compareAndSet(w, last, phase);
+        }
+    }
+
+    // picks for every vertex the edge v->w of smallest index with distTo[v] + weight == distTo[w].
+    // edges between vertices at the same distance could form a cycle,
+    // they are only used by a search from the vertices already in the tree
+    private void buildTree(int s) {
+        AtomicIntegerArray tight = new AtomicIntegerArray(G.V()); // smallest tight edge to w
+        for(int v = 0; v < G.V(); v++) {
+            tight.set(v, Integer.MAX_VALUE);
+        }
+        int chunks = Math.max(1, Math.min(4 * pool.getParallelism(), G.V() / GRAIN));
+        List<Callable<IntList>> tasks = new ArrayList<>();
+        for(int c = 0; c < chunks; c++) {
+            int lo = (int) ((long) G.V() * c / chunks);
+            int hi = (int) ((long) G.V() * (c + 1) / chunks);
+            tasks.add(() -> {
+                IntList level = new IntList(); // tight edges between equal distances
+                for(int v = lo; v < hi; v++) {
+                    if (distTo[v] == Double.POSITIVE_INFINITY) continue;
+                    for(int i = G.begin(v); i < G.end(v); i++) {
+                        int w = G.head(i);
+                        if (distTo[v] + G.weight(i) != distTo[w] || w == s) continue;
+                        if (distTo[v] < distTo[w]) tight.accumulateAndGet(w, i, Math::min);
+                        else level.add(i);
+                    }
+                }
+                return level;
+            });
+        }
+        IntList level = new IntList();
+        try {
+            for(Future<IntList> f : pool.invokeAll(tasks)) {
+                level.addAll(f.get());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while building the tree", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        for(int w = 0; w < G.V(); w++) {
+            if (tight.get(w) != Integer.MAX_VALUE) edgeTo[w] = tight.get(w);
+        }
+        if (level.size == 0) return;
+
+        // breadth-first search along the equal distance edges, linked by tail
+        int[] first = new int[G.V()];
+        int[] next = new int[level.size];
+        for(int v = 0; v < G.V(); v++) {
+            first[v] = -1;
+        }
+        for(int k = 0; k < level.size; k++) {
+            int v = G.tail(level.items[k]);
+            next[k] = first[v];
+            first[v] = k;
+        }
+        boolean[] inQueue = new boolean[G.V()];
+        IntList queue = new IntList();
+        for(int k = 0; k < level.size; k++) {
+            int v = G.tail(level.items[k]);
+            if ((v == s || edgeTo[v] != -1) && !inQueue[v]) {
+                inQueue[v] = true;
+                queue.add(v);
+            }
+        }
+        for(int q = 0; q < queue.size; q++) {
+            for(int k = first[queue.items[q]]; k != -1; k = next[k]) {
+                int i = level.items[k];
+                int w = G.head(i);
+                if (w == s || edgeTo[w] != -1) continue;
+                edgeTo[w] = i;
+                if (!inQueue[w]) {
+                    inQueue[w] = true;
+                    queue.add(w);
+                }
+            }
+        }
+    }
+
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Is there any path from source vertex to vertex {@code v}?
+     *
+     * @param v the target vertex
+     * @return {@code true} if there is a path from source vertex to v,
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from source vertex to {@code v}.
+     * @param v the target vertex
+     * @return the distance from source vertex to {@code v}
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns the directed edges from the source vertex to {@code v}
+     * if there is a path between the source vertex and {@code v}.
+     * @param v the target vertex
+     * @return the directed edges  from the source vertex to {@code v}
+     * if there is a path between them, {@code null} otherwise
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<DirectedEdge> stack = new Stack<>();
+        for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+            stack.push(G.edge(i));
+        }
+        return stack;
+    }
+
+    /**
+     * Returns the width of a bucket.
+     *
+     * @return the width of a bucket
+     */
+    public double delta() {
+        return delta;
+    }
+
+    // check optimality conditions, see DijkstraSP
+    private boolean check(int s) {
+        if (edgeTo[s] != -1 || distTo[s] != 0.0) {
+            System.err.println("edgeTo[s] and distTo[s] are inconsistent");
+            return false;
+        }
+        for(int v = 0; v < G.V(); v++) {
+            if (v == s) continue;
+            if ((edgeTo[v] == -1) != (distTo[v] == Double.POSITIVE_INFINITY)) {
+                System.err.printf("edgeTo[%d] and distTo[%d] are inconsistent\n", v, v);
+                return false;
+            }
+        }
+
+        // check that all edges e = v->w satisfy distTo[w] <= distTo[v] + e.weight()
+        for(int v = 0; v < G.V(); v++) {
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                if (distTo[v] + G.weight(i) < distTo[G.head(i)]) {
+                    System.err.println("edge " + G.edge(i) + " not relaxed");
+                    return false;
+                }
+            }
+        }
+
+        // check that all edges e = v->w on SPT satisfy distTo[w] == distTo[v] + e.weight()
+        for(int w = 0; w < G.V(); w++) {
+            int i = edgeTo[w];
+            if (i == -1) continue;
+            if (G.head(i) != w) return false;
+            if (distTo[G.tail(i)] + G.weight(i) != distTo[w]) {
+                System.err.println("edge " + G.edge(i) + " on shortest path not tight");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // unit test code
+    // DeltaSteppingSP largeEWD.txt s [delta]
+    // runs on 1, 2, 4, ... threads and compares with DijkstraSP,
+    // after a heavy edge rounded into the bucket being emptied
+    public static void main(String[] args) {
+        EdgeWeightedDigraph rounding = new EdgeWeightedDigraph(4);
+        rounding.addEdge(new DirectedEdge(0, 1, 3523.8048798488458));
+        rounding.addEdge(new DirectedEdge(1, 2, 9.371821488959696));
+        rounding.addEdge(new DirectedEdge(2, 3, 1.0));
+        DeltaSteppingSP heavy = new DeltaSteppingSP(rounding, 0, 9.371821488959696);
+        StdOut.printf("rounded heavy edge: distTo(3) = %.5f, DijkstraSP %.5f\n",
+                heavy.distTo(3), new DijkstraSP(rounding, 0).distTo(3));
+
+        In in = new In(args[0]);
+        int s = Integer.parseInt(args[1]);
+        EdgeWeightedDigraph digraph = new EdgeWeightedDigraph(in);
+        CSREdgeWeightedDigraph G = new CSREdgeWeightedDigraph(digraph);
+        double delta = args.length > 2 ? Double.parseDouble(args[2]) : defaultDelta(G);
+
+        Stopwatch timer = new Stopwatch();
+        DijkstraSP dijkstra = new DijkstraSP(digraph, s);
+        StdOut.printf("DijkstraSP            %.3f s\n", timer.elapsedTime());
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for(int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = Double.POSITIVE_INFINITY;
+            DeltaSteppingSP sp = null;
+            for(int run = 0; run < 3; run++) {
+                timer = new Stopwatch();
+                sp = new DeltaSteppingSP(G, s, delta, pool);
+                best = Math.min(best, timer.elapsedTime());
+            }
+            pool.shutdown();
+            if (threads == 1) single = best;
+
+            int errors = 0;
+            for(int v = 0; v < G.V(); v++) {
+                double expected = dijkstra.distTo(v);
+                if (sp.distTo(v) != expected && Math.abs(sp.distTo(v) - expected) > 1e-9 * expected) errors++;
+            }
+            StdOut.printf("%2d threads, delta %.4f %.3f s, speedup %.2f, %d errors\n",
+                    threads, delta, best, single / best, errors);
+            if (threads == processors) break;
+        }
+    }
+}
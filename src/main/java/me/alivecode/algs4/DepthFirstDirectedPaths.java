@@ -25,7 +25,7 @@ public class DepthFirstDirectedPaths {
         count = 0;
         this.s = s;
         validateVertex(s);
-        dfs(G, s);
+        dfs(new CSRDigraph(G), s);
     }
 
     private void validateVertex(int v) {
@@ -34,16 +34,17 @@ public class DepthFirstDirectedPaths {
             throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
     }
 
-    private void dfs(Digraph G, int v) {
-        validateVertex(v);
-        count++;
-        marked[v] = true;
-        for(int w: G.adj(v)) {
-            if (!marked[w]) {
+    private void dfs(CSRDigraph G, int s) {
+        new DepthFirstTraversal(G).search(s, new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                count++;
+                marked[v] = true;
+            }
+
+            public void treeEdge(int v, int w, int i) {
                 edgeTo[w] = v;
-                dfs(G, w);
             }
-        }
+        });
     }
 
     /**
@@ -2,7 +2,6 @@ package me.alivecode.algs4;
 
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
-import sun.security.krb5.internal.rcache.DflCache;
 
 /**
  * The {@code DepthFirstOrder} class represents a data type
@@ -23,17 +22,7 @@ public class DepthFirstOrder {
      * @param G the directed graph.
      */
     public DepthFirstOrder(Digraph G) {
-        marked = new boolean[G.V()];
-        pre = new int[G.V()];
-        post = new int[G.V()];
-        preOrder = new Queue<>();
-        postOrder = new Queue<>();
-
-        for(int v = 0; v < G.V(); v++) {
-            if(!marked[v]) {
-                dfs(G, v);
-            }
-        }
+        this(new CSRDigraph(G));
     }
 
     /**
@@ -42,48 +31,33 @@ public class DepthFirstOrder {
      * @param G the edge-weighted digraph
      */
     public DepthFirstOrder(EdgeWeightedDigraph G) {
+        this(new CSREdgeWeightedDigraph(G).digraph());
+    }
+
+    /**
+     * Computes the order of visiting vertices in the specified compressed digraph.
+     *
+     * @param G the compressed digraph
+     */
+    public DepthFirstOrder(CSRDigraph G) {
         marked = new boolean[G.V()];
         pre = new int[G.V()];
         post = new int[G.V()];
         preOrder = new Queue<>();
         postOrder = new Queue<>();
 
-        for(int v = 0; v < G.V(); v++) {
-            if (!marked[v]) {
-                dfs(G, v);
-            }
-        }
-    }
-
-    private void dfs(Digraph DG, int v) {
-        marked[v] = true;
-        pre[v] = preOrderCount++;
-        preOrder.enqueue(v);
-
-        for(int w: DG.adj(v)) {
-            if(!marked[w]) {
-                dfs(DG, w);
+        new DepthFirstTraversal(G).searchAll(new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+                pre[v] = preOrderCount++;
+                preOrder.enqueue(v);
             }
-        }
-
-        post[v] = postOrderCount++;
-        postOrder.enqueue(v);
-    }
 
-    private void dfs(EdgeWeightedDigraph G, int v) {
-        marked[v] = true;
-        pre[v] = preOrderCount++;
-        preOrder.enqueue(v);
-
-        for(DirectedEdge e : G.adj(v)) {
-            int w = e.to();
-            if(!marked[w]) {
-                dfs(G, w);
+            public void postVisit(int v) {
+                post[v] = postOrderCount++;
+                postOrder.enqueue(v);
             }
-        }
-
-        post[v] = postOrderCount++;
-        postOrder.enqueue(v);
+        });
     }
 
     /**
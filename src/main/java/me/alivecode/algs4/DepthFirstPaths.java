@@ -17,23 +17,24 @@ public class DepthFirstPaths {
         marked = new boolean[G.V()];
         this.s = s;
         validateVertex(s);
-        dfs(G, s);
+        dfs(new CSRDigraph(G), s);
     }
 
     /**
-     * computes paths from v to ervery vertices in G
+     * computes paths from s to ervery vertices in G
      * <em>the order of vertices in path v-s is same as the order that 
      * initializing the graph G.</em>
      */
-    private void dfs(Graph G, int v) {
-        validateVertex(v);
-        marked[v] = true;
-        for(int w : G.adj(v)) {
-            if (!marked[w]) {
+    private void dfs(CSRDigraph G, int s) {
+        new DepthFirstTraversal(G).search(s, new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+            }
+
+            public void treeEdge(int v, int w, int i) {
                 edgeTo[w] = v;
-                dfs(G, w);
             }
-        }
+        });
     }
 
     private void validateVertex(int v) {
@@ -20,12 +20,29 @@ public class DepthFirstSearch {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
     public DepthFirstSearch(Graph G, int s) {
+        this(new CSRDigraph(G), s);
+    }
+    
+    /**
+     * Computes the vertices in the primitive graph {@code G} that
+     * are conected to source vertex {@code s}.
+     *
+     * @param G the graph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DepthFirstSearch(IntGraph G, int s) {
+        this(new CSRDigraph(G), s);
+    }
+
+    // the graph with each edge in both directions
+    private DepthFirstSearch(CSRDigraph G, int s) {
         count = 0;
         marked = new boolean[G.V()];
         validateVertex(s);
         dfs(G, s);
     }
-    
+
     // throws IllegalArgumentException unless 0 <= v < V 
     private void validateVertex(int v) {
         int V = marked.length;
@@ -35,15 +52,13 @@ public class DepthFirstSearch {
 
     // computes the vertices in graph G that
     // are connected to vertex s
-    private void dfs(Graph G, int s) {
-        validateVertex(s);
-        marked[s] = true;
-        count++;
-        for(int w : G.adj(s)) {
-            if (!marked[w]) {
-                dfs(G, w);
+    private void dfs(CSRDigraph G, int s) {
+        new DepthFirstTraversal(G).search(s, new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+                count++;
             }
-        }
+        });
     }
 
     /**
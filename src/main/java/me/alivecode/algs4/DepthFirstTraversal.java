@@ -0,0 +1,370 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code DepthFirstTraversal} class is the depth-first search engine
+ * behind {@link DepthFirstSearch}, {@link DepthFirstPaths}, {@link DepthFirstOrder},
+ * {@link DirectedCycle}, {@link Cycle}, {@link Bipartite}, {@link CC} and the other
+ * depth-first classes. It runs on a {@link CSRDigraph}, an undirected graph
+ * being packed with each edge in both directions.
+ * <p>
+ * The search does not recurse: the current path is kept in an {@code int} stack
+ * and every vertex on it has a cursor to its next edge in the CSR arrays, so the
+ * depth of the search is only limited by <em>V</em>, not by the thread stack.
+ * The vertices are visited and the edges classified in the same order as the
+ * recursive search, calling back a {@link Visitor}:
+ * <ul>
+ * <li>{@code preVisit(v)} when v is reached, {@code postVisit(v)} when all its edges are done,
+ * <li>{@code treeEdge} for an edge to a vertex not reached yet,
+ * <li>{@code backEdge} for an edge to a vertex on the current path,
+ * <li>{@code forwardEdge} for an edge to a finished descendant,
+ * <li>{@code crossEdge} for any other edge.
+ * </ul>
+ * In an undirected graph there are only tree and back edges, plus the second
+ * direction of each of them, seen as a back edge to the parent or a forward edge.
+ * A visitor can end the search early by {@link #stop()}.
+ */
+public class DepthFirstTraversal {
+    private static final Visitor NONE = new Visitor() { };
+
+    private final CSRDigraph G;
+    // mark[v] = 0 if v is not reached yet, pre+1 while v is on the current path
+    // and -(pre+1) once all its edges are followed, pre being its preorder number.
+    // an edge is classified by loading this one entry.
+    private final int[] mark;
+    private final int[] post;   // post[v] = postorder number of v, or -1 if not finished
+    private final int[] cursor; // cursor[v] = next edge of v to follow
+    private final int[] stack;  // the current path, stack[0] being the root
+    private int preCount;
+    private int postCount;
+    private boolean stopped;
+
+    /**
+     * The callbacks of a depth-first search. All of them do nothing by default.
+     */
+    public interface Visitor {
+        /**
+         * Vertex {@code v} is reached.
+         *
+         * @param v the vertex
+         */
+        default void preVisit(int v) { }
+
+        /**
+         * All the edges leaving {@code v} have been followed.
+         *
+         * @param v the vertex
+         */
+        default void postVisit(int v) { }
+
+        /**
+         * Edge {@code i} from {@code v} leads to {@code w}, not reached yet.
+         *
+         * @param v the tail
+         * @param w the head
+         * @param i the edge index
+         */
+        default void treeEdge(int v, int w, int i) { }
+
+        /**
+         * Edge {@code i} from {@code v} leads to {@code w}, on the current path.
+         *
+         * @param v the tail
+         * @param w the head
+         * @param i the edge index
+         */
+        default void backEdge(int v, int w, int i) { }
+
+        /**
+         * Edge {@code i} from {@code v} leads to {@code w}, a finished descendant of {@code v}.
+         *
+         * @param v the tail
+         * @param w the head
+         * @param i the edge index
+         */
+        default void forwardEdge(int v, int w, int i) { }
+
+        /**
+         * Edge {@code i} from {@code v} leads to {@code w}, finished and not a descendant of {@code v}.
+         *
+         * @param v the tail
+         * @param w the head
+         * @param i the edge index
+         */
+        default void crossEdge(int v, int w, int i) { }
+    }
+
+    /**
+     * Initializes a search over the compressed digraph {@code G}, no vertex reached.
+     *
+     * @param G the compressed digraph
+     */
+    public DepthFirstTraversal(CSRDigraph G) {
+        this.G = G;
+        int V = G.V();
+        mark = new int[V];
+        post = new int[V];
+        cursor = new int[V];
+        stack = new int[V];
+        Arrays.fill(post, -1);
+    }
+
+    /**
+     * Searches from {@code s} without callbacks, if {@code s} is not reached yet.
+     *
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public void search(int s) {
+        search(s, NONE);
+    }
+
+    /**
+     * Searches from {@code s}, if {@code s} is not reached yet.
+     * The vertices reached by earlier searches are not visited again.
+     *
+     * @param s the source vertex
+     * @param visitor the callbacks
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public void search(int s, Visitor visitor) {
+        validateVertex(s);
+        if (mark[s] == 0 && !stopped) dfs(s, visitor);
+    }
+
+    /**
+     * Searches from every vertex not reached yet, in increasing order,
+     * so that every vertex is visited.
+     *
+     * @param visitor the callbacks
+     */
+    public void searchAll(Visitor visitor) {
+        for(int v = 0; v < G.V() && !stopped; v++) {
+            if (mark[v] == 0) dfs(v, visitor);
+        }
+    }
+
+    private void dfs(int s, Visitor visitor) {
+        int top = 0;
+        stack[top++] = s;
+        mark[s] = ++preCount;
+        cursor[s] = G.begin(s);
+        visitor.preVisit(s);
+
+        while (top > 0) {
+            if (stopped) return;
+            int v = stack[top - 1];
+            int i = cursor[v];
+            if (i == G.end(v)) {
+                top--;
+                mark[v] = -mark[v];
+                post[v] = postCount++;
+                visitor.postVisit(v);
+                continue;
+            }
+            cursor[v] = i + 1;
+            int w = G.target(i);
+            int m = mark[w];
+            if (m == 0) {
+                visitor.treeEdge(v, w, i);
+                stack[top++] = w;
+                mark[w] = ++preCount;
+                cursor[w] = G.begin(w);
+                visitor.preVisit(w);
+            }
+            else if (m > 0) {
+                visitor.backEdge(v, w, i);
+            }
+            else if (-m > mark[v]) {
+                visitor.forwardEdge(v, w, i);
+            }
+            else {
+                visitor.crossEdge(v, w, i);
+            }
+        }
+    }
+
+    /**
+     * Ends the search: the current {@code search} returns after the callback
+     * that called this method, and later searches do nothing.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Has the search been stopped?
+     *
+     * @return {@code true} if {@link #stop()} has been called, {@code false} otherwise
+     */
+    public boolean stopped() {
+        return stopped;
+    }
+
+    private void validateVertex(int v) {
+        int V = mark.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Has vertex {@code v} been reached?
+     *
+     * @param v the vertex
+     * @return {@code true} if {@code v} has been reached, {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean marked(int v) {
+        validateVertex(v);
+        return mark[v] != 0;
+    }
+
+    /**
+     * Returns the preorder number of vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the preorder number of {@code v}, or -1 if it has not been reached
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int pre(int v) {
+        validateVertex(v);
+        return Math.abs(mark[v]) - 1;
+    }
+
+    /**
+     * Returns the postorder number of vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the postorder number of {@code v}, or -1 if it has not been finished
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int post(int v) {
+        validateVertex(v);
+        return post[v];
+    }
+
+    /**
+     * Returns the number of vertices reached.
+     *
+     * @return the number of vertices reached
+     */
+    public int count() {
+        return preCount;
+    }
+
+    // recursive search, the baseline of the benchmark
+    private static int recursive(CSRDigraph G, int v, boolean[] marked) {
+        marked[v] = true;
+        int count = 1;
+        for(int i = G.begin(v); i < G.end(v); i++) {
+            int w = G.target(i);
+            if (!marked[w]) count += recursive(G, w, marked);
+        }
+        return count;
+    }
+
+    private static int recursiveAll(CSRDigraph G) {
+        boolean[] marked = new boolean[G.V()];
+        int count = 0;
+        for(int v = 0; v < G.V(); v++) {
+            if (!marked[v]) count += recursive(G, v, marked);
+        }
+        return count;
+    }
+
+    // runs the recursive search on a thread with a 1GB stack
+    private static double timeRecursive(final CSRDigraph G) throws InterruptedException {
+        final double[] time = new double[1];
+        Thread thread = new Thread(null, new Runnable() {
+            public void run() {
+                Stopwatch timer = new Stopwatch();
+                recursiveAll(G);
+                time[0] = timer.elapsedTime();
+            }
+        }, "recursive", 1L << 30);
+        thread.start();
+        thread.join();
+        return time[0];
+    }
+
+    private static double timeIterative(CSRDigraph G) {
+        Stopwatch timer = new Stopwatch();
+        new DepthFirstTraversal(G).searchAll(NONE);
+        return timer.elapsedTime();
+    }
+
+    // unit test code
+    // DepthFirstTraversal tinyDG.txt
+    // DepthFirstTraversal -random V E
+    // classifies the edges, then times against the recursive search
+    // on the digraph and on a path of V vertices
+    public static void main(String[] args) throws InterruptedException {
+        CSRDigraph G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            int[] from = new int[E];
+            int[] to = new int[E];
+            for(int i = 0; i < E; i++) {
+                from[i] = StdRandom.uniform(V);
+                to[i] = StdRandom.uniform(V);
+            }
+            G = new CSRDigraph(V, from, to);
+        }
+        else {
+            G = new CSRDigraph(new In(args[0]));
+        }
+
+        final int[] kinds = new int[4];
+        final boolean print = G.V() <= 20;
+        DepthFirstTraversal dfs = new DepthFirstTraversal(G);
+        dfs.searchAll(new Visitor() {
+            public void treeEdge(int v, int w, int i) {
+                kinds[0]++;
+                if (print) StdOut.println(v + "->" + w + " tree");
+            }
+
+            public void backEdge(int v, int w, int i) {
+                kinds[1]++;
+                if (print) StdOut.println(v + "->" + w + " back");
+            }
+
+            public void forwardEdge(int v, int w, int i) {
+                kinds[2]++;
+                if (print) StdOut.println(v + "->" + w + " forward");
+            }
+
+            public void crossEdge(int v, int w, int i) {
+                kinds[3]++;
+                if (print) StdOut.println(v + "->" + w + " cross");
+            }
+        });
+        StdOut.printf("%d tree, %d back, %d forward, %d cross edges\n", kinds[0], kinds[1], kinds[2], kinds[3]);
+
+        int V = G.V();
+        int[] from = new int[V - 1];
+        int[] to = new int[V - 1];
+        for(int v = 0; v + 1 < V; v++) {
+            from[v] = v;
+            to[v] = v + 1;
+        }
+        CSRDigraph path = new CSRDigraph(V, from, to);
+        try {
+            recursiveAll(path);
+            StdOut.println("path: recursive search fits in the default stack");
+        }
+        catch (StackOverflowError e) {
+            StdOut.println("path: recursive search throws StackOverflowError on the default stack");
+        }
+
+        for(int run = 0; run < 3; run++) {
+            StdOut.printf("digraph: recursive (1GB stack) %.3f s, iterative %.3f s   path: recursive (1GB stack) %.3f s, iterative %.3f s\n",
+                    timeRecursive(G), timeIterative(G), timeRecursive(path), timeIterative(path));
+        }
+    }
+}
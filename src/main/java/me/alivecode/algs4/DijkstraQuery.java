@@ -0,0 +1,310 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code DijkstraQuery} class answers many shortest-path queries
+ * on one {@link CSREdgeWeightedDigraph} with the same object.
+ * A point-to-point query stops as soon as the target is settled.
+ * <p>
+ * The <em>V</em>-sized arrays are allocated once. Every vertex touched by a
+ * query is put on a visited list, and the next query only resets those
+ * vertices, so a query costs time proportional to the part of the graph it
+ * explores rather than <em>V</em>.
+ * <p>
+ * The priority queue is a {@link DoubleIndexMinPQ}, or a {@link RadixHeap}
+ * when every weight is an integer.
+ * The results of the last query stay valid until the next query starts.
+ */
+public class DijkstraQuery {
+    private static final double MAX_INTEGER_WEIGHT = 1L << 53;
+
+    private final CSREdgeWeightedDigraph G;
+    private final double[] distTo;     // distTo[v] = tentative distance of the last query
+    private final int[] edgeTo;        // edgeTo[v] = index of last edge on the s->v path, or -1
+    private final boolean[] settled;   // settled[v] = is distTo[v] final?
+    private final boolean[] target;    // target[v] = is v a target of the running query?
+    private final int[] visited;       // vertices touched by the last query
+    private int visitedCount;
+    private final DoubleIndexMinPQ pq; // null when the radix heap is used
+    private final RadixHeap radix;     // null when the indexed heap is used
+    private int source = -1;
+    private int settledCount;
+
+    /**
+     * Initializes a query object for {@code G} using a {@link DoubleIndexMinPQ}.
+     *
+     * @param G the edge-weighted digraph
+     * @throws IllegalArgumentException if any edge has negative weight
+     */
+    public DijkstraQuery(CSREdgeWeightedDigraph G) {
+        this(G, false);
+    }
+
+    /**
+     * Initializes a query object for {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     * @param radixHeap use a {@link RadixHeap} instead of a {@link DoubleIndexMinPQ},
+     *                  requires every weight to be an integer
+     * @throws IllegalArgumentException if any edge has negative weight,
+     * or {@code radixHeap} is set and a weight is not an integer
+     */
+    public DijkstraQuery(CSREdgeWeightedDigraph G, boolean radixHeap) {
+        for(int i = 0; i < G.E(); i++) {
+            double weight = G.weight(i);
+            if (weight < 0)
+                throw new IllegalArgumentException(G.edge(i) + " has negative weight");
+            if (radixHeap && (weight != Math.floor(weight) || weight >= MAX_INTEGER_WEIGHT))
+                throw new IllegalArgumentException(G.edge(i) + " has no integer weight");
+        }
+
+        this.G = G;
+        distTo = new double[G.V()];
+        edgeTo = new int[G.V()];
+        settled = new boolean[G.V()];
+        target = new boolean[G.V()];
+        visited = new int[G.V()];
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = -1;
+        }
+        pq = radixHeap ? null : new DoubleIndexMinPQ(G.V());
+        radix = radixHeap ? new RadixHeap() : null;
+    }
+
+    /**
+     * Initializes a query object for a packed copy of {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     */
+    public DijkstraQuery(EdgeWeightedDigraph G) {
+        this(new CSREdgeWeightedDigraph(G), false);
+    }
+
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    // undoes the last query on the vertices it touched
+    private void reset() {
+        for(int i = 0; i < visitedCount; i++) {
+            int v = visited[i];
+            distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = -1;
+            settled[v] = false;
+        }
+        visitedCount = 0;
+        settledCount = 0;
+        if (pq != null) pq.clear();
+        else radix.clear();
+    }
+
+    /**
+     * Computes the shortest path from {@code s} to {@code t}
+     * and stops as soon as {@code t} is settled.
+     *
+     * @param s the source vertex
+     * @param t the target vertex
+     * @return the distance from {@code s} to {@code t},
+     * {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double query(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        search(s, t, null);
+        return distTo(t);
+    }
+
+    /**
+     * Computes the shortest paths from {@code s} to every vertex of {@code targets}
+     * and stops as soon as all of them are settled.
+     *
+     * @param s the source vertex
+     * @param targets the target vertices
+     */
+    public void query(int s, int[] targets) {
+        validateVertex(s);
+        for(int t : targets) {
+            validateVertex(t);
+        }
+        search(s, -1, targets);
+    }
+
+    /**
+     * Computes the shortest paths from {@code s} to every other vertex.
+     *
+     * @param s the source vertex
+     */
+    public void query(int s) {
+        validateVertex(s);
+        search(s, -1, null);
+    }
+
+    // stops when t is settled, or all the targets if there are any
+    private void search(int s, int t, int[] targets) {
+        reset();
+        source = s;
+        distTo[s] = 0.0;
+        visited[visitedCount++] = s;
+        if (pq != null) pq.insert(s, 0.0);
+        else radix.insert(s, 0L);
+        int remaining = 0; // targets not settled yet
+        if (targets != null) {
+            for(int x : targets) {
+                if (!target[x]) {
+                    target[x] = true;
+                    remaining++;
+                }
+            }
+            if (remaining == 0) return;
+        }
+
+        while (true) {
+            int v;
+            if (pq != null) {
+                if (pq.isEmpty()) break;
+                v = pq.delMin();
+            }
+            else {
+                if (radix.isEmpty()) break;
+                long key = radix.minKey();
+                v = radix.delMin();
+                // skip stale copies left by an earlier insert
+                if (settled[v] || key != (long) distTo[v]) continue;
+            }
+            settled[v] = true;
+            settledCount++;
+            if (v == t) break;
+            if (target[v] && --remaining == 0) break;
+
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                relax(v, i);
+            }
+        }
+        if (targets != null) {
+            for(int x : targets) {
+                target[x] = false;
+            }
+        }
+    }
+
+    private void relax(int v, int i) {
+        int w = G.head(i);
+        if (settled[w]) return;
+        double dist = distTo[v] + G.weight(i);
+        if (dist < distTo[w]) {
+            if (distTo[w] == Double.POSITIVE_INFINITY) visited[visitedCount++] = w;
+            distTo[w] = dist;
+            edgeTo[w] = i;
+            if (pq == null) radix.insert(w, (long) dist);
+            else if (pq.contains(w)) pq.decreaseKey(w, dist);
+            else pq.insert(w, dist);
+        }
+    }
+
+    /**
+     * Returns the source vertex of the last query.
+     *
+     * @return the source vertex of the last query, or -1 before the first query
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Returns the number of vertices settled by the last query.
+     *
+     * @return the number of vertices settled by the last query
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Was the shortest path to {@code v} found by the last query?
+     * A point-to-point query only settles vertices not farther than its target.
+     *
+     * @param v the vertex
+     * @return {@code true} if {@code v} was settled by the last query,
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return settled[v];
+    }
+
+    /**
+     * Returns the distance from the source vertex to {@code v}.
+     *
+     * @param v the vertex
+     * @return the distance from the source to {@code v} if {@code v} was settled
+     * by the last query, {@code Double.POSITIVE_INFINITY} otherwise
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return settled[v] ? distTo[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the directed edges from the source vertex to {@code v}.
+     *
+     * @param v the vertex
+     * @return the directed edges from the source vertex to {@code v}
+     * if {@code v} was settled by the last query, {@code null} otherwise
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        if (!hasPathTo(v)) return null;
+        Stack<DirectedEdge> stack = new Stack<>();
+        for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+            stack.push(G.edge(i));
+        }
+        return stack;
+    }
+
+    // unit test code
+    // DijkstraQuery mediumEWD.txt queries
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int queries = Integer.parseInt(args[1]);
+        CSREdgeWeightedDigraph G = new CSREdgeWeightedDigraph(in);
+        DijkstraQuery query = new DijkstraQuery(G);
+
+        int[] s = new int[queries];
+        int[] t = new int[queries];
+        for(int i = 0; i < queries; i++) {
+            s[i] = StdRandom.uniform(G.V());
+            t[i] = StdRandom.uniform(G.V());
+        }
+
+        Stopwatch timer = new Stopwatch();
+        long settled = 0;
+        for(int i = 0; i < queries; i++) {
+            double dist = query.query(s[i], t[i]);
+            settled += query.settledCount();
+            if (i < 5) {
+                StdOut.printf("%d to %d (%.2f)", s[i], t[i], dist);
+                if (query.hasPathTo(t[i])) {
+                    for(DirectedEdge e : query.pathTo(t[i])) {
+                        StdOut.print("  " + e);
+                    }
+                }
+                StdOut.println();
+            }
+        }
+        double elapsed = timer.elapsedTime();
+        StdOut.printf("%d queries in %.3f s, %.1f settled vertices per query\n",
+                queries, elapsed, (double) settled / queries);
+
+        timer = new Stopwatch();
+        for(int i = 0; i < queries; i++) {
+            new CSRDijkstraSP(G, s[i]).distTo(t[i]);
+        }
+        StdOut.printf("CSRDijkstraSP full trees: %.3f s\n", timer.elapsedTime());
+    }
+}
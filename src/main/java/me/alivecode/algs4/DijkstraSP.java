@@ -3,15 +3,13 @@ package me.alivecode.algs4;
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 
-import java.util.zip.DeflaterOutputStream;
-
 /**
  * The {@code DijkstraSP} class implements the Dijkstra Algorithm
  * for determining the shortest paths from source vertex to every
  * other vertices in the edge-weighted digraph.
  */
 public class DijkstraSP {
-    private IndexMinPQ<Double> pq;
+    private DoubleIndexMinPQ pq;
     private double[] distTo;
     private DirectedEdge[] edgeTo;
 
@@ -39,7 +37,7 @@ public class DijkstraSP {
         distTo[s] = 0.0;
 
         // relax vertices in order of distance from s
-        pq = new IndexMinPQ<>(G.V());
+        pq = new DoubleIndexMinPQ(G.V());
         pq.insert(s, distTo[s]);
         while(!pq.isEmpty()) {
             int v = pq.delMin();
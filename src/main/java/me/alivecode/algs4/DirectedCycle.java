@@ -11,7 +11,6 @@ public class DirectedCycle {
     private Stack<Integer> cycle;
     private boolean[] marked;
     private int[] edgeTo;
-    private boolean[] onStack; // onStack[w] = is w on the path to v?
 
     /**
      * Find cycle in the specified directed cycle.
@@ -19,15 +18,18 @@ public class DirectedCycle {
      * @param DG the directed graph
      */
     public DirectedCycle(Digraph DG) {
+        this(new CSRDigraph(DG));
+    }
+
+    /**
+     * Find cycle in the specified compressed digraph.
+     *
+     * @param DG the compressed digraph
+     */
+    public DirectedCycle(CSRDigraph DG) {
         marked = new boolean[DG.V()];
         edgeTo = new int[DG.V()];
-        onStack = new boolean[DG.V()];
-
-        for(int v = 0; v < DG.V(); v++) {
-            if (!marked[v]) {
-                dfs(DG, v);
-            }
-        }
+        dfs(DG);
     }
 
     /*
@@ -41,30 +43,31 @@ public class DirectedCycle {
         4 0
 
         vertex 0 will be marked first and not in any cycle.
-        'onStack' make sure marked vertices like vertex 0
+        only a back edge, to a vertex still on the path,
+        closes a cycle, so marked vertices like vertex 0
         will not make unclosed cycle.
      */
-    private void dfs(Digraph DG, int v) {
-        marked[v] = true;
-        onStack[v] = true;
+    private void dfs(CSRDigraph DG) {
+        final DepthFirstTraversal dfs = new DepthFirstTraversal(DG);
+        dfs.searchAll(new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+            }
 
-        for(int w: DG.adj(v)) {
-            if (cycle != null) return;;
-            if (!marked[w]) {
+            public void treeEdge(int v, int w, int i) {
                 edgeTo[w] = v;
-                dfs(DG, w);
             }
-            else if(onStack[w]) {
+
+            public void backEdge(int v, int w, int i) {
                 cycle = new Stack<>();
                 for(int x = v; x != w; x = edgeTo[x]) {
                     cycle.push(x);
                 }
                 cycle.push(w);
                 cycle.push(v);
+                dfs.stop();
             }
-
-        }
-        onStack[v] = false;
+        });
     }
 
     /**
@@ -0,0 +1,19 @@
+package me.alivecode.algs4;
+
+/**
+ * The {@code DistanceHeuristic} interface estimates the distance between two
+ * vertices for {@link AStarSP}.
+ * An estimate must never exceed the real shortest distance (admissible)
+ * for A* to return shortest paths.
+ */
+public interface DistanceHeuristic {
+
+    /**
+     * Returns a lower bound of the distance from {@code v} to {@code t}.
+     *
+     * @param v the vertex
+     * @param t the target vertex
+     * @return a lower bound of the distance from {@code v} to {@code t}
+     */
+    double estimate(int v, int t);
+}
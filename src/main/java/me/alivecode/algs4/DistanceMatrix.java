@@ -0,0 +1,210 @@
+package me.alivecode.algs4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code DistanceMatrix} class computes the shortest distances from every
+ * vertex of a list of sources to every vertex of a list of targets
+ * in an edge-weighted digraph with nonnegative weights.
+ * <p>
+ * The sources are shared by one worker per thread of a {@link ForkJoinPool}.
+ * Each worker owns a {@link DijkstraQuery}, so the <em>V</em>-sized arrays are
+ * allocated once per thread instead of once per source, and every search stops
+ * as soon as all the targets are settled.
+ * The distances are stored row by row in one {@code double[]}.
+ */
+public class DistanceMatrix {
+    private final int[] sources;
+    private final int[] targets;
+    private final double[] distances; // distances[i * targets.length + j] = sources[i] to targets[j]
+
+    /**
+     * Computes the distances in a packed copy of {@code G} on the common fork-join pool.
+     *
+     * @param G the edge-weighted digraph
+     * @param sources the source vertices, the rows of the matrix
+     * @param targets the target vertices, the columns of the matrix
+     */
+    public DistanceMatrix(EdgeWeightedDigraph G, int[] sources, int[] targets) {
+        this(new CSREdgeWeightedDigraph(G), sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the distances in {@code G} on the common fork-join pool.
+     *
+     * @param G the edge-weighted digraph
+     * @param sources the source vertices, the rows of the matrix
+     * @param targets the target vertices, the columns of the matrix
+     */
+    public DistanceMatrix(CSREdgeWeightedDigraph G, int[] sources, int[] targets) {
+        this(G, sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the distances in {@code G} on the fork-join pool {@code pool}.
+     *
+     * @param G the edge-weighted digraph
+     * @param sources the source vertices, the rows of the matrix
+     * @param targets the target vertices, the columns of the matrix
+     * @param pool the pool running the searches
+     * @throws IllegalArgumentException if any edge has negative weight,
+     * any source or target is not a vertex of {@code G}, or the matrix
+     * has more than {@code Integer.MAX_VALUE} distances
+     */
+    public DistanceMatrix(CSREdgeWeightedDigraph G, int[] sources, int[] targets, ForkJoinPool pool) {
+        for(int v : sources) {
+            validateVertex(G, v);
+        }
+        for(int v : targets) {
+            validateVertex(G, v);
+        }
+        this.sources = sources.clone();
+        this.targets = targets.clone();
+        // every index i * m + j is then below the size, it cannot overflow either
+        int size;
+        try {
+            size = Math.multiplyExact(sources.length, targets.length);
+        }
+        catch (ArithmeticException e) {
+            throw new IllegalArgumentException(sources.length + " sources by " + targets.length
+                    + " targets exceed the limit of " + Integer.MAX_VALUE + " distances", e);
+        }
+        distances = new double[size];
+        if (sources.length == 0) return;
+
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(pool.getParallelism(), sources.length);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for(int k = 0; k < workers; k++) {
+            tasks.add(() -> {
+                DijkstraQuery query = new DijkstraQuery(G);
+                int m = this.targets.length;
+                for(int i = next.getAndIncrement(); i < this.sources.length; i = next.getAndIncrement()) {
+                    query.query(this.sources[i], this.targets);
+                    for(int j = 0; j < m; j++) {
+                        distances[i * m + j] = query.distTo(this.targets[j]);
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            for(Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while computing distances", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void validateVertex(CSREdgeWeightedDigraph G, int v) {
+        int V = G.V();
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Returns the number of sources.
+     *
+     * @return the number of rows
+     */
+    public int rows() {
+        return sources.length;
+    }
+
+    /**
+     * Returns the number of targets.
+     *
+     * @return the number of columns
+     */
+    public int columns() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the distance from the {@code i}th source to the {@code j}th target.
+     *
+     * @param i the row
+     * @param j the column
+     * @return the distance from {@code sources[i]} to {@code targets[j]},
+     * {@code Double.POSITIVE_INFINITY} if there is no path
+     */
+    public double distance(int i, int j) {
+        if (i < 0 || i >= sources.length) throw new IndexOutOfBoundsException("row " + i + " is not between 0 and " + (sources.length-1));
+        if (j < 0 || j >= targets.length) throw new IndexOutOfBoundsException("column " + j + " is not between 0 and " + (targets.length-1));
+        return distances[i * targets.length + j];
+    }
+
+    /**
+     * Returns a copy of the distances, row by row.
+     *
+     * @return the distances, the {@code i}th source to the {@code j}th target
+     * at index {@code i * columns() + j}
+     */
+    public double[] toFlatArray() {
+        return distances.clone();
+    }
+
+    /**
+     * Returns a copy of the distances as a matrix.
+     *
+     * @return the distances, the {@code i}th source to the {@code j}th target at [i][j]
+     */
+    public double[][] toArray() {
+        double[][] a = new double[sources.length][];
+        for(int i = 0; i < sources.length; i++) {
+            a[i] = new double[targets.length];
+            System.arraycopy(distances, i * targets.length, a[i], 0, targets.length);
+        }
+        return a;
+    }
+
+    // unit test code
+    // DistanceMatrix largeEWD.txt N M
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int n = Integer.parseInt(args[1]);
+        int m = Integer.parseInt(args[2]);
+        EdgeWeightedDigraph digraph = new EdgeWeightedDigraph(in);
+        CSREdgeWeightedDigraph G = new CSREdgeWeightedDigraph(digraph);
+        int[] sources = new int[n];
+        int[] targets = new int[m];
+        for(int i = 0; i < n; i++) {
+            sources[i] = StdRandom.uniform(G.V());
+        }
+        for(int j = 0; j < m; j++) {
+            targets[j] = StdRandom.uniform(G.V());
+        }
+
+        Stopwatch timer = new Stopwatch();
+        DistanceMatrix matrix = new DistanceMatrix(G, sources, targets);
+        StdOut.printf("DistanceMatrix %dx%d: %.3f s\n", n, m, timer.elapsedTime());
+
+        timer = new Stopwatch();
+        int errors = 0;
+        for(int i = 0; i < n; i++) {
+            DijkstraSP sp = new DijkstraSP(digraph, sources[i]);
+            for(int j = 0; j < m; j++) {
+                if (sp.distTo(targets[j]) != matrix.distance(i, j)) errors++;
+            }
+        }
+        StdOut.printf("%d DijkstraSP:     %.3f s, %d differences\n", n, timer.elapsedTime(), errors);
+    }
+}
@@ -0,0 +1,283 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code DoubleIndexMinPQ} class represents an indexed priority queue
+ * of primitive {@code double} keys.
+ * It has the same operations as {@link IndexMinPQ} but compares keys with
+ * {@code <} instead of {@code compareTo}, so no key is ever boxed.
+ * {@link #clear()} empties the queue in time proportional to its size,
+ * so one queue can be reused by many searches.
+ * <p>
+ * The heap is <em>d</em>-ary, binary by default. The keys are stored in
+ * heap order next to the indices, so the <em>d</em> children of a node
+ * have their keys side by side: with <em>d</em> = 4 or 8 they span one or
+ * two cache lines and {@code sink} loads them together, while the heap is
+ * only log<sub>d</sub> <em>n</em> deep for {@code swim}. Sift operations
+ * move a hole instead of exchanging entries.
+ */
+public class DoubleIndexMinPQ {
+    private final int d; // arity of the heap
+    private int[] pq; // 1 based priority queue
+    private int[] qp; // qp[pq[i]] = pq[qp[i]] = i, -1 if the index is not in the queue
+    private double[] keys; // keys[k] = key of index pq[k], in heap order
+    private int n; // number of items in pq
+    private int maxN; // maximum number of item in qp
+
+    /**
+     * Initializes a binary heap priority queue with indices between 0 and {@code maxN}-1.
+     *
+     * @param maxN maximum number of items in the priority queue.
+     */
+    public DoubleIndexMinPQ(int maxN) {
+        this(maxN, 2);
+    }
+
+    /**
+     * Initializes a {@code d}-ary heap priority queue with indices between 0 and {@code maxN}-1.
+     *
+     * @param maxN maximum number of items in the priority queue.
+     * @param d the number of children of a node
+     * @throws IllegalArgumentException if {@code maxN < 0} or {@code d < 2}
+     */
+    public DoubleIndexMinPQ(int maxN, int d) {
+        if (maxN < 0) throw new IllegalArgumentException();
+        if (d < 2) throw new IllegalArgumentException("arity must be at least 2");
+
+        this.d = d;
+        this.maxN = maxN;
+        pq = new int[maxN + 1];
+        qp = new int[maxN + 1];
+        for(int i = 0; i <= maxN; i++) {
+            qp[i] = -1;
+        }
+        keys = new double[maxN + 1];
+    }
+
+    //k is index of pq. NOT index associated with keys.
+    //the children of k are d*(k-1)+2 to d*k+1.
+    private void swim(int k) {
+        int i = pq[k];
+        double key = keys[k];
+        while (k > 1) {
+            int parent = (k - 2) / d + 1;
+            if (keys[parent] <= key) break;
+            pq[k] = pq[parent];
+            keys[k] = keys[parent];
+            qp[pq[k]] = k;
+            k = parent;
+        }
+        pq[k] = i;
+        keys[k] = key;
+        qp[i] = k;
+    }
+
+    //k is index of pq. NOT index associated with keys.
+    private void sink(int k) {
+        int i = pq[k];
+        double key = keys[k];
+        while (true) {
+            int first = d * (k - 1) + 2;
+            if (first > n) break;
+            int last = Math.min(first + d - 1, n);
+            int j = first;
+            for(int c = first + 1; c <= last; c++) {
+                if (keys[c] < keys[j]) j = c;
+            }
+            if (key <= keys[j]) break;
+            pq[k] = pq[j];
+            keys[k] = keys[j];
+            qp[pq[k]] = k;
+            k = j;
+        }
+        pq[k] = i;
+        keys[k] = key;
+        qp[i] = k;
+    }
+
+    // i index associated with keys
+    private void validateIndex(int i) {
+        if (i < 0 || i >= maxN) throw new IndexOutOfBoundsException("index " + i + " is not between 0 and " + maxN);
+    }
+
+    /**
+     * Is index {@code i} in the priority queue?
+     * @param i the index
+     * @return {@code true} if index {@code i} in the priority queue,
+     * or {@code false} otherwise
+     */
+    public boolean contains(int i) {
+        validateIndex(i);
+        return qp[i] != -1;
+    }
+
+    /**
+     * Is the priority empty?
+     *
+     * @return {@code true} if the priority is empty,
+     * or {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Returns the size of the priority queue.
+     * @return the size of the priority queue.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Inserts {@code key} associated with {@code i} into the priority queue.
+     * @param i the index
+     * @param key the key.
+     */
+    public void insert(int i, double key) {
+        validateIndex(i);
+        if (contains(i)) throw new IllegalArgumentException("index " + i + " is already in the priority queue");
+
+        n++;
+        keys[n] = key;
+        pq[n] = i;
+        qp[i] = n;
+        swim(n);
+    }
+
+    /**
+     * Returns the index of the minimum key.
+     * @return the index of the minimum key
+     */
+    public int minIndex() {
+        if (isEmpty()) throw new NoSuchElementException("priority queue underflow");
+        return pq[1];
+    }
+
+    /**
+     * Returns the minimum key.
+     * @return the minimum key
+     */
+    public double minKey() {
+        if (isEmpty()) throw new NoSuchElementException("priority queue underflow");
+        return keys[1];
+    }
+
+    /**
+     * Returns the key associated with index {@code i}.
+     * @param i the index
+     * @return the key associated with {@code i}
+     */
+    public double keyOf(int i) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index " + i + " is not in the priority queue");
+        return keys[qp[i]];
+    }
+
+    /**
+     * Removes the minimum key from the priority key
+     * and returns the index associated with the minimum key.
+     *
+     * @return the index associated with the minimum key.
+     */
+    public int delMin() {
+        if (isEmpty()) throw new NoSuchElementException("priority queue underflow");
+
+        int min = pq[1];
+        qp[min] = -1;
+        pq[1] = pq[n];
+        keys[1] = keys[n];
+        pq[n--] = -1;
+        if (n > 0) sink(1);
+        return min;
+    }
+
+    /**
+     * Removes the key associated with index {@code i} from the priority queue.
+     *
+     * @param i the index.
+     */
+    public void delete(int i) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index " + i + " is not in the priority queue");
+        int k = qp[i];
+        qp[i] = -1;
+        if (k != n) {
+            int last = pq[n];
+            pq[k] = last;
+            keys[k] = keys[n];
+            pq[n--] = -1;
+            swim(k);
+            sink(qp[last]);
+        }
+        else {
+            pq[n--] = -1;
+        }
+    }
+
+    /**
+     * Changes the key associated with index {@code i} to the specified {@code key}.
+     * @param i the index
+     * @param key the new key
+     */
+    public void changeKey(int i, double key) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index " + i + " is not in the priority queue");
+
+        keys[qp[i]] = key;
+        swim(qp[i]);
+        sink(qp[i]);
+    }
+
+    /**
+     * Decreases the key associated with index {@code i} to the specified value {@code key}.
+     * @param i the index
+     * @param key the new value. The new value must less than the old value
+     */
+    public void decreaseKey(int i, double key) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index " + i + " is not in the priority queue");
+        if (keys[qp[i]] <= key)
+            throw new IllegalArgumentException("Calling decreaseKey() with the given key is not strictly decrease the key");
+
+        keys[qp[i]] = key;
+        swim(qp[i]);
+    }
+
+    /**
+     * Removes all the indices from the priority queue.
+     * Takes time proportional to the number of indices in the queue.
+     */
+    public void clear() {
+        for(int k = 1; k <= n; k++) {
+            qp[pq[k]] = -1;
+            pq[k] = -1;
+        }
+        n = 0;
+    }
+
+    // unit test code;
+    // DoubleIndexMinPQ [d]
+    public static void main(String[] args) {
+        int d = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        double[] keys = {0.5, 0.25, 0.75, 0.125, 1.0, 0.0625};
+        DoubleIndexMinPQ pq = new DoubleIndexMinPQ(keys.length, d);
+
+        for(int i = 0; i < keys.length; i++) {
+            pq.insert(i, keys[i]);
+        }
+
+        StdOut.println("4: 1.0->0.01");
+        pq.decreaseKey(4, 0.01);
+
+        StdOut.println("delete minimum items one by one");
+        while (!pq.isEmpty()) {
+            int index = pq.minIndex();
+            StdOut.printf("%d %.4f\n", index, pq.keyOf(index));
+            pq.delMin();
+        }
+    }
+}
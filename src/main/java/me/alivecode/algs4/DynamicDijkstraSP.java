@@ -0,0 +1,360 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code DynamicDijkstraSP} class maintains the shortest paths from a source
+ * vertex in a {@link DynamicEdgeWeightedDigraph} with nonnegative weights while
+ * its edges change, in the style of Ramalingam and Reps.
+ * <p>
+ * An edge that makes a vertex closer (an insertion or a decrease) starts a
+ * Dijkstra search from that vertex which only goes as far as distances improve.
+ * An edge of the shortest-path tree that is removed or made heavier only affects
+ * the subtree below it: those vertices get the best distance offered by their
+ * edges from outside the subtree, then a Dijkstra search from them settles the
+ * subtree again. Any other change leaves the shortest paths as they are.
+ * <p>
+ * The digraph itself accepts negative weights; once it gets one, this object
+ * stops following it and its queries throw. The listener registered on the
+ * digraph is unregistered by {@link #detach()}.
+ * <p>
+ * With assertions enabled, every update is checked against the optimality
+ * conditions and against a new {@link DijkstraSP} of the digraph.
+ */
+public class DynamicDijkstraSP {
+    private final DynamicEdgeWeightedDigraph G;
+    private final int s;
+    private final double[] distTo;       // distTo[v] = distance of shortest s->v path
+    private final DirectedEdge[] edgeTo; // edgeTo[v] = last edge on shortest s->v path
+    private final DoubleIndexMinPQ pq;
+    private final boolean[] affected;    // affected[v] = is v in the subtree being repaired?
+    private final int[] subtree;         // the vertices of the subtree being repaired
+    private int updated;                 // vertices settled by the last update
+    private DirectedEdge negative;       // the first negative edge added, null if none
+    private final DynamicEdgeWeightedDigraph.Listener listener;
+
+    /**
+     * Determines the shortest paths from vertex {@code s} in {@code G}
+     * and keeps them up to date while {@code G} changes.
+     *
+     * @param G the dynamic edge-weighted digraph
+     * @param s the source vertex
+     * @throws IllegalArgumentException if any edge has negative weight
+     */
+    public DynamicDijkstraSP(DynamicEdgeWeightedDigraph G, int s) {
+        for(DirectedEdge e : G.edges()) {
+            if (e.weight() < 0)
+                throw new IllegalArgumentException(e + " has negative weight");
+        }
+        this.G = G;
+        this.s = s;
+        distTo = new double[G.V()];
+        edgeTo = new DirectedEdge[G.V()];
+        pq = new DoubleIndexMinPQ(G.V());
+        affected = new boolean[G.V()];
+        subtree = new int[G.V()];
+        validateVertex(s);
+
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+        }
+        distTo[s] = 0.0;
+        pq.insert(s, 0.0);
+        settle();
+
+        listener = new DynamicEdgeWeightedDigraph.Listener() {
+            public void edgeAdded(DirectedEdge e) {
+                if (negative != null) return;
+                if (e.weight() < 0) { negative = e; return; }
+                updated = 0;
+                decreased(e);
+                assert check();
+            }
+
+            public void edgeRemoved(DirectedEdge e) {
+                if (negative != null) return;
+                updated = 0;
+                if (edgeTo[e.to()] == e) repair(e.to());
+                assert check();
+            }
+
+            public void weightChanged(DirectedEdge old, DirectedEdge e) {
+                if (negative != null) return;
+                if (e.weight() < 0) { negative = e; return; }
+                updated = 0;
+                if (edgeTo[e.to()] == old) {
+                    // the tree edge keeps its place, a heavier one may lose it
+                    edgeTo[e.to()] = e;
+                    if (e.weight() > old.weight()) repair(e.to());
+                    else decreased(e);
+                }
+                else if (e.weight() < old.weight()) {
+                    decreased(e);
+                }
+                assert check();
+            }
+        };
+        G.addListener(listener);
+
+        assert check();
+    }
+
+    /**
+     * Stops following the changes of the digraph, so that this object can be
+     * garbage collected while the digraph is still in use. The shortest paths
+     * stay those of the digraph before the call.
+     */
+    public void detach() {
+        G.removeListener(listener);
+    }
+
+    // the digraph got a negative edge, which a listener must not throw on
+    // since the digraph is already changed and the other listeners still wait
+    private void validateState() {
+        if (negative != null)
+            throw new IllegalStateException(negative + " has negative weight, the shortest paths are no longer maintained");
+    }
+
+    // runs Dijkstra from the vertices in the queue, as far as distances improve
+    private void settle() {
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            updated++;
+            for(DirectedEdge e : G.adj(v)) {
+                relax(e);
+            }
+        }
+    }
+
+    private void relax(DirectedEdge e) {
+        int v = e.from();
+        int w = e.to();
+        double dist = distTo[v] + e.weight();
+        if (dist < distTo[w]) {
+            distTo[w] = dist;
+            edgeTo[w] = e;
+            if (pq.contains(w)) pq.decreaseKey(w, dist);
+            else pq.insert(w, dist);
+        }
+    }
+
+    // e may give a shorter path to its head
+    private void decreased(DirectedEdge e) {
+        int w = e.to();
+        double dist = distTo[e.from()] + e.weight();
+        if (dist < distTo[w] || edgeTo[w] == e) {
+            distTo[w] = dist;
+            edgeTo[w] = e;
+            pq.insert(w, dist);
+            settle();
+        }
+    }
+
+    // the tree edge into v was removed or made heavier
+    private void repair(int v) {
+        // the subtree of v, following the tree edges
+        int n = 0;
+        subtree[n++] = v;
+        affected[v] = true;
+        for(int k = 0; k < n; k++) {
+            for(DirectedEdge e : G.adj(subtree[k])) {
+                int w = e.to();
+                if (edgeTo[w] == e && !affected[w]) {
+                    affected[w] = true;
+                    subtree[n++] = w;
+                }
+            }
+        }
+        for(int k = 0; k < n; k++) {
+            distTo[subtree[k]] = Double.POSITIVE_INFINITY;
+            edgeTo[subtree[k]] = null;
+        }
+
+        // the best edge from outside the subtree, the inside is settled again below
+        for(int k = 0; k < n; k++) {
+            int w = subtree[k];
+            for(DirectedEdge e : G.in(w)) {
+                if (affected[e.from()]) continue;
+                double dist = distTo[e.from()] + e.weight();
+                if (dist < distTo[w]) {
+                    distTo[w] = dist;
+                    edgeTo[w] = e;
+                }
+            }
+        }
+        for(int k = 0; k < n; k++) {
+            int w = subtree[k];
+            affected[w] = false;
+            if (distTo[w] < Double.POSITIVE_INFINITY) pq.insert(w, distTo[w]);
+        }
+        settle();
+    }
+
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Is there any path from source vertex to vertex {@code v}?
+     *
+     * @param v the target vertex
+     * @return {@code true} if there is a path from source vertex to v,
+     * {@code false} otherwise
+     * @throws IllegalStateException if an edge of negative weight was added
+     */
+    public boolean hasPathTo(int v) {
+        validateState();
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from source vertex to {@code v}.
+     * @param v the target vertex
+     * @return the distance from source vertex to {@code v}
+     * @throws IllegalStateException if an edge of negative weight was added
+     */
+    public double distTo(int v) {
+        validateState();
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns the directed edges from the source vertex to {@code v}
+     * if there is a path between the source vertex and {@code v}.
+     * @param v the target vertex
+     * @return the directed edges  from the source vertex to {@code v}
+     * if there is a path between them, {@code null} otherwise
+     * @throws IllegalStateException if an edge of negative weight was added
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateState();
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<DirectedEdge> stack = new Stack<>();
+        for(DirectedEdge e = edgeTo[v]; e != null; e = edgeTo[e.from()]) {
+            stack.push(e);
+        }
+        return stack;
+    }
+
+    /**
+     * Returns the number of vertices settled by the last update,
+     * or by the first computation before any update.
+     *
+     * @return the number of vertices settled by the last update
+     * @throws IllegalStateException if an edge of negative weight was added
+     */
+    public int updatedCount() {
+        validateState();
+        return updated;
+    }
+
+    // check optimality conditions, see DijkstraSP,
+    // then compare with the distances computed from scratch
+    private boolean check() {
+        if (edgeTo[s] != null || distTo[s] != 0.0) {
+            System.err.println("edgeTo[s] and distTo[s] are inconsistent");
+            return false;
+        }
+        for(int v = 0; v < G.V(); v++) {
+            if (v == s) continue;
+            if ((edgeTo[v] == null) != (distTo[v] == Double.POSITIVE_INFINITY)) {
+                System.err.printf("edgeTo[%d] and distTo[%d] are inconsistent\n", v, v);
+                return false;
+            }
+        }
+
+        // check that all edges e = v->w satisfy distTo[w] <= distTo[v] + e.weight()
+        for(DirectedEdge e : G.edges()) {
+            if (distTo[e.from()] + e.weight() < distTo[e.to()]) {
+                System.err.println("edge " + e + " not relaxed");
+                return false;
+            }
+        }
+
+        // check that all edges e = v->w on SPT satisfy distTo[w] == distTo[v] + e.weight()
+        // and are edges of the digraph
+        for(int w = 0; w < G.V(); w++) {
+            DirectedEdge e = edgeTo[w];
+            if (e == null) continue;
+            if (e.to() != w) return false;
+            if (distTo[e.from()] + e.weight() != distTo[w]) {
+                System.err.println("edge " + e + " on shortest path not tight");
+                return false;
+            }
+            boolean found = false;
+            for(DirectedEdge f : G.in(w)) {
+                if (f == e) found = true;
+            }
+            if (!found) {
+                System.err.println("edge " + e + " on shortest path is not in the digraph");
+                return false;
+            }
+        }
+
+        DijkstraSP sp = new DijkstraSP(G.toEdgeWeightedDigraph(), s);
+        for(int v = 0; v < G.V(); v++) {
+            if (sp.distTo(v) != distTo[v] && Math.abs(sp.distTo(v) - distTo[v]) > 1e-9 * Math.max(1.0, distTo[v])) {
+                System.err.printf("distTo[%d] = %f, DijkstraSP gives %f\n", v, distTo[v], sp.distTo(v));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // unit test code
+    // DynamicDijkstraSP mediumEWD.txt s updates
+    // changes random weights and compares the repair with a new DijkstraSP
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int s = Integer.parseInt(args[1]);
+        int updates = Integer.parseInt(args[2]);
+        DynamicEdgeWeightedDigraph G = new DynamicEdgeWeightedDigraph(in);
+        DynamicDijkstraSP sp = new DynamicDijkstraSP(G, s);
+
+        DirectedEdge[] edges = new DirectedEdge[G.E()];
+        int n = 0;
+        for(DirectedEdge e : G.edges()) {
+            edges[n++] = e;
+        }
+
+        Stopwatch timer = new Stopwatch();
+        long settled = 0;
+        for(int k = 0; k < updates; k++) {
+            int i = StdRandom.uniform(n);
+            double factor = 0.5 + StdRandom.uniform(1.5);
+            edges[i] = G.changeWeight(edges[i], edges[i].weight() * factor);
+            settled += sp.updatedCount();
+        }
+        double elapsed = timer.elapsedTime();
+        StdOut.printf("%d updates in %.3f s, %.1f vertices settled per update\n",
+                updates, elapsed, (double) settled / updates);
+
+        timer = new Stopwatch();
+        DijkstraSP full = new DijkstraSP(G.toEdgeWeightedDigraph(), s);
+        StdOut.printf("one DijkstraSP: %.3f s\n", timer.elapsedTime());
+        int errors = 0;
+        for(int v = 0; v < G.V(); v++) {
+            if (Math.abs(full.distTo(v) - sp.distTo(v)) > 1e-9 && full.distTo(v) != sp.distTo(v)) errors++;
+        }
+        StdOut.println(errors + " differences");
+
+        // a negative weight is reported by the queries, not by the digraph
+        G.changeWeight(edges[0], -1.0);
+        try {
+            sp.distTo(s);
+            StdOut.println("negative weight not reported");
+        }
+        catch (IllegalStateException e) {
+            StdOut.println(e.getMessage());
+        }
+        sp.detach();
+    }
+}
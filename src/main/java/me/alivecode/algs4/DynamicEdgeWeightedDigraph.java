@@ -0,0 +1,360 @@
+package me.alivecode.algs4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code DynamicEdgeWeightedDigraph} class represents an edge-weighted digraph
+ * of vertices named 0 through <em>V</em> - 1 whose edges can be added, removed
+ * and reweighted. Every change is reported to the registered {@link Listener}s
+ * once it is made, so structures such as {@link DynamicDijkstraSP} can repair
+ * their results instead of recomputing them.
+ * <p>
+ * Edges are identified by reference: a {@link DirectedEdge} is immutable,
+ * reweighting an edge replaces it by a new one at the same place.
+ * Both the edges leaving and the edges entering each vertex are kept.
+ */
+public class DynamicEdgeWeightedDigraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    /**
+     * The {@code Listener} interface receives the changes of a
+     * {@link DynamicEdgeWeightedDigraph}, after they are made.
+     */
+    public interface Listener {
+
+        /**
+         * Edge {@code e} was added.
+         *
+         * @param e the new edge
+         */
+        void edgeAdded(DirectedEdge e);
+
+        /**
+         * Edge {@code e} was removed.
+         *
+         * @param e the removed edge
+         */
+        void edgeRemoved(DirectedEdge e);
+
+        /**
+         * Edge {@code old} was replaced by {@code updated}, with the same endpoints.
+         *
+         * @param old the replaced edge
+         * @param updated the edge with the new weight
+         */
+        void weightChanged(DirectedEdge old, DirectedEdge updated);
+    }
+
+    private final int V;
+    private int E;
+    private final EdgeList[] out; // out[v] = edges leaving v
+    private final EdgeList[] in;  // in[v] = edges entering v
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Initializes an empty dynamic edge-weighted digraph with {@code V} vertices.
+     *
+     * @param V number of vertices
+     */
+    public DynamicEdgeWeightedDigraph(int V) {
+        if (V < 0) throw new IllegalArgumentException("argument to DynamicEdgeWeightedDigraph must be nonnegative");
+        this.V = V;
+        out = new EdgeList[V];
+        in = new EdgeList[V];
+        for(int v = 0; v < V; v++) {
+            out[v] = new EdgeList();
+            in[v] = new EdgeList();
+        }
+    }
+
+    /**
+     * Initializes a dynamic edge-weighted digraph with the edges of {@code G}.
+     * The edges are shared, so they are the same objects as in {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     */
+    public DynamicEdgeWeightedDigraph(EdgeWeightedDigraph G) {
+        this(G.V());
+        for(int v = 0; v < G.V(); v++) {
+            for(DirectedEdge e : G.adj(v)) {
+                insert(e);
+            }
+        }
+    }
+
+    /**
+     * Initializes a dynamic edge-weighted digraph from the input stream {@code in},
+     * in the format of {@link EdgeWeightedDigraph#EdgeWeightedDigraph(In)}.
+     *
+     * @param in the input stream
+     */
+    public DynamicEdgeWeightedDigraph(In in) {
+        this(new EdgeWeightedDigraph(in));
+    }
+
+    /**
+     * Registers {@code listener} for the next changes.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters {@code listener}.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void insert(DirectedEdge e) {
+        validateVertex(e.from());
+        validateVertex(e.to());
+        out[e.from()].add(e);
+        in[e.to()].add(e);
+        E++;
+    }
+
+    /**
+     * Adds edge {@code e}.
+     *
+     * @param e the edge
+     */
+    public void addEdge(DirectedEdge e) {
+        insert(e);
+        for(Listener listener : listeners) {
+            listener.edgeAdded(e);
+        }
+    }
+
+    /**
+     * Removes edge {@code e}.
+     *
+     * @param e the edge
+     * @throws NoSuchElementException if {@code e} is not an edge of this digraph
+     */
+    public void removeEdge(DirectedEdge e) {
+        validateVertex(e.from());
+        validateVertex(e.to());
+        if (!out[e.from()].remove(e)) throw new NoSuchElementException(e + " is not in the digraph");
+        in[e.to()].remove(e);
+        E--;
+        for(Listener listener : listeners) {
+            listener.edgeRemoved(e);
+        }
+    }
+
+    /**
+     * Replaces edge {@code e} by an edge with the same endpoints and weight {@code weight}.
+     *
+     * @param e the edge
+     * @param weight the new weight
+     * @return the edge that replaces {@code e}
+     * @throws NoSuchElementException if {@code e} is not an edge of this digraph
+     */
+    public DirectedEdge changeWeight(DirectedEdge e, double weight) {
+        validateVertex(e.from());
+        validateVertex(e.to());
+        DirectedEdge updated = new DirectedEdge(e.from(), e.to(), weight);
+        if (!out[e.from()].replace(e, updated)) throw new NoSuchElementException(e + " is not in the digraph");
+        in[e.to()].replace(e, updated);
+        for(Listener listener : listeners) {
+            listener.weightChanged(e, updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Returns the directed edges incident from vertex {@code v}.
+     * The digraph must not change while they are iterated.
+     *
+     * @param v the vertex
+     * @return the directed edges incident from vertex {@code v}
+     */
+    public Iterable<DirectedEdge> adj(int v) {
+        validateVertex(v);
+        return out[v];
+    }
+
+    /**
+     * Returns the directed edges incident to vertex {@code v}.
+     * The digraph must not change while they are iterated.
+     *
+     * @param v the vertex
+     * @return the directed edges incident to vertex {@code v}
+     */
+    public Iterable<DirectedEdge> in(int v) {
+        validateVertex(v);
+        return in[v];
+    }
+
+    /**
+     * Returns the number of vertices in this digraph.
+     *
+     * @return the number of vertices in this digraph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this digraph.
+     *
+     * @return the number of edges in this digraph
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the number of edges incident to vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the number of edges incident to vertex {@code v}
+     */
+    public int indegree(int v) {
+        validateVertex(v);
+        return in[v].size;
+    }
+
+    /**
+     * Returns the number of edges incident from vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the number of edges incident from vertex {@code v}
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return out[v].size;
+    }
+
+    /**
+     * Returns all the edges in this digraph.
+     *
+     * @return all the edges in this digraph
+     */
+    public Iterable<DirectedEdge> edges() {
+        Bag<DirectedEdge> list = new Bag<>();
+        for(int v = 0; v < V; v++) {
+            for(DirectedEdge e : out[v]) {
+                list.put(e);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns an {@link EdgeWeightedDigraph} with the current edges.
+     *
+     * @return a snapshot of this digraph
+     */
+    public EdgeWeightedDigraph toEdgeWeightedDigraph() {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(V);
+        for(int v = 0; v < V; v++) {
+            for(DirectedEdge e : out[v]) {
+                G.addEdge(e);
+            }
+        }
+        return G;
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Returns the string represents this digraph.
+     *
+     * @return the string represents this digraph
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + E + NEWLINE);
+        for(int v = 0; v < V; v++) {
+            s.append(v + ":");
+            for(DirectedEdge e : out[v]) {
+                s.append("  " + e);
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    // the edges of one vertex, removed by swapping with the last one
+    private static class EdgeList implements Iterable<DirectedEdge> {
+        private DirectedEdge[] items = new DirectedEdge[2];
+        private int size;
+
+        void add(DirectedEdge e) {
+            if (size == items.length) items = Arrays.copyOf(items, 2 * size);
+            items[size++] = e;
+        }
+
+        private int indexOf(DirectedEdge e) {
+            for(int i = 0; i < size; i++) {
+                if (items[i] == e) return i;
+            }
+            return -1;
+        }
+
+        boolean remove(DirectedEdge e) {
+            int i = indexOf(e);
+            if (i < 0) return false;
+            items[i] = items[--size];
+            items[size] = null;
+            return true;
+        }
+
+        boolean replace(DirectedEdge e, DirectedEdge updated) {
+            int i = indexOf(e);
+            if (i < 0) return false;
+            items[i] = updated;
+            return true;
+        }
+
+        public Iterator<DirectedEdge> iterator() {
+            return new Iterator<DirectedEdge>() {
+                private int i = 0;
+
+                public boolean hasNext() {
+                    return i < size;
+                }
+
+                public DirectedEdge next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return items[i++];
+                }
+            };
+        }
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        DynamicEdgeWeightedDigraph G = new DynamicEdgeWeightedDigraph(in);
+        G.addListener(new Listener() {
+            public void edgeAdded(DirectedEdge e) { StdOut.println("added   " + e); }
+            public void edgeRemoved(DirectedEdge e) { StdOut.println("removed " + e); }
+            public void weightChanged(DirectedEdge old, DirectedEdge updated) {
+                StdOut.println("changed " + old + " to " + updated);
+            }
+        });
+        DirectedEdge e = G.adj(0).iterator().next();
+        DirectedEdge f = G.changeWeight(e, 2 * e.weight());
+        G.removeEdge(f);
+        G.addEdge(e);
+        StdOut.println(G);
+    }
+}
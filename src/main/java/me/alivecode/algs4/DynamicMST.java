@@ -0,0 +1,596 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code DynamicMST} class maintains a minimum spanning forest of an
+ * edge-weighted graph while edges are inserted and deleted.
+ * <p>
+ * The forest is kept in a link-cut tree (Sleator and Tarjan) where every
+ * edge of the forest is a node between its two endpoints, so that the
+ * heaviest edge of a path is found in O(log <em>V</em>) amortized time.
+ * An inserted edge joining two trees links them. An inserted edge closing a
+ * cycle replaces the heaviest edge of the cycle if it is lighter, by the cycle
+ * property, the loser staying in the graph as a non-tree edge.
+ * Deleting a non-tree edge changes nothing in the forest. Deleting a tree
+ * edge cuts its tree in two, and the lightest non-tree edge joining the two
+ * parts, if any, is linked in its place. The parts are searched from both
+ * ends of the deleted edge in turns, along the tree edges of each vertex,
+ * until the smaller one is exhausted; only the non-tree edges of its vertices
+ * are then scanned.
+ * <p>
+ * Insertions take O(log <em>V</em>) amortized time, deletions of non-tree
+ * edges constant time. The deletion of a tree edge takes time proportional to
+ * the size of the smaller part and to the number of its non-tree edges, at
+ * most <em>V</em> + <em>E</em>; the polylogarithmic bound for that case needs
+ * the levels of Holm, de Lichtenberg and Thorup.
+ * With assertions enabled, every update is checked against a new
+ * {@link KruskalMST} of the current edges.
+ */
+public class DynamicMST {
+    private final int V;
+    // the link-cut tree: nodes 0..V-1 are the vertices, node V+k the edge k.
+    // left, right and parent make the splay trees of the preferred paths,
+    // a root of a splay tree keeping in parent the node its path hangs from.
+    private int[] left, right, parent;
+    private boolean[] flip;     // flip[x] = are the children of x to be swapped?
+    private double[] value;     // value[x] = weight of the edge node x, -infinity for a vertex
+    private int[] max;          // max[x] = node of largest value in the splay subtree of x
+    private int[] path = new int[16]; // the nodes above the one being splayed
+
+    private Edge[] edges;       // edges[k] = edge k, or null
+    private boolean[] inTree;   // inTree[k] = is edge k in the forest?
+    // edge k has two ends, 2k at vertex end[2k] and 2k+1 at vertex end[2k+1], each
+    // linked by next and prev in the list of the tree edges or of the non-tree edges of its vertex
+    private int[] end, next, prev;
+    private final int[] treeHead;    // treeHead[v] = first end of a tree edge at v, or -1
+    private final int[] nonTreeHead; // nonTreeHead[v] = first end of a non-tree edge at v, or -1
+    private final int[] mark;        // mark[v] = part of the last search to reach v
+    private int stamp;
+    private final int[] partA, partB; // the vertices reached from both ends of a deleted edge
+    private final HashMap<Edge, Integer> index = new HashMap<Edge, Integer>(); // edge to k, by identity
+    private int[] free;         // free[0..freeCount) = unused edge numbers below size
+    private int freeCount;
+    private int size;           // edge numbers used so far
+    private int treeEdges;      // number of edges in the forest
+    private double weight;      // weight of the forest
+
+    /**
+     * Initializes an empty graph of {@code V} vertices.
+     *
+     * @param V the number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public DynamicMST(int V) {
+        if (V < 0) throw new IllegalArgumentException("number of vertices must be nonnegative");
+        this.V = V;
+        int capacity = 16;
+        left = new int[V + capacity];
+        right = new int[V + capacity];
+        parent = new int[V + capacity];
+        flip = new boolean[V + capacity];
+        value = new double[V + capacity];
+        max = new int[V + capacity];
+        edges = new Edge[capacity];
+        inTree = new boolean[capacity];
+        free = new int[capacity];
+        end = new int[2 * capacity];
+        next = new int[2 * capacity];
+        prev = new int[2 * capacity];
+        treeHead = new int[V];
+        nonTreeHead = new int[V];
+        mark = new int[V];
+        partA = new int[V];
+        partB = new int[V];
+        for(int x = 0; x < V; x++) {
+            reset(x, Double.NEGATIVE_INFINITY);
+            treeHead[x] = nonTreeHead[x] = -1;
+        }
+    }
+
+    /**
+     * Initializes the graph with the vertices and edges of {@code G}.
+     *
+     * @param G the edge-weighted graph
+     */
+    public DynamicMST(EdgeWeightedGraph G) {
+        this(G.V());
+        for(Edge e : G.edges()) {
+            insertEdge(e);
+        }
+    }
+
+    private void reset(int x, double w) {
+        left[x] = right[x] = parent[x] = -1;
+        flip[x] = false;
+        value[x] = w;
+        max[x] = x;
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Inserts the edge {@code e} and updates the minimum spanning forest.
+     *
+     * @param e the edge
+     * @throws IllegalArgumentException if {@code e} is already in the graph,
+     * if its weight is NaN or if an endpoint is not between 0 and <em>V</em>-1
+     */
+    public void insertEdge(Edge e) {
+        int v = e.either();
+        int w = e.other(v);
+        validateVertex(v);
+        validateVertex(w);
+        if (Double.isNaN(e.weight())) throw new IllegalArgumentException("weight is NaN");
+        if (index.containsKey(e)) throw new IllegalArgumentException(e + " is already in the graph");
+
+        int k = allocate(e);
+        if (findRoot(v) != findRoot(w)) {
+            link(k);
+        }
+        else {
+            // the heaviest edge on the cycle e closes
+            makeRoot(v);
+            access(w);
+            int x = max[w];
+            if (x >= V && value[x] > e.weight()) {
+                cut(x - V);
+                link(k);
+            }
+        }
+        assert check();
+    }
+
+    /**
+     * Deletes the edge {@code e} and updates the minimum spanning forest.
+     *
+     * @param e the edge, as given to {@link #insertEdge}
+     * @throws IllegalArgumentException if {@code e} is not in the graph
+     */
+    public void deleteEdge(Edge e) {
+        Integer boxed = index.remove(e);
+        if (boxed == null) throw new IllegalArgumentException(e + " is not in the graph");
+        int k = boxed;
+
+        if (inTree[k]) {
+            cut(k);
+            int v = edges[k].either();
+            unlist(nonTreeHead, 2 * k);
+            unlist(nonTreeHead, 2 * k + 1);
+            int l = replacement(v, edges[k].other(v));
+            if (l != -1) link(l);
+        }
+        else {
+            unlist(nonTreeHead, 2 * k);
+            unlist(nonTreeHead, 2 * k + 1);
+        }
+        edges[k] = null;
+        free[freeCount++] = k;
+        assert check();
+    }
+
+    private int allocate(Edge e) {
+        int k;
+        if (freeCount > 0) {
+            k = free[--freeCount];
+        }
+        else {
+            if (size == edges.length) resize(2 * size);
+            k = size++;
+        }
+        edges[k] = e;
+        inTree[k] = false;
+        index.put(e, k);
+        reset(V + k, e.weight());
+        end[2 * k] = e.either();
+        end[2 * k + 1] = e.other(e.either());
+        list(nonTreeHead, 2 * k);
+        list(nonTreeHead, 2 * k + 1);
+        return k;
+    }
+
+    // adds end i to the list of its vertex
+    private void list(int[] head, int i) {
+        int v = end[i];
+        prev[i] = -1;
+        next[i] = head[v];
+        if (head[v] != -1) prev[head[v]] = i;
+        head[v] = i;
+    }
+
+    // removes end i from the list of its vertex
+    private void unlist(int[] head, int i) {
+        if (prev[i] != -1) next[prev[i]] = next[i];
+        else               head[end[i]] = next[i];
+        if (next[i] != -1) prev[next[i]] = prev[i];
+    }
+
+    // the lightest non-tree edge between the trees of v and w, or -1
+    private int replacement(int v, int w) {
+        int a = stamp += 2;
+        int b = a + 1;
+        int na = 0, nb = 0, pa = 0, pb = 0;
+        partA[na++] = v;
+        mark[v] = a;
+        partB[nb++] = w;
+        mark[w] = b;
+        int[] part;
+        int n, side;
+        while (true) {
+            if (pa == na) { part = partA; n = na; side = a; break; }
+            na = expand(partA[pa++], a, partA, na);
+            if (pb == nb) { part = partB; n = nb; side = b; break; }
+            nb = expand(partB[pb++], b, partB, nb);
+        }
+
+        // the non-tree edges leaving the smaller part go to the other one
+        int best = -1;
+        for(int p = 0; p < n; p++) {
+            for(int i = nonTreeHead[part[p]]; i != -1; i = next[i]) {
+                if (mark[end[i ^ 1]] == side) continue;
+                int k = i >> 1;
+                if (best == -1 || edges[k].weight() < edges[best].weight()) best = k;
+            }
+        }
+        return best;
+    }
+
+    // adds the tree neighbors of x not reached yet to part[0..n), returns the new size
+    private int expand(int x, int side, int[] part, int n) {
+        for(int i = treeHead[x]; i != -1; i = next[i]) {
+            int y = end[i ^ 1];
+            if (mark[y] != side) {
+                mark[y] = side;
+                part[n++] = y;
+            }
+        }
+        return n;
+    }
+
+    private void resize(int capacity) {
+        left = Arrays.copyOf(left, V + capacity);
+        right = Arrays.copyOf(right, V + capacity);
+        parent = Arrays.copyOf(parent, V + capacity);
+        flip = Arrays.copyOf(flip, V + capacity);
+        value = Arrays.copyOf(value, V + capacity);
+        max = Arrays.copyOf(max, V + capacity);
+        edges = Arrays.copyOf(edges, capacity);
+        inTree = Arrays.copyOf(inTree, capacity);
+        free = Arrays.copyOf(free, capacity);
+        end = Arrays.copyOf(end, 2 * capacity);
+        next = Arrays.copyOf(next, 2 * capacity);
+        prev = Arrays.copyOf(prev, 2 * capacity);
+    }
+
+    // edge k between two trees joins the forest
+    private void link(int k) {
+        Edge e = edges[k];
+        int v = e.either();
+        int x = V + k;
+        reset(x, e.weight());
+        makeRoot(v);
+        parent[v] = x;
+        parent[x] = e.other(v);
+        unlist(nonTreeHead, 2 * k);
+        unlist(nonTreeHead, 2 * k + 1);
+        list(treeHead, 2 * k);
+        list(treeHead, 2 * k + 1);
+        inTree[k] = true;
+        treeEdges++;
+        weight += e.weight();
+    }
+
+    // edge k of the forest leaves it
+    private void cut(int k) {
+        Edge e = edges[k];
+        int v = e.either();
+        int x = V + k;
+        cut(v, x);
+        cut(x, e.other(v));
+        unlist(treeHead, 2 * k);
+        unlist(treeHead, 2 * k + 1);
+        list(nonTreeHead, 2 * k);
+        list(nonTreeHead, 2 * k + 1);
+        inTree[k] = false;
+        treeEdges--;
+        weight -= e.weight();
+    }
+
+    // removes the link-cut tree edge between adjacent nodes x and y
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        // x is now the only node before y on the path
+        left[y] = -1;
+        parent[x] = -1;
+        update(y);
+    }
+
+    /* link-cut tree */
+
+    private boolean isRoot(int x) {
+        int p = parent[x];
+        return p == -1 || left[p] != x && right[p] != x;
+    }
+
+    private void update(int x) {
+        int m = x;
+        int l = left[x], r = right[x];
+        if (l != -1 && value[max[l]] > value[m]) m = max[l];
+        if (r != -1 && value[max[r]] > value[m]) m = max[r];
+        max[x] = m;
+    }
+
+    private void push(int x) {
+        if (!flip[x]) return;
+        int l = left[x];
+        left[x] = right[x];
+        right[x] = l;
+        if (left[x] != -1) flip[left[x]] ^= true;
+        if (right[x] != -1) flip[right[x]] ^= true;
+        flip[x] = false;
+    }
+
+    private void rotate(int x) {
+        int y = parent[x];
+        int z = parent[y];
+        if (!isRoot(y)) {
+            if (left[z] == y) left[z] = x;
+            else              right[z] = x;
+        }
+        parent[x] = z;
+        if (left[y] == x) {
+            left[y] = right[x];
+            if (right[x] != -1) parent[right[x]] = y;
+            right[x] = y;
+        }
+        else {
+            right[y] = left[x];
+            if (left[x] != -1) parent[left[x]] = y;
+            left[x] = y;
+        }
+        parent[y] = x;
+        update(y);
+        update(x);
+    }
+
+    private void splay(int x) {
+        // the pending flips, from the root of the splay tree down to x
+        int n = 0;
+        for(int y = x; ; y = parent[y]) {
+            if (n == path.length) path = Arrays.copyOf(path, 2 * n);
+            path[n++] = y;
+            if (isRoot(y)) break;
+        }
+        while (n > 0) {
+            push(path[--n]);
+        }
+
+        while (!isRoot(x)) {
+            int y = parent[x];
+            if (!isRoot(y)) {
+                int z = parent[y];
+                if ((left[y] == x) == (left[z] == y)) rotate(y);
+                else                                  rotate(x);
+            }
+            rotate(x);
+        }
+    }
+
+    // makes the path from the root of its tree to x preferred, x at the root of its splay tree
+    private void access(int x) {
+        int last = -1;
+        for(int y = x; y != -1; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        flip[x] ^= true;
+        push(x);
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        int y = x;
+        while (true) {
+            push(y);
+            if (left[y] == -1) break;
+            y = left[y];
+        }
+        splay(y);
+        return y;
+    }
+
+    /**
+     * Are vertices {@code v} and {@code w} connected?
+     *
+     * @param v one vertex
+     * @param w the other vertex
+     * @return {@code true} if {@code v} and {@code w} are in the same tree of the forest
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public boolean connected(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return findRoot(v) == findRoot(w);
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges
+     */
+    public int E() {
+        return index.size();
+    }
+
+    /**
+     * Returns the weight of the minimum spanning forest. It is updated by
+     * every change, so it may drift by rounding from the sum of the edges.
+     *
+     * @return the weight of the minimum spanning forest
+     */
+    public double weight() {
+        return weight;
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest.
+     *
+     * @return the edges of the minimum spanning forest
+     */
+    public Iterable<Edge> edges() {
+        Queue<Edge> mst = new Queue<Edge>();
+        for(int k = 0; k < size; k++) {
+            if (edges[k] != null && inTree[k]) mst.enqueue(edges[k]);
+        }
+        return mst;
+    }
+
+    /**
+     * Returns the edges of the graph.
+     *
+     * @return the edges of the graph
+     */
+    public Iterable<Edge> graphEdges() {
+        Queue<Edge> all = new Queue<Edge>();
+        for(int k = 0; k < size; k++) {
+            if (edges[k] != null) all.enqueue(edges[k]);
+        }
+        return all;
+    }
+
+    // the forest has the size and weight of a minimum spanning forest from scratch
+    private boolean check() {
+        EdgeWeightedGraph G = new EdgeWeightedGraph(V);
+        for(Edge e : graphEdges()) {
+            G.addEdge(e);
+        }
+        KruskalMST kruskal = new KruskalMST(G);
+        int n = 0;
+        for(Edge e : kruskal.edges()) {
+            n++;
+        }
+        if (n != treeEdges) {
+            System.err.printf("%d edges in the forest, %d in a new KruskalMST\n", treeEdges, n);
+            return false;
+        }
+        UF uf = new UF(V);
+        double sum = 0.0;
+        for(Edge e : edges()) {
+            int v = e.either();
+            int w = e.other(v);
+            if (uf.connected(v, w)) {
+                System.err.println("the forest has a cycle through " + e);
+                return false;
+            }
+            uf.union(v, w);
+            sum += e.weight();
+        }
+        if (Math.abs(sum - kruskal.weight()) > 1E-9 * Math.max(1.0, Math.abs(sum))) {
+            System.err.printf("forest of weight %.12f, a new KruskalMST weighs %.12f\n", sum, kruskal.weight());
+            return false;
+        }
+        return true;
+    }
+
+    // unit test code
+    // DynamicMST tinyEWG.txt
+    // DynamicMST -random V E updates
+    // applies random insertions and deletions, checking the states against a
+    // new KruskalMST, then times the updates against a KruskalMST per update
+    public static void main(String[] args) {
+        EdgeWeightedGraph G;
+        int updates = 1000;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            updates = Integer.parseInt(args[3]);
+            G = new EdgeWeightedGraph(V);
+            for(int i = 0; i < E; i++) {
+                G.addEdge(new Edge(StdRandom.uniform(V), StdRandom.uniform(V), StdRandom.uniform(1.0)));
+            }
+        }
+        else {
+            G = new EdgeWeightedGraph(new In(args[0]));
+        }
+        int V = G.V();
+
+        // the same random updates twice, checked then timed
+        Edge[] changes = new Edge[updates];
+        boolean[] insert = new boolean[updates];
+        Edge[] present = new Edge[G.E() + updates];
+        int n = 0;
+        for(Edge e : G.edges()) {
+            present[n++] = e;
+        }
+        for(int u = 0; u < updates; u++) {
+            insert[u] = n == 0 || StdRandom.uniform(2) == 0;
+            if (insert[u]) {
+                changes[u] = new Edge(StdRandom.uniform(V), StdRandom.uniform(V), StdRandom.uniform(1.0));
+                present[n++] = changes[u];
+            }
+            else {
+                int p = StdRandom.uniform(n);
+                changes[u] = present[p];
+                present[p] = present[--n];
+            }
+        }
+
+        // every state checked on small graphs, only the last one on large graphs
+        boolean every = V <= 2000;
+        int errors = 0;
+        DynamicMST mst = new DynamicMST(G);
+        if (!mst.check()) errors++;
+        for(int u = 0; u < updates; u++) {
+            if (insert[u]) mst.insertEdge(changes[u]);
+            else           mst.deleteEdge(changes[u]);
+            if ((every || u == updates - 1) && !mst.check()) errors++;
+        }
+        StdOut.printf("%d updates, %s checked against KruskalMST, %d errors\n",
+                updates, every ? "all" : "the last", errors);
+        StdOut.printf("%d vertices, %d edges, forest weight %.5f\n", mst.V(), mst.E(), mst.weight());
+
+        Stopwatch timer = new Stopwatch();
+        mst = new DynamicMST(G);
+        for(int u = 0; u < updates; u++) {
+            if (insert[u]) mst.insertEdge(changes[u]);
+            else           mst.deleteEdge(changes[u]);
+        }
+        double dynamic = timer.elapsedTime();
+
+        timer = new Stopwatch();
+        KruskalMST kruskal = new KruskalMST(G);
+        double once = timer.elapsedTime();
+        StdOut.printf("DynamicMST %.3f s for %d updates, KruskalMST %.3f s per update\n", dynamic, updates, once);
+
+        if (V <= 20) {
+            for(Edge e : mst.edges()) {
+                StdOut.println(e);
+            }
+        }
+    }
+}
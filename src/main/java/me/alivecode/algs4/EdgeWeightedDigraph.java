@@ -144,6 +144,22 @@ public class EdgeWeightedDigraph {
         return adj[v].size();
     }
 
+    /**
+     * Returns the reverse of this edge-weighted digraph,
+     * every edge v->w becomes a new edge w->v with the same weight.
+     *
+     * @return the reverse of this edge-weighted digraph
+     */
+    public EdgeWeightedDigraph reverse() {
+        EdgeWeightedDigraph reverse = new EdgeWeightedDigraph(V);
+        for(int v = 0; v < V; v++) {
+            for(DirectedEdge e : adj[v]) {
+                reverse.addEdge(new DirectedEdge(e.to(), e.from(), e.weight()));
+            }
+        }
+        return reverse;
+    }
+
     /**
      * Returns the string represents this edge-weighted digraph.
      *
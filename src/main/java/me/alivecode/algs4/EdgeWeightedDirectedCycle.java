@@ -9,8 +9,7 @@ import edu.princeton.cs.algs4.StdOut;
  */
 public class EdgeWeightedDirectedCycle {
     private final boolean[] marked; // marked[v] = has vertex v been marked ?
-    private final DirectedEdge[] edgeTo; // edgeTo[v] = previous edge on path to v
-    private final boolean[] onStack; // onStack[v] = is v on the path?
+    private final int[] edgeTo; // edgeTo[v] = index of previous edge on path to v
     private Stack<DirectedEdge> cycle; // the directed cycle or null if no cycle
 
     /**
@@ -20,44 +19,35 @@ public class EdgeWeightedDirectedCycle {
      */
     public EdgeWeightedDirectedCycle(EdgeWeightedDigraph G) {
         marked = new boolean[G.V()];
-        onStack = new boolean[G.V()];
-        edgeTo = new DirectedEdge[G.V()];
-
-        for(int v = 0; v < G.V(); v++) {
-            if (!marked[v]) {
-                dfs(G, v);
-            }
-        }
-
-
+        edgeTo = new int[G.V()];
+        dfs(new CSREdgeWeightedDigraph(G));
     }
 
     // see DirectedCycle class for ref
-    private void dfs(EdgeWeightedDigraph G, int v) {
-        marked[v] = true;
-        onStack[v] = true;
-
-        for(DirectedEdge e : G.adj(v)) {
-            int w = e.to();
-
-            if (cycle != null) return;
+    private void dfs(final CSREdgeWeightedDigraph G) {
+        final DepthFirstTraversal dfs = new DepthFirstTraversal(G.digraph());
+        dfs.searchAll(new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+            }
 
-            if (!marked[w]) {
-                edgeTo[w] = e;
-                dfs(G, w);
+            public void treeEdge(int v, int w, int i) {
+                edgeTo[w] = i;
             }
-            else if (onStack[w]) {
+
+            public void backEdge(int v, int w, int i) {
                 cycle = new Stack<>();
-                DirectedEdge x = e;
-                while(x.from() != w) {
-                    cycle.push(x);
-                    x = edgeTo[x.from()];
+                int x = i;
+                int from = v;
+                while(from != w) {
+                    cycle.push(G.edge(x));
+                    x = edgeTo[from];
+                    from = G.tail(x);
                 }
-                cycle.push(x);
+                cycle.push(G.edge(x));
+                dfs.stop();
             }
-
-        }
-        onStack[v] = false;
+        });
     }
 
     /**
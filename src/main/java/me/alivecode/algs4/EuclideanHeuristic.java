@@ -0,0 +1,45 @@
+package me.alivecode.algs4;
+
+/**
+ * The {@code EuclideanHeuristic} class estimates distances from vertex
+ * coordinates: the straight-line distance between two vertices times a scale.
+ * It is admissible when no edge is lighter than {@code scale} times its length,
+ * e.g. with travel-time weights use 1 / (the top speed) as the scale.
+ */
+public class EuclideanHeuristic implements DistanceHeuristic {
+    private final double[] x;
+    private final double[] y;
+    private final double scale;
+
+    /**
+     * Initializes the heuristic with the coordinates of every vertex.
+     *
+     * @param x x[v] = x-coordinate of vertex v
+     * @param y y[v] = y-coordinate of vertex v
+     */
+    public EuclideanHeuristic(double[] x, double[] y) {
+        this(x, y, 1.0);
+    }
+
+    /**
+     * Initializes the heuristic with the coordinates of every vertex
+     * and the weight of a unit of length.
+     *
+     * @param x x[v] = x-coordinate of vertex v
+     * @param y y[v] = y-coordinate of vertex v
+     * @param scale the minimum weight of an edge of length 1
+     */
+    public EuclideanHeuristic(double[] x, double[] y, double scale) {
+        if (x.length != y.length) throw new IllegalArgumentException("x[] and y[] must have the same length");
+        if (!(scale >= 0)) throw new IllegalArgumentException("scale must be nonnegative");
+        this.x = x;
+        this.y = y;
+        this.scale = scale;
+    }
+
+    public double estimate(int v, int t) {
+        double dx = x[v] - x[t];
+        double dy = y[v] - y[t];
+        return scale * Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,179 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code FilterKruskalMST} class computes a minimum spanning forest
+ * by the Filter-Kruskal algorithm of Osipov, Sanders and Singler.
+ * <p>
+ * Like quicksort, it splits the edges around the weight of a random pivot
+ * edge, in three parts: lighter, as heavy and heavier. The lighter edges are
+ * handled first, recursively, then the edges as heavy in any order. Before the
+ * heavier edges are split in turn, the ones whose endpoints are already
+ * connected are filtered out: on a dense graph most of them are, and they are
+ * never sorted. Small parts are sorted by insertion and handed to Kruskal's
+ * algorithm. The edges are kept in primitive arrays and joined with a
+ * {@link UF} of <em>V</em> sites.
+ */
+public class FilterKruskalMST {
+    private static final int CUTOFF = 16; // parts sorted by insertion
+
+    private final int V;
+    private final int[] v, w;        // endpoints of edge i
+    private final double[] weights;  // weights[i] = weight of edge i
+    private final Edge[] source;     // the edges of the graph
+    private final double[] key;      // key[p] = weight of edge id[p], both reordered by the partitions
+    private final int[] id;
+    private final UF uf;
+    private final Queue<Integer> mst = new Queue<Integer>(); // indices of the edges in the forest
+    private double weight;           // weight of the forest
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G}.
+     *
+     * @param G the edge-weighted graph
+     */
+    public FilterKruskalMST(EdgeWeightedGraph G) {
+        V = G.V();
+        int E = G.E();
+        v = new int[E];
+        w = new int[E];
+        weights = new double[E];
+        source = new Edge[E];
+        key = new double[E];
+        id = new int[E];
+        int i = 0;
+        for(Edge e : G.edges()) {
+            v[i] = e.either();
+            w[i] = e.other(v[i]);
+            weights[i] = e.weight();
+            key[i] = e.weight();
+            id[i] = i;
+            source[i++] = e;
+        }
+        uf = new UF(V);
+        filterKruskal(0, E);
+    }
+
+    // the edges id[lo..hi), in increasing order of weight
+    private void filterKruskal(int lo, int hi) {
+        if (mst.size() == V - 1) return;
+        if (hi - lo <= CUTOFF) {
+            insertion(lo, hi);
+            for(int p = lo; p < hi; p++) {
+                take(id[p]);
+            }
+            return;
+        }
+
+        // key[lo..lt) < pivot = key[lt..gt) < key[gt..hi)
+        double pivot = key[lo + StdRandom.uniform(hi - lo)];
+        int lt = lo, gt = hi, p = lo;
+        while (p < gt) {
+            if (key[p] < pivot) exch(lt++, p++);
+            else if (key[p] > pivot) exch(p, --gt);
+            else p++;
+        }
+
+        filterKruskal(lo, lt);
+        for(p = lt; p < gt; p++) {
+            take(id[p]);
+        }
+        filterKruskal(gt, filter(gt, hi));
+    }
+
+    // moves the edges of id[lo..hi) joining two components to the front, returns their end
+    private int filter(int lo, int hi) {
+        int end = lo;
+        for(int p = lo; p < hi; p++) {
+            int i = id[p];
+            if (!uf.connected(v[i], w[i])) {
+                key[end] = key[p];
+                id[end++] = i;
+            }
+        }
+        return end;
+    }
+
+    private void take(int i) {
+        if (!uf.connected(v[i], w[i])) {
+            uf.union(v[i], w[i]);
+            mst.enqueue(i);
+            weight += weights[i];
+        }
+    }
+
+    private void insertion(int lo, int hi) {
+        for(int p = lo + 1; p < hi; p++) {
+            for(int q = p; q > lo && key[q] < key[q - 1]; q--) {
+                exch(q, q - 1);
+            }
+        }
+    }
+
+    private void exch(int p, int q) {
+        double k = key[p];
+        key[p] = key[q];
+        key[q] = k;
+        int i = id[p];
+        id[p] = id[q];
+        id[q] = i;
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest, in increasing order of weight.
+     *
+     * @return the edges of the minimum spanning forest
+     */
+    public Iterable<Edge> edges() {
+        Queue<Edge> edges = new Queue<Edge>();
+        for(int i : mst) {
+            edges.enqueue(source[i]);
+        }
+        return edges;
+    }
+
+    /**
+     * Returns the weight of the minimum spanning forest.
+     *
+     * @return the weight of the minimum spanning forest
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // unit test code
+    // FilterKruskalMST tinyEWG.txt
+    // FilterKruskalMST -random V E
+    // compares with KruskalMST
+    public static void main(String[] args) {
+        EdgeWeightedGraph G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            G = new EdgeWeightedGraph(V);
+            for(int i = 0; i < E; i++) {
+                G.addEdge(new Edge(StdRandom.uniform(V), StdRandom.uniform(V), StdRandom.uniform(1.0)));
+            }
+        }
+        else {
+            G = new EdgeWeightedGraph(new In(args[0]));
+        }
+
+        Stopwatch timer = new Stopwatch();
+        KruskalMST kruskal = new KruskalMST(G);
+        StdOut.printf("KruskalMST       %.3f s, weight %.5f\n", timer.elapsedTime(), kruskal.weight());
+        timer = new Stopwatch();
+        FilterKruskalMST mst = new FilterKruskalMST(G);
+        StdOut.printf("FilterKruskalMST %.3f s, weight %.5f, %s\n", timer.elapsedTime(), mst.weight(),
+                mst.weight() == kruskal.weight() ? "same" : "different");
+
+        if (G.V() <= 20) {
+            for(Edge e : mst.edges()) {
+                StdOut.println(e);
+            }
+        }
+    }
+}
@@ -84,7 +84,7 @@ public class FordFulkerson {
         while (!queue.isEmpty()) {
             int v = queue.dequeue();
             for(FlowEdge e: G.adj(v)) {
-                int w = e.to();
+                int w = e.other(v);
                 // Is there any point still has residual capacity?
                 if (e.residualCapacityTo(w) > 0.0 && !marked[w]) {
                     marked[w] = true;
@@ -0,0 +1,224 @@
+package me.alivecode.algs4;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code IntGraph} class represents an undirected graph of vertices
+ * named 0 through <em>V</em>-1 whose adjacency lists are growable
+ * {@code int} arrays instead of {@code Bag<Integer>}.
+ * Each edge costs two {@code int} slots rather than two {@link Bag} nodes
+ * and two boxed {@code Integer}s.
+ * <p>
+ * The neighbors of v are iterated without allocation by
+ * <pre>
+ *     for(int i = 0; i &lt; G.degree(v); i++) {
+ *         int w = G.neighbor(v, i);
+ *     }
+ * </pre>
+ * Neighbors are returned in the same order as {@link Graph#adj},
+ * i.e. the most recently added edge first.
+ */
+public class IntGraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+    private static final int[] EMPTY = new int[0];
+    private final int V; // number of vertices.
+    private int E; // number of edges.
+    private int[][] adj; // adj[v][0..degree[v]) = vertices adjacent to v, in insertion order
+    private int[] degree; // degree[v] = number of used slots in adj[v]
+
+    /**
+     * Initialize a new graph with {@code V} vertices and 0 edge.
+     *
+     * @param V number of vertices.
+     */
+    public IntGraph(int V) {
+        if (V < 0) throw new IllegalArgumentException("number of vertices must >= 0");
+        this.V = V;
+        this.E = 0;
+        adj = new int[V][];
+        degree = new int[V];
+        for(int v = 0; v < V; v++) {
+            adj[v] = EMPTY;
+        }
+    }
+
+    /**
+     * Initialize a new graph that has the same edges as {@code G}
+     * with the same adjacency order.
+     *
+     * @param G graph to copy.
+     */
+    public IntGraph(Graph G) {
+        this(G.V());
+        this.E = G.E();
+        for(int v = 0; v < V; v++) {
+            int d = G.degree(v);
+            adj[v] = new int[d];
+            degree[v] = d;
+            // Graph.adj() returns the latest edge first
+            for(int w : G.adj(v)) {
+                adj[v][--d] = w;
+            }
+        }
+    }
+
+    /**
+     * Initialize a graph from the specified input stream.
+     * The format is the same as {@link Graph#Graph(In)}.
+     *
+     * @param in the input stream.
+     */
+    public IntGraph(In in) {
+        try {
+            V = in.readInt();
+            if (V < 0) throw new IllegalArgumentException("number of vertices must >= 0");
+            adj = new int[V][];
+            degree = new int[V];
+            for(int v = 0; v < V; v++) {
+                adj[v] = EMPTY;
+            }
+
+            int E = in.readInt();
+            if (E < 0) throw new IllegalArgumentException("number of edges must >= 0");
+            for(int i = 0; i < E; i++) {
+                int v = in.readInt();
+                int w = in.readInt();
+                addEdge(v, w);
+            }
+        } catch (NoSuchElementException e) {
+            throw new IllegalArgumentException("Invalid input format in IntGraph constructor", e);
+        }
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    // appends w to the adjacency list of v, doubling the array when it is full
+    private void append(int v, int w) {
+        if (degree[v] == adj[v].length) {
+            int[] copy = new int[Math.max(2, 2 * degree[v])];
+            System.arraycopy(adj[v], 0, copy, 0, degree[v]);
+            adj[v] = copy;
+        }
+        adj[v][degree[v]++] = w;
+    }
+
+    /**
+     * Returns number of edges in the graph.
+     *
+     * @return number of edges.
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns numbers of vertices in the graph.
+     *
+     * @return numbers of vertices.
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Adds the undirected v-w edge to this graph.
+     *
+     * @param v one vertex in the edge.
+     * @param w the other vertex in the edge.
+     */
+    public void addEdge(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        append(v, w);
+        append(w, v);
+        E++;
+    }
+
+    /**
+     * Returns the degree of vertex {@code v}.
+     *
+     * @param v the vertex.
+     * @return the degree of vertex {@code v}.
+     * @throws IllegalArgumentException unless {@code v} is between 0 and <em>V</em>-1.
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        return degree[v];
+    }
+
+    /**
+     * Returns the {@code i}-th vertex adjacent to vertex {@code v}.
+     *
+     * @param v the vertex.
+     * @param i the position in the adjacency list, between 0 and {@code degree(v)}-1.
+     * @return the {@code i}-th vertex adjacent to vertex {@code v}.
+     */
+    public int neighbor(int v, int i) {
+        return adj[v][degree[v] - 1 - i];
+    }
+
+    /**
+     * Returns the vertices adjacent to the vertex {@code v}.
+     * Prefer {@link #degree}/{@link #neighbor} on hot paths,
+     * this method boxes every vertex.
+     *
+     * @param v the vertex.
+     * @throws IllegalArgumentException if {@code v < 0 || v >= V()}.
+     */
+    public Iterable<Integer> adj(final int v) {
+        validateVertex(v);
+        return new Iterable<Integer>() {
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    private int i = 0;
+
+                    public boolean hasNext() {
+                        return i < degree[v];
+                    }
+
+                    public Integer next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return neighbor(v, i++);
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns a string represents this graph.
+     *
+     * @return the number of vertices <em>V</em>, followed by the number of edges <em>E</em>,
+     * followed by <em>V</em> adjacency lists.
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " vertices, " + E + " edges." + NEWLINE);
+        for(int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for(int i = 0; i < degree[v]; i++) {
+                s.append(neighbor(v, i) + " ");
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    // unit test code.
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        IntGraph G = new IntGraph(in);
+        StdOut.println(G);
+    }
+}
@@ -0,0 +1,35 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntList} class is a growable array of {@code int}s, such as
+ * vertices or edge indices. Its fields are read and reset directly:
+ * the items are {@code items[0]} to {@code items[size-1]}.
+ */
+class IntList {
+    int[] items = new int[16];
+    int size;
+
+    /**
+     * Adds {@code x} at the end of the list.
+     *
+     * @param x the item
+     */
+    void add(int x) {
+        if (size == items.length) items = Arrays.copyOf(items, 2 * size);
+        items[size++] = x;
+    }
+
+    /**
+     * Adds the items of {@code other} at the end of the list.
+     *
+     * @param other the list to append
+     */
+    void addAll(IntList other) {
+        if (size + other.size > items.length)
+            items = Arrays.copyOf(items, Math.max(2 * items.length, size + other.size));
+        System.arraycopy(other.items, 0, items, size, other.size);
+        size += other.size;
+    }
+}
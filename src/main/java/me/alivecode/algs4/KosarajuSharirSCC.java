@@ -12,29 +12,29 @@ public class KosarajuSharirSCC {
     private int[] id;
 
     public KosarajuSharirSCC(Digraph DG) {
+        this(new CSRDigraph(DG));
+    }
+
+    public KosarajuSharirSCC(CSRDigraph DG) {
         DepthFirstOrder dfo = new DepthFirstOrder(DG.reverse());
 
         marked = new boolean[DG.V()];
         id = new int[DG.V()];
+        DepthFirstTraversal dfs = new DepthFirstTraversal(DG);
+        DepthFirstTraversal.Visitor visitor = new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
+                id[v] = count;
+            }
+        };
         for(int v: dfo.reversePostOrder()) {
             if (!marked[v]) {
-                dfs(DG, v);
+                dfs.search(v, visitor);
                 count++;
             }
         }
     }
 
-    private void dfs(Digraph DG, int v) {
-        marked[v] = true;
-        id[v] = count;
-
-        for (int w : DG.adj(v)) {
-            if (!marked[w]) {
-                dfs(DG, w);
-            }
-        }
-    }
-
     public int count() {
         return count;
     }
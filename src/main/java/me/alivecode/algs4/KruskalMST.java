@@ -27,7 +27,7 @@ public class KruskalMST {
         for(Edge e: G.edges()) {
             pq.insert(e);
         }
-        UF uf = new UF(pq.size());
+        UF uf = new UF(G.V());
         while(!pq.isEmpty() && mst.size() < G.V() - 1) {
             Edge e = pq.delMin();
             int v = e.either();
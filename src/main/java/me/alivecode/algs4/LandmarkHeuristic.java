@@ -0,0 +1,99 @@
+package me.alivecode.algs4;
+
+/**
+ * The {@code LandmarkHeuristic} class implements the ALT lower bounds:
+ * for a landmark L the triangle inequality gives
+ * d(v, t) &gt;= d(L, t) - d(L, v) and d(v, t) &gt;= d(v, L) - d(t, L),
+ * and the estimate is the largest of these bounds over all landmarks.
+ * The distances from and to every landmark are computed once with {@link DijkstraSP}
+ * on the digraph and on its reverse.
+ */
+public class LandmarkHeuristic implements DistanceHeuristic {
+    private final int[] landmarks;
+    private final double[][] from; // from[i][v] = distance from landmarks[i] to v
+    private final double[][] to;   // to[i][v] = distance from v to landmarks[i]
+
+    /**
+     * Initializes the heuristic with the given landmarks.
+     *
+     * @param G the edge-weighted digraph
+     * @param landmarks the landmark vertices
+     */
+    public LandmarkHeuristic(EdgeWeightedDigraph G, int[] landmarks) {
+        this.landmarks = landmarks.clone();
+        from = new double[landmarks.length][];
+        to = new double[landmarks.length][];
+        EdgeWeightedDigraph R = G.reverse();
+        for(int i = 0; i < landmarks.length; i++) {
+            from[i] = distances(new DijkstraSP(G, landmarks[i]), G.V());
+            to[i] = distances(new DijkstraSP(R, landmarks[i]), G.V());
+        }
+    }
+
+    /**
+     * Initializes the heuristic with {@code k} landmarks chosen greedily:
+     * the first one is vertex 0, every next one is the vertex farthest
+     * from the landmarks chosen so far.
+     *
+     * @param G the edge-weighted digraph
+     * @param k the number of landmarks
+     */
+    public LandmarkHeuristic(EdgeWeightedDigraph G, int k) {
+        this(G, farthest(G, k));
+    }
+
+    private static double[] distances(DijkstraSP sp, int V) {
+        double[] dist = new double[V];
+        for(int v = 0; v < V; v++) {
+            dist[v] = sp.distTo(v);
+        }
+        return dist;
+    }
+
+    // picks k landmarks, each farthest from the ones before among the reachable vertices
+    private static int[] farthest(EdgeWeightedDigraph G, int k) {
+        if (k < 1 || k > G.V()) throw new IllegalArgumentException("number of landmarks must be between 1 and V");
+        int[] landmarks = new int[k];
+        double[] nearest = new double[G.V()]; // distance to the nearest landmark so far
+        for(int v = 0; v < G.V(); v++) {
+            nearest[v] = Double.POSITIVE_INFINITY;
+        }
+        int next = 0;
+        for(int i = 0; i < k; i++) {
+            landmarks[i] = next;
+            DijkstraSP sp = new DijkstraSP(G, next);
+            double best = -1;
+            for(int v = 0; v < G.V(); v++) {
+                nearest[v] = Math.min(nearest[v], sp.distTo(v));
+                if (nearest[v] < Double.POSITIVE_INFINITY && nearest[v] > best) {
+                    best = nearest[v];
+                    next = v;
+                }
+            }
+        }
+        return landmarks;
+    }
+
+    /**
+     * Returns the landmark vertices.
+     *
+     * @return the landmark vertices
+     */
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    public double estimate(int v, int t) {
+        double bound = 0.0;
+        for(int i = 0; i < landmarks.length; i++) {
+            // an infinite minus an infinite distance gives no information
+            if (from[i][t] < Double.POSITIVE_INFINITY || from[i][v] < Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, from[i][t] - from[i][v]);
+            }
+            if (to[i][v] < Double.POSITIVE_INFINITY || to[i][t] < Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, to[i][v] - to[i][t]);
+            }
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,72 @@
+package me.alivecode.algs4;
+
+/**
+ * The {@code LatencyHistogram} class counts nonnegative values, such as
+ * latencies in nanoseconds, in logarithmic buckets: each value below 32 has
+ * its own bucket and each power of two above is split in 16 buckets.
+ * It takes the same memory whatever the number of values, and a percentile
+ * is the top of its bucket, less than 1/16 above the exact one.
+ */
+class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;  // values below SUB are counted exactly
+    private static final int HALF = SUB >> 1;      // buckets per power of two above SUB
+
+    private final long[] counts = new long[SUB + (63 - SUB_BITS) * HALF];
+    private long count;
+    private long max;
+
+    /**
+     * Records {@code value}, negative values are taken as 0.
+     *
+     * @param value the value
+     */
+    void record(long value) {
+        if (value < 0) value = 0;
+        counts[index(value)]++;
+        count++;
+        if (value > max) max = value;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the number of values recorded
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * Returns the {@code p}th percentile of the values recorded.
+     *
+     * @param p the percentile, between 0 and 100
+     * @return the percentile, 0 if no value was recorded
+     * @throws IllegalArgumentException unless {@code 0 <= p <= 100}
+     */
+    long percentile(double p) {
+        if (p < 0.0 || p > 100.0) throw new IllegalArgumentException("percentile must be between 0 and 100");
+        if (count == 0) return 0;
+        long rank = Math.max((long) Math.ceil(p / 100.0 * count), 1);
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(top(i), max);
+        }
+        return max;
+    }
+
+    private static int index(long value) {
+        if (value < SUB) return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return SUB + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    // the largest value counted in bucket i
+    private static long top(int i) {
+        if (i < SUB) return i;
+        int shift = (i - SUB) / HALF + 1;
+        long m = (i - SUB) % HALF + HALF;
+        return ((m + 1) << shift) - 1;
+    }
+}
@@ -19,24 +19,16 @@ public class NonrecursiveDFS {
      */
     public NonrecursiveDFS(Graph G, int s) {
         marked = new boolean[G.V()];
-
-        dfs(G, s);
+        validateVertex(s);
+        dfs(new CSRDigraph(G), s);
     }
 
-    private void dfs(Graph G, int s) {
-        marked[s] = true;
-        Stack<Integer> stack = new Stack<>();
-        stack.push(s);
-
-        while(!stack.isEmpty()) {
-            int v = stack.pop();
-            for(int w: G.adj(v)) {
-                if(!marked[w]) {
-                    marked[w] = true;
-                    stack.push(w);
-                }
+    private void dfs(CSRDigraph G, int s) {
+        new DepthFirstTraversal(G).search(s, new DepthFirstTraversal.Visitor() {
+            public void preVisit(int v) {
+                marked[v] = true;
             }
-        }
+        });
     }
 
     /**
@@ -0,0 +1,149 @@
+package me.alivecode.algs4;
+
+import java.util.concurrent.ForkJoinPool;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ParallelAcyclicLP} class determines the longest paths
+ * in acyclic edge-weighted digraphs, level by level of a {@link TopologicalLevels}
+ * order, with the vertices of each level handled in parallel on a {@link ForkJoinPool}.
+ * See {@link ParallelAcyclicSP}.
+ */
+public class ParallelAcyclicLP {
+    private final CSREdgeWeightedDigraph G;
+    private final int[] edgeTo; // edgeTo[v] = index of previous edge to v, or -1
+    private final double[] distTo; // distTo[v] = distance to v
+
+    /**
+     * Determines longest paths in the acyclic digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the acyclic edge-weighted digraph
+     * @param s the source vertex
+     */
+    public ParallelAcyclicLP(EdgeWeightedDigraph G, int s) {
+        this(new CSREdgeWeightedDigraph(G), s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines longest paths in the packed acyclic digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the acyclic edge-weighted digraph
+     * @param s the source vertex
+     */
+    public ParallelAcyclicLP(CSREdgeWeightedDigraph G, int s) {
+        this(G, s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines longest paths in the packed acyclic digraph {@code G}
+     * on the fork-join pool {@code pool}.
+     *
+     * @param G the acyclic edge-weighted digraph
+     * @param s the source vertex
+     * @param pool the pool handling the levels
+     * @throws IllegalArgumentException if {@code G} is not acyclic
+     */
+    public ParallelAcyclicLP(CSREdgeWeightedDigraph G, int s, ForkJoinPool pool) {
+        this.G = G;
+        edgeTo = new int[G.V()];
+        distTo = new double[G.V()];
+        validateVertex(s);
+        ParallelAcyclicSP.relax(G, s, distTo, edgeTo, true, pool);
+    }
+
+    private void validateVertex(int v) {
+        int V = edgeTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Is there any path from source vertex to v?
+     * @param v the target vertex
+     * @return {@code true} if the edge-weighted digraph has a path from source vertex to v,
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] > Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from the source vertex to {@code v}.
+     *
+     * @param v the target vertex
+     * @return the distance if the edge-weighted digraph has a path from vertex to v,
+     * {@code Double.NEGATIVE_INFINITY} otherwise
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns the edges on the longest path from the source vertex to {@code v}.
+     *
+     * @param v the target vertex
+     * @return the edges on the longest path from the source vertex to {@code v}
+     * if the path exists, {@code null} otherwise
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        Stack<DirectedEdge> path = null;
+        if (hasPathTo(v)) {
+            path = new Stack<>();
+            for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+                path.push(G.edge(i));
+            }
+        }
+        return path;
+    }
+
+    // unit test code
+    // ParallelAcyclicLP tinyEWDAG.txt s
+    // ParallelAcyclicLP -random V E width
+    // compares with CSRAcyclicLP
+    public static void main(String[] args) {
+        CSREdgeWeightedDigraph G;
+        int s = 0;
+        if (args[0].equals("-random")) {
+            G = ParallelAcyclicSP.random(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), 1L);
+        }
+        else {
+            G = new CSREdgeWeightedDigraph(new In(args[0]));
+            s = Integer.parseInt(args[1]);
+        }
+
+        Stopwatch timer = new Stopwatch();
+        CSRAcyclicLP sequential = new CSRAcyclicLP(G, s);
+        StdOut.printf("CSRAcyclicLP      %.3f s\n", timer.elapsedTime());
+        timer = new Stopwatch();
+        ParallelAcyclicLP lp = new ParallelAcyclicLP(G, s);
+        StdOut.printf("ParallelAcyclicLP %.3f s\n", timer.elapsedTime());
+
+        int errors = 0;
+        for(int v = 0; v < G.V(); v++) {
+            if (lp.distTo(v) != sequential.distTo(v)) errors++;
+        }
+        StdOut.println(errors + " differences");
+        if (G.V() <= 20) {
+            for(int v = 0; v < G.V(); v++) {
+                if (lp.hasPathTo(v)) {
+                    StdOut.printf("%d to %d (%.2f)", s, v, lp.distTo(v));
+                    for(DirectedEdge e : lp.pathTo(v)) {
+                        StdOut.print("  " + e);
+                    }
+                    StdOut.println();
+                }
+                else {
+                    StdOut.printf("%d to %d         no path\n", s, v);
+                }
+            }
+        }
+    }
+}
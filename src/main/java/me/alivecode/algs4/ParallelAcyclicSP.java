@@ -0,0 +1,246 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ParallelAcyclicSP} class determines the shortest paths
+ * in acyclic edge-weighted digraphs, level by level of a {@link TopologicalLevels}
+ * order, with the vertices of each level handled in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Every vertex of a level pulls its distance from its incoming edges, whose tails
+ * are all in earlier levels, so it only writes its own {@code distTo[]} and
+ * {@code edgeTo[]} and no synchronization is needed inside a level.
+ * The digraph is packed in a {@link CSREdgeWeightedDigraph} first when it is not
+ * one already. Wide DAGs have few large levels and run in parallel, a path
+ * has one vertex per level and runs sequentially.
+ */
+public class ParallelAcyclicSP {
+    private static final int GRAIN = 256; // vertices of a level handled by one task
+
+    private final CSREdgeWeightedDigraph G;
+    private final int[] edgeTo; // edgeTo[v] = index of previous edge to v, or -1
+    private final double[] distTo; // distTo[v] = distance to v
+
+    /**
+     * Determines shortest paths in the acyclic digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the acyclic edge-weighted digraph
+     * @param s the source vertex
+     */
+    public ParallelAcyclicSP(EdgeWeightedDigraph G, int s) {
+        this(new CSREdgeWeightedDigraph(G), s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines shortest paths in the packed acyclic digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the acyclic edge-weighted digraph
+     * @param s the source vertex
+     */
+    public ParallelAcyclicSP(CSREdgeWeightedDigraph G, int s) {
+        this(G, s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines shortest paths in the packed acyclic digraph {@code G}
+     * on the fork-join pool {@code pool}.
+     *
+     * @param G the acyclic edge-weighted digraph
+     * @param s the source vertex
+     * @param pool the pool handling the levels
+     * @throws IllegalArgumentException if {@code G} is not acyclic
+     */
+    public ParallelAcyclicSP(CSREdgeWeightedDigraph G, int s, ForkJoinPool pool) {
+        this.G = G;
+        edgeTo = new int[G.V()];
+        distTo = new double[G.V()];
+        validateVertex(s);
+        relax(G, s, distTo, edgeTo, false, pool);
+    }
+
+    // the distances from s, shortest or longest, computed level by level
+    static void relax(CSREdgeWeightedDigraph G, int s, double[] distTo, int[] edgeTo,
+                      boolean longest, ForkJoinPool pool) {
+        double unreached = longest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for(int v = 0; v < G.V(); v++) {
+            distTo[v] = unreached;
+            edgeTo[v] = -1;
+        }
+        distTo[s] = 0.0;
+
+        TopologicalLevels order = new TopologicalLevels(G.digraph());
+        if (!order.hasOrder()) {
+            throw new IllegalArgumentException("the specified graph is not acyclic");
+        }
+
+        // the incoming edges of w are inEdge[inBegin[w]..inBegin[w+1]), leaving inTail[]
+        int V = G.V();
+        int[] inBegin = new int[V + 1];
+        for(int i = 0; i < G.E(); i++) {
+            inBegin[G.head(i) + 1]++;
+        }
+        for(int v = 0; v < V; v++) {
+            inBegin[v + 1] += inBegin[v];
+        }
+        int[] next = Arrays.copyOf(inBegin, V);
+        int[] inEdge = new int[G.E()];
+        int[] inTail = new int[G.E()];
+        for(int v = 0; v < V; v++) {
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                int p = next[G.head(i)]++;
+                inEdge[p] = i;
+                inTail[p] = v;
+            }
+        }
+
+        IntConsumer pull = p -> {
+            int w = order.vertex(p);
+            double best = distTo[w];
+            int edge = -1;
+            for(int q = inBegin[w]; q < inBegin[w + 1]; q++) {
+                double dv = distTo[inTail[q]];
+                if (dv == unreached) continue;
+                double d = dv + G.weight(inEdge[q]);
+                if (longest ? d > best : d < best) {
+                    best = d;
+                    edge = inEdge[q];
+                }
+            }
+            if (edge != -1) {
+                distTo[w] = best;
+                edgeTo[w] = edge;
+            }
+        };
+
+        // the levels before the one of s cannot be reached
+        for(int k = order.level(s) + 1; k < order.levels(); k++) {
+            int lo = order.begin(k);
+            int hi = order.end(k);
+            if (hi - lo <= GRAIN) {
+                for(int p = lo; p < hi; p++) {
+                    pull.accept(p);
+                }
+            }
+            else {
+                pool.invoke(new ParallelFor(lo, hi, GRAIN, pull));
+            }
+        }
+    }
+
+    private void validateVertex(int v) {
+        int V = edgeTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Is there any path from source vertex to v?
+     * @param v the target vertex
+     * @return {@code true} if the edge-weighted digraph has a path from source vertex to v,
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from the source vertex to {@code v}.
+     *
+     * @param v the target vertex
+     * @return the distance if the edge-weighted digraph has a path from vertex to v,
+     * {@code Double.POSITIVE_INFINITY} otherwise
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns the edges on the shortest path from the source vertex to {@code v}.
+     *
+     * @param v the target vertex
+     * @return the edges on the shortest path from the source vertex to {@code v}
+     * if the path exists, {@code null} otherwise
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        Stack<DirectedEdge> path = null;
+        if (hasPathTo(v)) {
+            path = new Stack<>();
+            for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+                path.push(G.edge(i));
+            }
+        }
+        return path;
+    }
+
+    // a random DAG of V vertices in `width` wide layers, each edge
+    // going from one layer to one of the next 3
+    static CSREdgeWeightedDigraph random(int V, int E, int width, long seed) {
+        Random random = new Random(seed);
+        int[] from = new int[E];
+        int[] to = new int[E];
+        double[] weight = new double[E];
+        for(int i = 0; i < E; i++) {
+            int v = random.nextInt(V - width);
+            int layer = v / width + 1 + random.nextInt(3);
+            to[i] = Math.min(V - 1, layer * width + random.nextInt(width));
+            from[i] = v;
+            weight[i] = random.nextDouble();
+        }
+        return new CSREdgeWeightedDigraph(V, from, to, weight);
+    }
+
+    // unit test code
+    // ParallelAcyclicSP tinyEWDAG.txt s
+    // ParallelAcyclicSP -random V E width
+    // runs on 1, 2, 4, ... threads and compares with CSRAcyclicSP
+    public static void main(String[] args) {
+        CSREdgeWeightedDigraph G;
+        int s = 0;
+        if (args[0].equals("-random")) {
+            G = random(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), 1L);
+        }
+        else {
+            G = new CSREdgeWeightedDigraph(new In(args[0]));
+            s = Integer.parseInt(args[1]);
+        }
+
+        Stopwatch timer = new Stopwatch();
+        CSRAcyclicSP sequential = new CSRAcyclicSP(G, s);
+        StdOut.printf("CSRAcyclicSP          %.3f s\n", timer.elapsedTime());
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for(int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = Double.POSITIVE_INFINITY;
+            ParallelAcyclicSP sp = null;
+            for(int run = 0; run < 3; run++) {
+                timer = new Stopwatch();
+                sp = new ParallelAcyclicSP(G, s, pool);
+                best = Math.min(best, timer.elapsedTime());
+            }
+            pool.shutdown();
+            if (threads == 1) single = best;
+
+            int errors = 0;
+            for(int v = 0; v < G.V(); v++) {
+                if (sp.distTo(v) != sequential.distTo(v)) errors++;
+            }
+            StdOut.printf("%2d threads            %.3f s, speedup %.2f, %d errors\n",
+                    threads, best, single / best, errors);
+            if (threads == processors) break;
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package me.alivecode.algs4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ParallelBellmanFordSP} class implements a frontier-synchronous
+ * parallel Bellman Ford algorithm for determining shortest paths in an
+ * edge-weighted digraph, where weights may be negative.
+ * <p>
+ * Each round relaxes the edges out of the vertices improved by the previous round,
+ * split between the threads of a {@link ForkJoinPool}. Distances are lowered with
+ * a compare-and-set on their bits, and the edge of the last successful lowering of
+ * each vertex becomes its {@code edgeTo[]} once the round is over.
+ * Every cycle of the {@code edgeTo[]} pointers has negative weight, so they are
+ * searched for a cycle after every <em>V</em> edges relaxed, as in {@link CSRBellmanFordSP}.
+ * <p>
+ * It has the API of {@link BellmanFordSP}, the digraph is packed in a
+ * {@link CSREdgeWeightedDigraph} first when it is not one already.
+ */
+public class ParallelBellmanFordSP {
+    private static final int GRAIN = 256; // vertices relaxed by one task
+
+    private final CSREdgeWeightedDigraph G;
+    private final ForkJoinPool pool;
+    private final AtomicLongArray dist;     // bits of distTo[v] = distance from s to v
+    private final int[] edgeTo;             // edgeTo[v] = index of last edge on shortest s-v path, or -1
+    private final AtomicIntegerArray queued; // queued[v] = last round v was put in the frontier
+    private int round;
+    private long relaxed;                   // edges relaxed since the last search for a cycle
+    private Stack<DirectedEdge> cycle;      // negative cycle (or null if no such cycle)
+
+    /**
+     * Determines shortest paths from {@code s} to every other vertices
+     * in edge-weighted digraph {@code G} on the common fork-join pool.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     */
+    public ParallelBellmanFordSP(EdgeWeightedDigraph G, int s) {
+        this(new CSREdgeWeightedDigraph(G), s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines shortest paths from {@code s} to every other vertices
+     * in the packed edge-weighted digraph {@code G} on the common fork-join pool.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     */
+    public ParallelBellmanFordSP(CSREdgeWeightedDigraph G, int s) {
+        this(G, s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines shortest paths from {@code s} to every other vertices
+     * in the packed edge-weighted digraph {@code G} on the fork-join pool {@code pool}.
+     *
+     * @param G the edge-weighted digraph
+     * @param s the source vertex
+     * @param pool the pool running the relaxations
+     */
+    public ParallelBellmanFordSP(CSREdgeWeightedDigraph G, int s, ForkJoinPool pool) {
+        this.G = G;
+        this.pool = pool;
+        dist = new AtomicLongArray(G.V());
+        edgeTo = new int[G.V()];
+        queued = new AtomicIntegerArray(G.V());
+        validateVertex(s);
+        for(int v = 0; v < G.V(); v++) {
+            dist.set(v, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+            edgeTo[v] = -1;
+        }
+        dist.set(s, Double.doubleToRawLongBits(0.0));
+
+        IntList frontier = new IntList();
+        frontier.add(s);
+        while (frontier.size > 0) {
+            round++;
+            frontier = relaxAll(frontier);
+            if (relaxed >= G.V()) {
+                relaxed = 0;
+                findNegativeCycle();
+                if (hasNegativeCycle()) break;
+            }
+        }
+
+        assert check(s);
+    }
+
+    private double value(int v) {
+        return Double.longBitsToDouble(dist.get(v));
+    }
+
+    // lowers the distance of w to d, returns false if it is not lower
+    private boolean lower(int w, double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        long old = dist.get(w);
+        while (d < Double.longBitsToDouble(old)) {
+            if (dist.compareAndSet(w, old, bits)) return true;
+            old = dist.get(w);
+        }
+        return false;
+    }
+
+    // relaxes the edges out of the frontier in parallel chunks, returns the next frontier
+    private IntList relaxAll(IntList frontier) {
+        int chunks = (int) Math.min(4L * pool.getParallelism(), (frontier.size + GRAIN - 1) / GRAIN);
+        List<Relaxer> tasks = new ArrayList<>();
+        if (chunks <= 1) {
+            tasks.add(new Relaxer(frontier.items, 0, frontier.size));
+        }
+        else {
+            for(int c = 0; c < chunks; c++) {
+                int lo = (int) ((long) frontier.size * c / chunks);
+                int hi = (int) ((long) frontier.size * (c + 1) / chunks);
+                tasks.add(new Relaxer(frontier.items, lo, hi));
+            }
+        }
+        run(tasks);
+
+        // the distances are final for this round, the winning edges can be recorded
+        for(Relaxer r : tasks) {
+            r.recording = true;
+        }
+        run(tasks);
+
+        IntList next = new IntList();
+        for(Relaxer r : tasks) {
+            next.addAll(r.next);
+            relaxed += r.relaxed;
+        }
+        return next;
+    }
+
+    private void run(List<Relaxer> tasks) {
+        if (tasks.size() == 1) {
+            tasks.get(0).call();
+            return;
+        }
+        try {
+            for(Future<Relaxer> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while relaxing edges", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // relaxes the edges out of vertices[lo, hi), then records the edges that won
+    private class Relaxer implements Callable<Relaxer> {
+        private final int[] vertices;
+        private final int lo, hi;
+        boolean recording;
+        final IntList next = new IntList();     // vertices improved, for the next round
+        private int[] lowered = new int[16];    // edges that lowered their head
+        private long[] bits = new long[16];     // bits[k] = distance given by lowered[k]
+        private int size;
+        long relaxed;
+
+        Relaxer(int[] vertices, int lo, int hi) {
+            this.vertices = vertices;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        public Relaxer call() {
+            if (recording) {
+                for(int k = 0; k < size; k++) {
+                    int w = G.head(lowered[k]);
+                    // only the last lowering of w left its distance
+                    if (dist.get(w) == bits[k]) edgeTo[w] = lowered[k];
+                }
+                return this;
+            }
+            for(int k = lo; k < hi; k++) {
+                int v = vertices[k];
+                double dv = value(v);
+                relaxed += G.end(v) - G.begin(v);
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    int w = G.head(i);
+                    double d = dv + G.weight(i);
+                    if (!lower(w, d)) continue;
+                    add(i, Double.doubleToRawLongBits(d));
+                    if (claim(w)) next.add(w);
+                }
+            }
+            return this;
+        }
+
+        private void add(int i, long d) {
+            if (size == lowered.length) {
+                lowered = Arrays.copyOf(lowered, 2 * size);
+                bits = Arrays.copyOf(bits, 2 * size);
+            }
+            lowered[size] = i;
+            bits[size++] = d;
+        }
+
+        // takes w for the next round unless another task already did
+        private boolean claim(int w) {
+            int last = queued.get(w);
+            return last != round && queued.compareAndSet(w, last, round);
+        }
+    }
+
+    // every vertex has at most one parent edge, so a cycle in the
+    // shortest-paths tree is found by following edgeTo[] from each vertex
+    // and stopping at a vertex already seen on the same walk.
+    private void findNegativeCycle() {
+        int V = edgeTo.length;
+        int[] walk = new int[V]; // walk[v] = 1 + the start vertex of the walk that reached v
+        for(int s = 0; s < V; s++) {
+            int v = s;
+            while (walk[v] == 0 && edgeTo[v] != -1) {
+                walk[v] = s + 1;
+                v = G.tail(edgeTo[v]);
+            }
+            if (walk[v] == s + 1) {
+                // v is on a cycle
+                cycle = new Stack<>();
+                int x = v;
+                do {
+                    cycle.push(G.edge(edgeTo[x]));
+                    x = G.tail(edgeTo[x]);
+                } while (x != v);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Does the digraph have negative cycle?
+     * @return {@code true} if the digraph has negative cycle,
+     * {@code false} otherwise
+     */
+    public boolean hasNegativeCycle() {
+        return cycle != null;
+    }
+
+    /**
+     * Returns the negative cycle.
+     *
+     * @return the negative cycle
+     * @throws UnsupportedOperationException if there is no such cycle
+     */
+    public Iterable<DirectedEdge> negativeCycle() {
+        if (!hasNegativeCycle()) {
+            throw new UnsupportedOperationException("No negative cost cycle exists");
+        }
+
+        return cycle;
+    }
+
+    /**
+     * Returns the number of rounds run.
+     *
+     * @return the number of rounds
+     */
+    public int rounds() {
+        return round;
+    }
+
+    private void validateVertex(int v) {
+        int V = edgeTo.length;
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    /**
+     * Is there any path from the source vertex to {@code v}?
+     * @param v the target vertex
+     * @return {@code true} if there is a path from the source vertex to {@code v},
+     * {@code false} otherwise
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return value(v) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distance from the source vertex to {@code v}.
+     * @param v the target vertex
+     * @return the distance from the source vertex to {@code v}
+     *
+     * @throws UnsupportedOperationException if the digraph has negative cycle
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        if (hasNegativeCycle()) {
+            throw new UnsupportedOperationException("Negative cost cycle exists");
+        }
+        return value(v);
+    }
+
+    /**
+     * Returns the shortest path from source vertex to {@code v}.
+     * @param v the target vertex
+     * @return the shortest path form source vertex to {@code v}
+     * if there is no such path, {@code null} otherwise
+     *
+     * @throws UnsupportedOperationException if the digraph has negative cycle
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        if (hasNegativeCycle()) {
+            throw new UnsupportedOperationException("Negative cost cycle exists");
+        }
+        Stack<DirectedEdge> path = null;
+        if (hasPathTo(v)) {
+            path = new Stack<>();
+            for(int i = edgeTo[v]; i != -1; i = edgeTo[G.tail(i)]) {
+                path.push(G.edge(i));
+            }
+        }
+        return path;
+    }
+
+    // see BellmanFordSP
+    private boolean check(int s) {
+        if (hasNegativeCycle()) {
+            double weight = 0.0;
+            for(DirectedEdge e : cycle) {
+                weight += e.weight();
+            }
+            if (weight >= 0.0) {
+                System.err.println("error: weight of negative cycle = " + weight);
+                return false;
+            }
+        }
+        else {
+            if (edgeTo[s] != -1 || value(s) != 0.0) {
+                System.err.println("edgeTo[s] and distTo[s] inconsistent");
+                return false;
+            }
+            for(int v = 0; v < G.V(); v++) {
+                if (v == s) continue;
+                if ((edgeTo[v] == -1) != (value(v) == Double.POSITIVE_INFINITY)) {
+                    System.err.printf("edgeTo[%d] and distTo[%d] inconsistent\n", v, v);
+                    return false;
+                }
+            }
+
+            // check that all edges v->w satisfy distTo[w] <= distTo[v] + e.weight()
+            for(int v = 0; v < G.V(); v++) {
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    if (value(v) + G.weight(i) < value(G.head(i))) {
+                        System.err.println("edge " + G.edge(i) + " not relaxed");
+                        return false;
+                    }
+                }
+            }
+
+            // check that all edges v->w on shortest path satisfy
+            // distTo[w] = dist[v] + e.weight()
+            for(int w = 0; w < G.V(); w++) {
+                int i = edgeTo[w];
+                if (i == -1) continue;
+                if (G.head(i) != w) return false;
+                if (value(w) != value(G.tail(i)) + G.weight(i)) {
+                    System.err.println("edge " + G.edge(i) + " on shortest path not tight");
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // a random digraph with negative weights and no negative cycle:
+    // the weight of v->w is a nonnegative weight plus p[v] - p[w]
+    private static CSREdgeWeightedDigraph random(int V, int E, long seed) {
+        Random random = new Random(seed);
+        double[] p = new double[V];
+        for(int v = 0; v < V; v++) {
+            p[v] = random.nextDouble();
+        }
+        int[] from = new int[E];
+        int[] to = new int[E];
+        double[] weight = new double[E];
+        for(int i = 0; i < E; i++) {
+            from[i] = random.nextInt(V);
+            to[i] = random.nextInt(V);
+            weight[i] = random.nextDouble() + p[from[i]] - p[to[i]];
+        }
+        return new CSREdgeWeightedDigraph(V, from, to, weight);
+    }
+
+    // the complete exchange digraph of a simulated table of n currencies,
+    // whose quotes went stale during 10n ticks
+    private static CSREdgeWeightedDigraph arbitrage(int n) {
+        RateTickGenerator generator = new RateTickGenerator(n, 0.001, 0.001, 1L);
+        double[] rate = new double[n * n];
+        for(RateTickGenerator.Tick tick : generator.snapshot()) {
+            rate[tick.from() * n + tick.to()] = tick.rate();
+        }
+        for(int k = 0; k < 10 * n; k++) {
+            RateTickGenerator.Tick tick = generator.next();
+            rate[tick.from() * n + tick.to()] = tick.rate();
+        }
+        int E = n * (n - 1);
+        int[] from = new int[E];
+        int[] to = new int[E];
+        double[] weight = new double[E];
+        int i = 0;
+        for(int v = 0; v < n; v++) {
+            for(int w = 0; w < n; w++) {
+                if (v == w) continue;
+                from[i] = v;
+                to[i] = w;
+                weight[i++] = -Math.log(rate[v * n + w]);
+            }
+        }
+        return new CSREdgeWeightedDigraph(n, from, to, weight);
+    }
+
+    // unit test code
+    // ParallelBellmanFordSP tinyEWDn.txt s
+    // ParallelBellmanFordSP -random V E
+    // ParallelBellmanFordSP -arbitrage n
+    // runs on 1, 2, 4, ... threads and compares with BellmanFordSP
+    public static void main(String[] args) {
+        CSREdgeWeightedDigraph G;
+        int s = 0;
+        if (args[0].equals("-random")) {
+            G = random(Integer.parseInt(args[1]), Integer.parseInt(args[2]), 1L);
+        }
+        else if (args[0].equals("-arbitrage")) {
+            G = arbitrage(Integer.parseInt(args[1]));
+        }
+        else {
+            G = new CSREdgeWeightedDigraph(new In(args[0]));
+            s = Integer.parseInt(args[1]);
+        }
+        EdgeWeightedDigraph digraph = new EdgeWeightedDigraph(G.V());
+        for(int i = 0; i < G.E(); i++) {
+            digraph.addEdge(G.edge(i));
+        }
+
+        Stopwatch timer = new Stopwatch();
+        BellmanFordSP sequential = new BellmanFordSP(digraph, s);
+        StdOut.printf("BellmanFordSP              %.3f s, %s\n", timer.elapsedTime(),
+                sequential.hasNegativeCycle() ? "negative cycle" : "no negative cycle");
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for(int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = Double.POSITIVE_INFINITY;
+            ParallelBellmanFordSP sp = null;
+            for(int run = 0; run < 3; run++) {
+                timer = new Stopwatch();
+                sp = new ParallelBellmanFordSP(G, s, pool);
+                best = Math.min(best, timer.elapsedTime());
+            }
+            pool.shutdown();
+            if (threads == 1) single = best;
+
+            int errors = 0;
+            if (sp.hasNegativeCycle() != sequential.hasNegativeCycle()) errors++;
+            else if (!sp.hasNegativeCycle()) {
+                for(int v = 0; v < G.V(); v++) {
+                    double expected = sequential.distTo(v);
+                    if (sp.distTo(v) != expected && Math.abs(sp.distTo(v) - expected) > 1e-9 * Math.max(1.0, Math.abs(expected))) errors++;
+                }
+            }
+            StdOut.printf("%2d threads, %4d rounds %.3f s, speedup %.2f, %d errors\n",
+                    threads, sp.rounds(), best, single / best, errors);
+            if (threads == processors) break;
+        }
+    }
+}
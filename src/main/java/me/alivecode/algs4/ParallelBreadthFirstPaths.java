@@ -0,0 +1,493 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ParallelBreadthFirstPaths} class finds shortest paths, in number
+ * of edges, from one or several sources in a graph or a digraph, with a
+ * direction-optimizing breadth-first search on a {@link ForkJoinPool}.
+ * <p>
+ * The search goes level by level. A level is expanded top-down, the frontier
+ * vertices scanning their edges, while the frontier is small; once its edges
+ * outnumber {@code 1/ALPHA} of the edges left to the unvisited vertices it is
+ * expanded bottom-up, every unvisited vertex scanning its incoming edges for a
+ * frontier vertex, looked up in a bitset. It goes back top-down when the
+ * frontier falls under {@code V/BETA} vertices. The incoming edges are
+ * indexed on the first bottom-up level, a graph being packed as a digraph
+ * with each edge in both directions.
+ * <p>
+ * The parent of a vertex is its frontier neighbor that comes first in the
+ * frontier, and the next level is ordered by parent, then by the adjacency
+ * order of the parent, which is the order of the queue of
+ * {@link BreadthFirstPaths} and {@link BreadthFirstDirectedPaths}: with the
+ * same source, {@code distTo()} and {@code pathTo()} are the same as theirs.
+ * With several sources, a vertex is at the distance of its nearest one, as if
+ * the queue started with all of them in the given order.
+ * <p>
+ * Finding the first parent keeps a bottom-up vertex scanning all its incoming
+ * edges instead of stopping at the first frontier vertex, and the children
+ * are stored by a second pass over the frontier edges, reading only a bit per
+ * edge: on one thread the search is about twice as slow as the sequential one.
+ */
+public class ParallelBreadthFirstPaths {
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int GRAIN = 1024; // vertices handled by one task
+    private static final int ALPHA = 14;   // top-down to bottom-up threshold
+    private static final int BETA = 24;    // bottom-up to top-down threshold
+
+    private final int[] distTo; // distTo[v] = number of edges on the shortest path to v
+    private final int[] edgeTo; // edgeTo[v] = previous vertex on the shortest path to v
+    private int levels;         // number of levels
+    private int bottomUp;       // number of levels expanded bottom-up
+
+    /**
+     * Computes shortest paths from {@code s} in the graph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the graph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public ParallelBreadthFirstPaths(Graph G, int s) {
+        this(G, Arrays.asList(s));
+    }
+
+    /**
+     * Computes shortest paths from the nearest vertex of {@code sources}
+     * in the graph {@code G} on the common fork-join pool.
+     *
+     * @param G the graph
+     * @param sources the source vertices
+     * @throws IllegalArgumentException if {@code sources} is {@code null} or has a vertex
+     * not between 0 and <em>V</em>-1
+     */
+    public ParallelBreadthFirstPaths(Graph G, Iterable<Integer> sources) {
+        this(new CSRDigraph(G), sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes shortest paths from {@code s} in the digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the digraph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public ParallelBreadthFirstPaths(Digraph G, int s) {
+        this(new CSRDigraph(G), Arrays.asList(s), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes shortest paths from the nearest vertex of {@code sources}
+     * in the digraph {@code G} on the common fork-join pool.
+     *
+     * @param G the digraph
+     * @param sources the source vertices
+     * @throws IllegalArgumentException if {@code sources} is {@code null} or has a vertex
+     * not between 0 and <em>V</em>-1
+     */
+    public ParallelBreadthFirstPaths(Digraph G, Iterable<Integer> sources) {
+        this(new CSRDigraph(G), sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes shortest paths from {@code s} in the compressed digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the compressed digraph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public ParallelBreadthFirstPaths(CSRDigraph G, int s) {
+        this(G, Arrays.asList(s), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes shortest paths from the nearest vertex of {@code sources}
+     * in the compressed digraph {@code G} on the fork-join pool {@code pool}.
+     *
+     * @param G the compressed digraph
+     * @param sources the source vertices
+     * @param pool the pool running the search
+     * @throws IllegalArgumentException if {@code sources} is {@code null} or has a vertex
+     * not between 0 and <em>V</em>-1
+     */
+    public ParallelBreadthFirstPaths(CSRDigraph G, Iterable<Integer> sources, ForkJoinPool pool) {
+        if (sources == null) throw new IllegalArgumentException("sources is null");
+        int V = G.V();
+        distTo = new int[V];
+        edgeTo = new int[V];
+        Arrays.fill(distTo, INFINITY);
+        for(Integer s : sources) {
+            if (s == null) throw new IllegalArgumentException("source vertex is null");
+            validateVertex(s);
+        }
+        pool.invoke(new Search(G, sources));
+    }
+
+    // the search, run as a task of the pool.
+    // a level is built in two steps: every new vertex sets the bit of the edge
+    // from its parent, then the frontier vertices count the bits of their edges
+    // and, after a prefix sum, store their children in adjacency order.
+    private class Search extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CSRDigraph G;
+        private final Iterable<Integer> sources;
+        private final int[] rank;         // rank[v] = position of v in its level, -1 before
+        private final AtomicIntegerArray parent; // parent[w] = smallest rank of a frontier vertex adjacent to w
+        private final AtomicLongArray tree; // bit i is set if edge i leads to a child in the next level
+        private final long[] inFrontier;  // bit v is set if v is in the frontier
+        // the edges into w are inEdge[inBegin[w]..inBegin[w+1]), leaving inTail[],
+        // built for the first bottom-up level
+        private int[] inBegin, inEdge, inTail;
+        private int[] frontier;           // the current level, in queue order
+        private int[] next;
+        private int[] children;           // children[r] = first position in next[] of the children of frontier[r]
+        private int n;                    // size of the frontier
+        private int d;                    // level of the frontier
+
+        Search(CSRDigraph G, Iterable<Integer> sources) {
+            this.G = G;
+            this.sources = sources;
+            int V = G.V();
+            rank = new int[V];
+            parent = new AtomicIntegerArray(V);
+            tree = new AtomicLongArray((G.E() + 63) >>> 6);
+            inFrontier = new long[(V + 63) >>> 6];
+            frontier = new int[V];
+            next = new int[V];
+            children = new int[V + 1];
+            Arrays.fill(rank, -1);
+            for(int v = 0; v < V; v++) {
+                parent.set(v, INFINITY);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            int V = G.V();
+            long unvisitedEdges = G.E(); // incoming edges of the unvisited vertices
+            for(int s : sources) {
+                if (distTo[s] == 0) continue;
+                distTo[s] = 0;
+                rank[s] = n;
+                frontier[n++] = s;
+                unvisitedEdges -= G.indegree(s);
+            }
+
+            boolean up = false;
+            while (n > 0) {
+                levels++;
+                long frontierEdges = 0;
+                for(int p = 0; p < n; p++) {
+                    int v = frontier[p];
+                    frontierEdges += G.end(v) - G.begin(v);
+                }
+                if (!up && frontierEdges > unvisitedEdges / ALPHA) up = true;
+                else if (up && n < V / BETA) up = false;
+
+                if (up) {
+                    bottomUp++;
+                    if (inBegin == null) reverse();
+                    for(int p = 0; p < n; p++) {
+                        int v = frontier[p];
+                        inFrontier[v >>> 6] |= 1L << v;
+                    }
+                    new ParallelFor(0, V, GRAIN, this::pull).invoke();
+                    for(int p = 0; p < n; p++) {
+                        int v = frontier[p];
+                        inFrontier[v >>> 6] = 0;
+                    }
+                    new ParallelFor(0, n, GRAIN, this::tally).invoke();
+                }
+                else {
+                    new ParallelFor(0, n, GRAIN, this::push).invoke();
+                    new ParallelFor(0, n, GRAIN, this::claim).invoke();
+                }
+
+                int size = 0;
+                for(int r = 0; r < n; r++) {
+                    int c = children[r];
+                    children[r] = size;
+                    size += c;
+                }
+                new ParallelFor(0, n, GRAIN, this::store).invoke();
+                new ParallelFor(0, n, GRAIN, this::clear).invoke();
+
+                for(int p = 0; p < size; p++) {
+                    int w = next[p];
+                    unvisitedEdges -= G.indegree(w);
+                }
+                int[] swap = frontier;
+                frontier = next;
+                next = swap;
+                n = size;
+                d++;
+            }
+        }
+
+        private void reverse() {
+            int V = G.V();
+            inBegin = new int[V + 1];
+            for(int v = 0; v < V; v++) {
+                inBegin[v + 1] = inBegin[v] + G.indegree(v);
+            }
+            int[] position = Arrays.copyOf(inBegin, V);
+            inEdge = new int[G.E()];
+            inTail = new int[G.E()];
+            for(int v = 0; v < V; v++) {
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    int p = position[G.target(i)]++;
+                    inEdge[p] = i;
+                    inTail[p] = v;
+                }
+            }
+        }
+
+        private void setTree(int i) {
+            long bit = 1L << i;
+            long word;
+            do {
+                word = tree.get(i >>> 6);
+            } while (!tree.compareAndSet(i >>> 6, word, word | bit));
+        }
+
+        // top-down: frontier[r] offers its rank to its unvisited neighbors
+        private void push(int r) {
+            int v = frontier[r];
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                int w = G.target(i);
+                if (distTo[w] != INFINITY) continue;
+                int current = parent.get(w);
+                while (r < current && !parent.compareAndSet(w, current, r)) {
+                    current = parent.get(w);
+                }
+            }
+        }
+
+        // top-down: the first edge from frontier[r] to each vertex it is the parent of,
+        // -2 marking the vertices already claimed
+        private void claim(int r) {
+            int v = frontier[r];
+            int c = 0;
+            for(int i = G.begin(v); i < G.end(v); i++) {
+                int w = G.target(i);
+                if (rank[w] == -1 && parent.get(w) == r) {
+                    rank[w] = -2;
+                    setTree(i);
+                    c++;
+                }
+            }
+            children[r] = c;
+        }
+
+        // bottom-up: unvisited w takes the first edge from the frontier vertex of smallest rank,
+        // edges from one vertex being in increasing order
+        private void pull(int w) {
+            if (distTo[w] != INFINITY) return;
+            int best = INFINITY;
+            int edge = -1;
+            for(int q = inBegin[w]; q < inBegin[w + 1]; q++) {
+                int u = inTail[q];
+                if ((inFrontier[u >>> 6] & (1L << u)) != 0 && rank[u] < best) {
+                    best = rank[u];
+                    edge = inEdge[q];
+                }
+            }
+            if (edge != -1) setTree(edge);
+        }
+
+        // bottom-up: the number of bits set on the edges of frontier[r]
+        private void tally(int r) {
+            int v = frontier[r];
+            int c = 0;
+            int end = G.end(v);
+            for(int i = G.begin(v); i < end; ) {
+                int k = i >>> 6;
+                int top = Math.min(end, (k + 1) << 6);
+                long mask = -1L << i;
+                if ((top & 63) != 0) mask &= ~(-1L << top);
+                c += Long.bitCount(tree.get(k) & mask);
+                i = top;
+            }
+            children[r] = c;
+        }
+
+        // only reads the bits of the edges, not the vertices they lead to
+        private void store(int r) {
+            int v = frontier[r];
+            int p = children[r];
+            int end = G.end(v);
+            for(int i = G.begin(v); i < end; i++) {
+                if ((tree.get(i >>> 6) & (1L << i)) == 0) continue;
+                int w = G.target(i);
+                rank[w] = p;
+                next[p++] = w;
+                distTo[w] = d + 1;
+                edgeTo[w] = v;
+            }
+        }
+
+        // every task writes 0, a word shared with another vertex may be cleared twice
+        private void clear(int r) {
+            int v = frontier[r];
+            if (G.begin(v) == G.end(v)) return;
+            for(int k = G.begin(v) >>> 6; k <= (G.end(v) - 1) >>> 6; k++) {
+                tree.set(k, 0);
+            }
+        }
+    }
+
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Is there a path from a source to {@code v}?
+     *
+     * @param v the vertex
+     * @return {@code true} if there is a path, {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] != INFINITY;
+    }
+
+    /**
+     * Returns the number of edges on a shortest path from a source to {@code v}.
+     *
+     * @param v the vertex
+     * @return the number of edges on a shortest path from a source to {@code v},
+     * or {@code Integer.MAX_VALUE} if there is no path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns a shortest path from a source to {@code v}.
+     *
+     * @param v the vertex
+     * @return the vertices on a shortest path from a source to {@code v},
+     * or {@code null} if there is no path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public Iterable<Integer> pathTo(int v) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<Integer> path = new Stack<Integer>();
+        int x;
+        for(x = v; distTo[x] != 0; x = edgeTo[x]) {
+            path.push(x);
+        }
+        path.push(x);
+        return path;
+    }
+
+    /**
+     * Returns the number of levels of the search, one more than the largest distance.
+     *
+     * @return the number of levels
+     */
+    public int levels() {
+        return levels;
+    }
+
+    /**
+     * Returns the number of levels expanded bottom-up.
+     *
+     * @return the number of levels expanded bottom-up
+     */
+    public int bottomUpLevels() {
+        return bottomUp;
+    }
+
+    private static boolean samePath(Iterable<Integer> a, Iterable<Integer> b) {
+        Iterator<Integer> i = a.iterator();
+        Iterator<Integer> j = b.iterator();
+        while (i.hasNext() && j.hasNext()) {
+            if (!i.next().equals(j.next())) return false;
+        }
+        return !i.hasNext() && !j.hasNext();
+    }
+
+    // unit test code
+    // ParallelBreadthFirstPaths tinyDG.txt s
+    // ParallelBreadthFirstPaths -random V E sources
+    // runs on 1, 2, 4, ... threads and compares with BreadthFirstDirectedPaths
+    public static void main(String[] args) {
+        CSRDigraph G;
+        Queue<Integer> sources = new Queue<Integer>();
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            int[] from = new int[E];
+            int[] to = new int[E];
+            for(int i = 0; i < E; i++) {
+                from[i] = StdRandom.uniform(V);
+                to[i] = StdRandom.uniform(V);
+            }
+            G = new CSRDigraph(V, from, to);
+            int k = Integer.parseInt(args[3]);
+            for(int i = 0; i < k; i++) {
+                sources.enqueue(StdRandom.uniform(V));
+            }
+        }
+        else {
+            G = new CSRDigraph(new In(args[0]));
+            sources.enqueue(Integer.parseInt(args[1]));
+        }
+
+        // the reference: one sequential search per source, the nearest one kept
+        Stopwatch timer = new Stopwatch();
+        int[] distTo = new int[G.V()];
+        Arrays.fill(distTo, INFINITY);
+        for(int s : sources) {
+            BreadthFirstDirectedPaths bfs = new BreadthFirstDirectedPaths(G, s);
+            for(int v = 0; v < G.V(); v++) {
+                distTo[v] = Math.min(distTo[v], bfs.distTo(v));
+            }
+        }
+        StdOut.printf("BreadthFirstDirectedPaths x %d  %.3f s\n", sources.size(), timer.elapsedTime());
+        BreadthFirstDirectedPaths first = sources.size() == 1 ? new BreadthFirstDirectedPaths(G, sources.peek()) : null;
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for(int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = Double.POSITIVE_INFINITY;
+            ParallelBreadthFirstPaths bfs = null;
+            for(int run = 0; run < 3; run++) {
+                timer = new Stopwatch();
+                bfs = new ParallelBreadthFirstPaths(G, sources, pool);
+                best = Math.min(best, timer.elapsedTime());
+            }
+            pool.shutdown();
+            if (threads == 1) single = best;
+
+            int errors = 0;
+            for(int v = 0; v < G.V(); v++) {
+                if (bfs.distTo(v) != distTo[v]) errors++;
+                else if (first != null && first.hasPathTo(v) && !samePath(first.pathTo(v), bfs.pathTo(v))) errors++;
+            }
+            StdOut.printf("%2d threads  %.3f s, speedup %.2f, %d levels, %d bottom-up, %d errors\n",
+                    threads, best, single / best, bfs.levels(), bfs.bottomUpLevels(), errors);
+            if (threads == processors) break;
+        }
+    }
+}
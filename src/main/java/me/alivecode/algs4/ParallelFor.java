@@ -0,0 +1,47 @@
+package me.alivecode.algs4;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The {@code ParallelFor} class runs a loop body on the indices
+ * {@code lo} to {@code hi}-1 as a fork-join task: the range is split in
+ * halves until a part has at most {@code grain} indices, which one task
+ * runs in increasing order.
+ */
+class ParallelFor extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int lo, hi, grain;
+    private final IntConsumer body;
+
+    /**
+     * Runs {@code body} on {@code lo} to {@code hi}-1,
+     * at most {@code grain} indices per task.
+     *
+     * @param lo the first index
+     * @param hi one more than the last index
+     * @param grain the largest number of indices run by one task
+     * @param body the loop body
+     * @throws IllegalArgumentException if {@code grain < 1}
+     */
+    ParallelFor(int lo, int hi, int grain, IntConsumer body) {
+        if (grain < 1) throw new IllegalArgumentException("grain must be at least 1");
+        this.lo = lo;
+        this.hi = hi;
+        this.grain = grain;
+        this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+        if (hi - lo <= grain) {
+            for(int i = lo; i < hi; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        invokeAll(new ParallelFor(lo, mid, grain, body), new ParallelFor(mid, hi, grain, body));
+    }
+}
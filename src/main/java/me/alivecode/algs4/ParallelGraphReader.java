@@ -0,0 +1,422 @@
+package me.alivecode.algs4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ParallelGraphReader} class parses a text edge-list file
+ * on a {@link ForkJoinPool}.
+ * The file is split into chunks on line boundaries, every chunk is read and
+ * scanned by its own task, and the numbers are parsed by a hand-rolled scanner
+ * that allocates nothing per token.
+ * <p>
+ * The format is the one of {@link Digraph#Digraph(In)},
+ * {@link EdgeWeightedDigraph#EdgeWeightedDigraph(In)} and
+ * {@link EdgeWeightedGraph#EdgeWeightedGraph(In)}: <em>V</em>, <em>E</em>,
+ * then <em>E</em> edges of two vertices and an optional weight.
+ * The graphs are built by adding the edges in file order, so their adjacency
+ * lists are exactly the same as the ones of the sequential constructors.
+ */
+public class ParallelGraphReader {
+    private static final int MAX_CHUNK_BYTES = 1 << 26; // 64MB per task
+
+    private final double[][] chunks; // chunks[c] = numbers scanned from chunk c
+    private final long[][] integers; // bit i of integers[c] = is number i of chunk c written as an integer?
+    private final int[] counts;      // counts[c] = number of numbers in chunks[c]
+    private final long total;        // total number of numbers in the file
+
+    /**
+     * Scans the file {@code path} on the common fork-join pool.
+     *
+     * @param path the edge-list file
+     */
+    public ParallelGraphReader(String path) {
+        this(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Scans the file {@code path} on the fork-join pool {@code pool}.
+     *
+     * @param path the edge-list file
+     * @param pool the pool running the scanning tasks
+     * @throws IllegalArgumentException if the file cannot be read or has a malformed number
+     */
+    public ParallelGraphReader(String path, ForkJoinPool pool) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long[] bounds = split(channel, pool.getParallelism());
+            int n = bounds.length - 1;
+            List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+            for(int c = 0; c < n; c++) {
+                tasks.add(pool.submit(new ScanTask(channel, bounds[c], bounds[c + 1])));
+            }
+            chunks = new double[n][];
+            integers = new long[n][];
+            counts = new int[n];
+            long sum = 0;
+            for(int c = 0; c < n; c++) {
+                Chunk chunk = tasks.get(c).get();
+                chunks[c] = chunk.numbers;
+                integers[c] = chunk.integers;
+                counts[c] = chunk.count;
+                sum += chunk.count;
+            }
+            total = sum;
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("could not read " + path, e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while reading " + path, e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalArgumentException("could not read " + path, e.getCause());
+        }
+    }
+
+    // returns the chunk boundaries, every inner boundary is just after a '\n'
+    private static long[] split(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long n = Math.max(4L * parallelism, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long step = Math.max(1, Math.min(MAX_CHUNK_BYTES, size / n));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long at = step;
+        while (at < size) {
+            // move forward to the byte after the next line break
+            long next = -1;
+            long p = at;
+            while (next == -1 && p < size) {
+                probe.clear();
+                int read = channel.read(probe, p);
+                if (read <= 0) break;
+                for(int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        next = p + i + 1;
+                        break;
+                    }
+                }
+                p += read;
+            }
+            if (next == -1 || next >= size) break;
+            bounds.add(next);
+            at = next + step;
+        }
+        bounds.add(size);
+        long[] a = new long[bounds.size()];
+        for(int i = 0; i < a.length; i++) {
+            a[i] = bounds.get(i);
+        }
+        return a;
+    }
+
+    // the numbers scanned from one chunk
+    private static class Chunk {
+        final double[] numbers;
+        final long[] integers; // bit i = is numbers[i] written as an integer?
+        final int count;
+
+        Chunk(double[] numbers, long[] integers, int count) {
+            this.numbers = numbers;
+            this.integers = integers;
+            this.count = count;
+        }
+    }
+
+    // reads the bytes [from, to) and scans the numbers in them
+    private static class ScanTask implements Callable<Chunk> {
+        private final FileChannel channel;
+        private final long from;
+        private final long to;
+
+        ScanTask(FileChannel channel, long from, long to) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Chunk call() throws IOException {
+            byte[] bytes = new byte[(int) (to - from)];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, from + buffer.position());
+                if (read < 0) throw new IOException("unexpected end of file");
+            }
+            return scan(bytes);
+        }
+    }
+
+    private static Chunk scan(byte[] bytes) {
+        double[] numbers = new double[bytes.length / 8 + 16];
+        long[] integers = new long[numbers.length / 64 + 1];
+        int count = 0;
+        int i = 0;
+        int n = bytes.length;
+        while (true) {
+            while (i < n && isSpace(bytes[i])) i++;
+            if (i == n) break;
+            int start = i;
+            while (i < n && !isSpace(bytes[i])) i++;
+            if (count == numbers.length) {
+                double[] copy = new double[2 * count];
+                System.arraycopy(numbers, 0, copy, 0, count);
+                numbers = copy;
+                integers = Arrays.copyOf(integers, copy.length / 64 + 1);
+            }
+            if (isInteger(bytes, start, i)) integers[count >>> 6] |= 1L << count;
+            numbers[count++] = parse(bytes, start, i);
+        }
+        return new Chunk(numbers, integers, count);
+    }
+
+    // is bytes[from, to) a sign and digits only, as Integer.parseInt wants?
+    // whether the value fits in an int is checked on the parsed number
+    private static boolean isInteger(byte[] bytes, int from, int to) {
+        int i = from;
+        if (bytes[i] == '-' || bytes[i] == '+') i++;
+        if (i == to) return false;
+        for(; i < to; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+
+    // powers of ten that are exact doubles
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // parses bytes[from, to) as a number.
+    // when the digits fit in 2^53 and the decimal exponent in [-22, 22]
+    // one exact multiplication or division gives the correctly rounded value,
+    // the same as Double.parseDouble. Other tokens fall back to Double.parseDouble.
+    private static double parse(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (bytes[i] == '-' || bytes[i] == '+') {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0; // number of digits after the decimal point
+        boolean point = false;
+        boolean sawDigit = false;
+        for(; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                sawDigit = true;
+                if (digits > 0 || b != '0') digits++;
+                if (digits > 18) return slowParse(bytes, from, to);
+                mantissa = 10 * mantissa + (b - '0');
+                if (point) scale++;
+            }
+            else if (b == '.' && !point) {
+                point = true;
+            }
+            else break;
+        }
+        if (!sawDigit) return slowParse(bytes, from, to);
+        int exponent = 0;
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            if (i == to) return slowParse(bytes, from, to);
+            for(; i < to; i++) {
+                byte b = bytes[i];
+                if (b < '0' || b > '9' || exponent > 1000) return slowParse(bytes, from, to);
+                exponent = 10 * exponent + (b - '0');
+            }
+            if (negativeExponent) exponent = -exponent;
+        }
+        if (i != to) return slowParse(bytes, from, to);
+
+        exponent -= scale;
+        double value;
+        if (mantissa == 0) value = 0.0;
+        else if (mantissa >= (1L << 53) || exponent < -22 || exponent > 22) return slowParse(bytes, from, to);
+        else if (exponent < 0) value = mantissa / POW10[-exponent];
+        else value = mantissa * POW10[exponent];
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(byte[] bytes, int from, int to) {
+        String token = new String(bytes, from, to - from, StandardCharsets.US_ASCII);
+        try {
+            return Double.parseDouble(token);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number " + token + " in edge-list file", e);
+        }
+    }
+
+    // walks the numbers of all chunks in file order
+    private class Cursor {
+        private int chunk;
+        private int i;
+
+        double next() {
+            while (chunk < chunks.length && i == counts[chunk]) {
+                chunk++;
+                i = 0;
+            }
+            if (chunk == chunks.length) throw new IllegalArgumentException("invalid input format: too few numbers");
+            return chunks[chunk][i++];
+        }
+
+        // like In.readInt, a number written with a point, an exponent or a suffix is no integer
+        int nextInt() {
+            double x = next();
+            boolean integer = (integers[chunk][(i - 1) >>> 6] & (1L << (i - 1))) != 0;
+            int v = (int) x;
+            if (!integer || v != x) throw new IllegalArgumentException("invalid input format: " + x + " is not an integer");
+            return v;
+        }
+    }
+
+    // checks the header and the number of numbers for the edge width
+    private Cursor header(int width, int[] ve) {
+        Cursor in = new Cursor();
+        ve[0] = in.nextInt();
+        ve[1] = in.nextInt();
+        if (ve[0] < 0) throw new IllegalArgumentException("number of vertices must be nonnegative");
+        if (ve[1] < 0) throw new IllegalArgumentException("number of edges must be nonnegative");
+        if (total < 2 + (long) width * ve[1])
+            throw new IllegalArgumentException("invalid input format: expected " + ve[1] + " edges");
+        return in;
+    }
+
+    /**
+     * Returns the total number of numbers scanned from the file.
+     */
+    public long size() {
+        return total;
+    }
+
+    /**
+     * Builds a {@link Digraph} with the same adjacency lists as {@link Digraph#Digraph(In)}.
+     */
+    public Digraph digraph() {
+        int[] ve = new int[2];
+        Cursor in = header(2, ve);
+        Digraph G = new Digraph(ve[0]);
+        for(int i = 0; i < ve[1]; i++) {
+            int v = in.nextInt();
+            int w = in.nextInt();
+            G.addEdge(v, w);
+        }
+        return G;
+    }
+
+    /**
+     * Builds a {@link CSRDigraph} with the same adjacency lists as {@link Digraph#Digraph(In)}.
+     */
+    public CSRDigraph csrDigraph() {
+        int[] ve = new int[2];
+        Cursor in = header(2, ve);
+        int[] from = new int[ve[1]];
+        int[] to = new int[ve[1]];
+        for(int i = 0; i < ve[1]; i++) {
+            from[i] = in.nextInt();
+            to[i] = in.nextInt();
+        }
+        return new CSRDigraph(ve[0], from, to);
+    }
+
+    /**
+     * Builds an {@link EdgeWeightedDigraph} with the same adjacency lists as
+     * {@link EdgeWeightedDigraph#EdgeWeightedDigraph(In)}.
+     */
+    public EdgeWeightedDigraph edgeWeightedDigraph() {
+        int[] ve = new int[2];
+        Cursor in = header(3, ve);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(ve[0]);
+        for(int i = 0; i < ve[1]; i++) {
+            int v = in.nextInt();
+            int w = in.nextInt();
+            double weight = in.next();
+            G.addEdge(new DirectedEdge(v, w, weight));
+        }
+        return G;
+    }
+
+    /**
+     * Builds a {@link CSREdgeWeightedDigraph} with the same adjacency lists as
+     * {@link EdgeWeightedDigraph#EdgeWeightedDigraph(In)}.
+     */
+    public CSREdgeWeightedDigraph csrEdgeWeightedDigraph() {
+        int[] ve = new int[2];
+        Cursor in = header(3, ve);
+        int[] from = new int[ve[1]];
+        int[] to = new int[ve[1]];
+        double[] weight = new double[ve[1]];
+        for(int i = 0; i < ve[1]; i++) {
+            from[i] = in.nextInt();
+            to[i] = in.nextInt();
+            weight[i] = in.next();
+        }
+        return new CSREdgeWeightedDigraph(ve[0], from, to, weight);
+    }
+
+    /**
+     * Builds an {@link EdgeWeightedGraph} with the same adjacency lists as
+     * {@link EdgeWeightedGraph#EdgeWeightedGraph(In)}.
+     */
+    public EdgeWeightedGraph edgeWeightedGraph() {
+        int[] ve = new int[2];
+        Cursor in = header(3, ve);
+        EdgeWeightedGraph G = new EdgeWeightedGraph(ve[0]);
+        for(int i = 0; i < ve[1]; i++) {
+            int v = in.nextInt();
+            int w = in.nextInt();
+            double weight = in.next();
+            G.addEdge(new Edge(v, w, weight));
+        }
+        return G;
+    }
+
+    // unit test code
+    // ParallelGraphReader mediumEWD.txt threads
+    public static void main(String[] args) {
+        String path = args[0];
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Stopwatch timer = new Stopwatch();
+        EdgeWeightedDigraph sequential = new EdgeWeightedDigraph(new In(path));
+        StdOut.printf("In:       %.3f s\n", timer.elapsedTime());
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        timer = new Stopwatch();
+        EdgeWeightedDigraph parallel = new ParallelGraphReader(path, pool).edgeWeightedDigraph();
+        StdOut.printf("parallel: %.3f s with %d threads\n", timer.elapsedTime(), threads);
+        pool.shutdown();
+
+        StdOut.println("same graph: " + sequential.toString().equals(parallel.toString()));
+    }
+}
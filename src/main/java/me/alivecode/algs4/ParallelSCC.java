@@ -0,0 +1,432 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code ParallelSCC} class computes the strongly connected components
+ * of a digraph on a {@link ForkJoinPool}, by the forward-backward
+ * algorithm with trimming.
+ * <p>
+ * First the vertices without incoming or outgoing edge are trimmed, level
+ * by level and in parallel: each one is a component by itself, and removing it
+ * may expose more. Then, for a set of vertices, the vertices reached forward
+ * and backward from a random pivot within the set are searched by parallel
+ * breadth-first searches. Those reached both ways are the component of the
+ * pivot, and the ones reached forward only, backward only or not at all
+ * are three sets without edges between their components, split off as
+ * independent tasks. A set of at most {@code SEQUENTIAL} vertices is packed and
+ * handed to {@link PearceSCC}.
+ * <p>
+ * Every set is a color in one {@link AtomicIntegerArray}: the searches move
+ * a vertex from its set to the forward, backward or component color by
+ * compare-and-set, so each vertex is claimed once per search without locks.
+ * The component ids are the same as {@link KosarajuSharirSCC} up to relabeling,
+ * and their order is not specified.
+ */
+public class ParallelSCC {
+    private static final int GRAIN = 1024;         // frontier vertices handled by one task
+    private static final int SEQUENTIAL = 1 << 12; // sets solved by PearceSCC
+
+    private final int[] id; // id[v] = component of v
+    private int count;      // number of strongly connected components
+
+    /**
+     * Computes the strongly connected components of the digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the digraph
+     */
+    public ParallelSCC(Digraph G) {
+        this(new CSRDigraph(G), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the strongly connected components of the compressed digraph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the compressed digraph
+     */
+    public ParallelSCC(CSRDigraph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the strongly connected components of the compressed digraph {@code G}
+     * on the fork-join pool {@code pool}.
+     *
+     * @param G the compressed digraph
+     * @param pool the pool running the searches
+     */
+    public ParallelSCC(CSRDigraph G, ForkJoinPool pool) {
+        int V = G.V();
+        Decomposition decomposition = new Decomposition(G);
+        pool.invoke(decomposition);
+
+        // colors are not dense, trimmed vertices have negative ones
+        id = new int[V];
+        int[] dense = new int[decomposition.colors.get()];
+        Arrays.fill(dense, -1);
+        for(int v = 0; v < V; v++) {
+            int c = decomposition.color.get(v);
+            if (c < 0) {
+                id[v] = count++;
+            }
+            else {
+                if (dense[c] == -1) dense[c] = count++;
+                id[v] = dense[c];
+            }
+        }
+    }
+
+    // a growable list of vertices filled by one task
+    private static class Buffer {
+        private int[] a = new int[16];
+        private int n;
+
+        void add(int v) {
+            if (n == a.length) a = Arrays.copyOf(a, 2 * n);
+            a[n++] = v;
+        }
+    }
+
+    // what a breadth-first search does with one vertex of its frontier
+    private interface Step {
+        void visit(int v, Buffer next);
+    }
+
+    // runs step on frontier[lo..hi), appending the next frontier to next[]
+    private static class Expand extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] frontier;
+        private final int lo, hi;
+        private final int[] next;
+        private final AtomicInteger size;
+        private final Step step;
+
+        Expand(int[] frontier, int lo, int hi, int[] next, AtomicInteger size, Step step) {
+            this.frontier = frontier;
+            this.lo = lo;
+            this.hi = hi;
+            this.next = next;
+            this.size = size;
+            this.step = step;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Expand(frontier, lo, mid, next, size, step),
+                          new Expand(frontier, mid, hi, next, size, step));
+                return;
+            }
+            Buffer out = new Buffer();
+            for(int p = lo; p < hi; p++) {
+                step.visit(frontier[p], out);
+            }
+            int at = size.getAndAdd(out.n);
+            System.arraycopy(out.a, 0, next, at, out.n);
+        }
+    }
+
+    // the vertices reached from frontier[0..n) by step, level by level.
+    // next[] must hold all of them.
+    private static void search(int[] frontier, int n, int[] next, Step step) {
+        while (n > 0) {
+            AtomicInteger size = new AtomicInteger();
+            new Expand(frontier, 0, n, next, size, step).invoke();
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+            n = size.get();
+        }
+    }
+
+    // the whole decomposition, run as a task of the pool
+    private static class Decomposition extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CSRDigraph G;
+        private final CSRDigraph R;
+        private final AtomicIntegerArray color; // color[v] = set or component of v
+        private final AtomicInteger colors;     // next free color
+        private final int[] local;              // local[v] = index of v in its packed set
+
+        Decomposition(CSRDigraph G) {
+            this.G = G;
+            this.R = G.reverse();
+            int V = G.V();
+            color = new AtomicIntegerArray(V);
+            colors = new AtomicInteger(1);
+            local = new int[V];
+        }
+
+        @Override
+        protected void compute() {
+            int V = G.V();
+            trim();
+            int n = 0;
+            for(int v = 0; v < V; v++) {
+                if (color.get(v) == 0) n++;
+            }
+            int[] set = new int[n];
+            n = 0;
+            for(int v = 0; v < V; v++) {
+                if (color.get(v) == 0) set[n++] = v;
+            }
+            if (n > 0) new Split(this, set, 0).invoke();
+        }
+
+        // removes the vertices of color 0 without incoming or outgoing edge
+        // from color 0, and gives each one the color -(v+1)
+        private void trim() {
+            int V = G.V();
+            final AtomicIntegerArray in = new AtomicIntegerArray(V);
+            final AtomicIntegerArray out = new AtomicIntegerArray(V);
+            Buffer first = new Buffer();
+            for(int v = 0; v < V; v++) {
+                in.set(v, R.end(v) - R.begin(v));
+                out.set(v, G.end(v) - G.begin(v));
+                if (in.get(v) == 0 || out.get(v) == 0) {
+                    color.set(v, -(v + 1));
+                    first.add(v);
+                }
+            }
+            int[] frontier = Arrays.copyOf(first.a, V);
+            search(frontier, first.n, new int[V], new Step() {
+                public void visit(int v, Buffer next) {
+                    for(int i = G.begin(v); i < G.end(v); i++) {
+                        int w = G.target(i);
+                        if (in.decrementAndGet(w) == 0 && color.compareAndSet(w, 0, -(w + 1))) next.add(w);
+                    }
+                    for(int i = R.begin(v); i < R.end(v); i++) {
+                        int u = R.target(i);
+                        if (out.decrementAndGet(u) == 0 && color.compareAndSet(u, 0, -(u + 1))) next.add(u);
+                    }
+                }
+            });
+        }
+
+        // the components of the vertices of color c, set[0..n), found by PearceSCC
+        private void solve(int[] set, final int c) {
+            int n = set.length;
+            for(int p = 0; p < n; p++) {
+                local[set[p]] = p;
+            }
+            int m = 0;
+            for(int v : set) {
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    if (color.get(G.target(i)) == c) m++;
+                }
+            }
+            int[] from = new int[m];
+            int[] to = new int[m];
+            m = 0;
+            for(int v : set) {
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    int w = G.target(i);
+                    if (color.get(w) == c) {
+                        from[m] = local[v];
+                        to[m++] = local[w];
+                    }
+                }
+            }
+            PearceSCC scc = new PearceSCC(new CSRDigraph(n, from, to));
+            int base = colors.getAndAdd(scc.count());
+            for(int p = 0; p < n; p++) {
+                color.set(set[p], base + scc.id(p));
+            }
+        }
+    }
+
+    // the components of the vertices of color c, set[0..n)
+    private static class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Decomposition d;
+        private final int[] set;
+        private final int c;
+
+        Split(Decomposition d, int[] set, int c) {
+            this.d = d;
+            this.set = set;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            int n = set.length;
+            if (n <= SEQUENTIAL) {
+                d.solve(set, c);
+                return;
+            }
+            final CSRDigraph G = d.G;
+            final CSRDigraph R = d.R;
+            final AtomicIntegerArray color = d.color;
+            final int forward = d.colors.getAndIncrement();
+            final int backward = d.colors.getAndIncrement();
+            final int component = d.colors.getAndIncrement();
+            int pivot = set[ThreadLocalRandom.current().nextInt(n)];
+
+            // c -> forward for the vertices reached from pivot
+            int[] frontier = new int[n];
+            int[] next = new int[n];
+            color.set(pivot, forward);
+            frontier[0] = pivot;
+            search(frontier, 1, next, new Step() {
+                public void visit(int v, Buffer out) {
+                    for(int i = G.begin(v); i < G.end(v); i++) {
+                        int w = G.target(i);
+                        if (color.get(w) == c && color.compareAndSet(w, c, forward)) out.add(w);
+                    }
+                }
+            });
+
+            // forward -> component and c -> backward for the vertices reaching pivot
+            color.set(pivot, component);
+            frontier[0] = pivot;
+            search(frontier, 1, next, new Step() {
+                public void visit(int v, Buffer out) {
+                    for(int i = R.begin(v); i < R.end(v); i++) {
+                        int u = R.target(i);
+                        int k = color.get(u);
+                        if (k == forward) {
+                            if (color.compareAndSet(u, forward, component)) out.add(u);
+                        }
+                        else if (k == c) {
+                            if (color.compareAndSet(u, c, backward)) out.add(u);
+                        }
+                    }
+                }
+            });
+
+            int[] sizes = new int[3];
+            for(int v : set) {
+                int k = color.get(v);
+                if (k == forward) sizes[0]++;
+                else if (k == backward) sizes[1]++;
+                else if (k == c) sizes[2]++;
+            }
+            int[][] parts = { new int[sizes[0]], new int[sizes[1]], new int[sizes[2]] };
+            Arrays.fill(sizes, 0);
+            for(int v : set) {
+                int k = color.get(v);
+                if (k == forward) parts[0][sizes[0]++] = v;
+                else if (k == backward) parts[1][sizes[1]++] = v;
+                else if (k == c) parts[2][sizes[2]++] = v;
+            }
+            invokeAll(new Split(d, parts[0], forward),
+                      new Split(d, parts[1], backward),
+                      new Split(d, parts[2], c));
+        }
+    }
+
+    private void validateVertex(int v) {
+        int V = id.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns the number of strongly connected components.
+     *
+     * @return the number of strongly connected components
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the component of vertex {@code v}, between 0 and {@code count()}-1.
+     *
+     * @param v the vertex
+     * @return the component of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int id(int v) {
+        validateVertex(v);
+        return id[v];
+    }
+
+    /**
+     * Are vertices {@code v} and {@code w} in the same strongly connected component?
+     *
+     * @param v one vertex
+     * @param w the other vertex
+     * @return {@code true} if {@code v} and {@code w} are strongly connected,
+     * {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public boolean stronglyConnected(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return id[v] == id[w];
+    }
+
+    // unit test code
+    // ParallelSCC tinyDG.txt
+    // ParallelSCC -random V E
+    // runs on 1, 2, 4, ... threads and compares with KosarajuSharirSCC
+    public static void main(String[] args) {
+        CSRDigraph G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            int[] from = new int[E];
+            int[] to = new int[E];
+            for(int i = 0; i < E; i++) {
+                from[i] = StdRandom.uniform(V);
+                to[i] = StdRandom.uniform(V);
+            }
+            G = new CSRDigraph(V, from, to);
+        }
+        else {
+            G = new CSRDigraph(new In(args[0]));
+        }
+
+        Stopwatch timer = new Stopwatch();
+        KosarajuSharirSCC kosaraju = new KosarajuSharirSCC(G);
+        StdOut.printf("KosarajuSharirSCC  %.3f s, %d components\n", timer.elapsedTime(), kosaraju.count());
+        timer = new Stopwatch();
+        PearceSCC pearce = new PearceSCC(G);
+        StdOut.printf("PearceSCC          %.3f s, %d components\n", timer.elapsedTime(), pearce.count());
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for(int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = Double.POSITIVE_INFINITY;
+            ParallelSCC scc = null;
+            for(int run = 0; run < 3; run++) {
+                timer = new Stopwatch();
+                scc = new ParallelSCC(G, pool);
+                best = Math.min(best, timer.elapsedTime());
+            }
+            pool.shutdown();
+            if (threads == 1) single = best;
+
+            // the same partition: the ids map one to one
+            int errors = scc.count() == kosaraju.count() ? 0 : 1;
+            int[] map = new int[scc.count()];
+            Arrays.fill(map, -1);
+            for(int v = 0; v < G.V(); v++) {
+                int k = scc.id(v);
+                if (map[k] == -1) map[k] = kosaraju.id(v);
+                else if (map[k] != kosaraju.id(v)) errors++;
+            }
+            StdOut.printf("%2d threads         %.3f s, speedup %.2f, %d components, %d errors\n",
+                    threads, best, single / best, scc.count(), errors);
+            if (threads == processors) break;
+        }
+    }
+}
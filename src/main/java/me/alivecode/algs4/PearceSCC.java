@@ -0,0 +1,282 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code PearceSCC} class computes the strongly connected components
+ * of a digraph in one depth-first pass, by Pearce's space-efficient
+ * variant of Tarjan's algorithm.
+ * <p>
+ * Unlike {@link KosarajuSharirSCC} it does not build the reverse digraph
+ * nor run a second search. Every vertex has one {@code rindex} entry, which is
+ * its lowest reachable preorder number while it is searched and its component
+ * once it is done, so there is no separate lowlink nor on-stack flag.
+ * The search is iterative: the call stack and the stack of vertices waiting
+ * for their component share one {@code int} array, growing from both ends,
+ * since no vertex is on both. Besides the digraph the search takes
+ * three {@code int}s per vertex, and only {@code id[]} is kept.
+ * <p>
+ * The components are numbered in the order they are completed, so every
+ * edge between two components goes from the higher id to the lower one,
+ * and decreasing ids are a topological order of the {@link #condensation()}.
+ */
+public class PearceSCC {
+    private final CSRDigraph G;
+    private final int[] id; // id[v] = component of v
+    private final int count; // number of strongly connected components
+    private CSRDigraph condensation;
+
+    /**
+     * Computes the strongly connected components of the digraph {@code G}.
+     *
+     * @param G the digraph
+     */
+    public PearceSCC(Digraph G) {
+        this(new CSRDigraph(G));
+    }
+
+    /**
+     * Computes the strongly connected components of the compressed digraph {@code G}.
+     *
+     * @param G the compressed digraph
+     */
+    public PearceSCC(CSRDigraph G) {
+        this.G = G;
+        int V = G.V();
+        // rindex[v] = 0 before v is reached, then the smallest preorder number
+        // reachable from v, then V-1 minus its component once it is done.
+        // the values of completed vertices are larger than any preorder
+        // number still in use, so they never lower an rindex.
+        int[] rindex = new int[V];
+        int[] cursor = new int[V]; // cursor[v] = next edge of v to follow
+        int[] stack = new int[V];  // stack[0..sp) call stack, ~v for a vertex not root, stack[cs..V) waiting vertices
+        int index = 1;
+        int c = V - 1;
+        int cs = V;
+
+        for(int s = 0; s < V; s++) {
+            if (rindex[s] != 0) continue;
+            int sp = 0;
+            rindex[s] = index++;
+            cursor[s] = G.begin(s);
+            stack[sp++] = s;
+
+            while (sp > 0) {
+                int top = stack[sp - 1];
+                int v = top >= 0 ? top : ~top;
+                int i = cursor[v];
+                if (i < G.end(v)) {
+                    int w = G.target(i);
+                    if (rindex[w] == 0) {
+                        // edge i is followed again once w is done
+                        rindex[w] = index++;
+                        cursor[w] = G.begin(w);
+                        stack[sp++] = w;
+                        continue;
+                    }
+                    cursor[v] = i + 1;
+                    if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        stack[sp - 1] = ~v;
+                    }
+                    continue;
+                }
+
+                sp--;
+                if (top < 0) {
+                    stack[--cs] = v;
+                    continue;
+                }
+                // v is the root of a component: the waiting vertices
+                // searched after it belong to it
+                index--;
+                while (cs < V && rindex[v] <= rindex[stack[cs]]) {
+                    rindex[stack[cs++]] = c;
+                    index--;
+                }
+                rindex[v] = c--;
+            }
+        }
+
+        count = V - 1 - c;
+        for(int v = 0; v < V; v++) {
+            rindex[v] = V - 1 - rindex[v];
+        }
+        id = rindex;
+    }
+
+    private void validateVertex(int v) {
+        int V = id.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns the number of strongly connected components.
+     *
+     * @return the number of strongly connected components
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the component of vertex {@code v}, between 0 and {@code count()}-1.
+     *
+     * @param v the vertex
+     * @return the component of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int id(int v) {
+        validateVertex(v);
+        return id[v];
+    }
+
+    /**
+     * Are vertices {@code v} and {@code w} in the same strongly connected component?
+     *
+     * @param v one vertex
+     * @param w the other vertex
+     * @return {@code true} if {@code v} and {@code w} are strongly connected,
+     * {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public boolean stronglyConnected(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return id[v] == id[w];
+    }
+
+    /**
+     * Returns the condensation of the digraph: one vertex per component and
+     * one edge from {@code id(v)} to {@code id(w)} for every pair of different
+     * components joined by at least one edge {@code v->w}. It is a DAG whose
+     * edges all go from a higher to a lower component.
+     * It is built on the first call.
+     *
+     * @return the condensation DAG
+     */
+    public CSRDigraph condensation() {
+        if (condensation != null) return condensation;
+        int V = G.V();
+
+        // the vertices grouped by component
+        int[] first = new int[count + 1];
+        for(int v = 0; v < V; v++) {
+            first[id[v] + 1]++;
+        }
+        for(int k = 0; k < count; k++) {
+            first[k + 1] += first[k];
+        }
+        int[] next = Arrays.copyOf(first, count);
+        int[] members = new int[V];
+        for(int v = 0; v < V; v++) {
+            members[next[id[v]]++] = v;
+        }
+
+        // last[d] = last component with an edge to d, to skip parallel edges.
+        // the edges are counted in a first pass and stored in a second one.
+        int[] offsets = new int[count + 1];
+        int[] last = new int[count];
+        Arrays.fill(last, -1);
+        for(int k = 0; k < count; k++) {
+            for(int p = first[k]; p < first[k + 1]; p++) {
+                int v = members[p];
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    int d = id[G.target(i)];
+                    if (d != k && last[d] != k) {
+                        last[d] = k;
+                        offsets[k + 1]++;
+                    }
+                }
+            }
+        }
+        for(int k = 0; k < count; k++) {
+            offsets[k + 1] += offsets[k];
+        }
+
+        int[] targets = new int[offsets[count]];
+        int[] indegree = new int[count];
+        Arrays.fill(last, -1);
+        for(int k = 0; k < count; k++) {
+            int e = offsets[k];
+            for(int p = first[k]; p < first[k + 1]; p++) {
+                int v = members[p];
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    int d = id[G.target(i)];
+                    if (d != k && last[d] != k) {
+                        last[d] = k;
+                        targets[e++] = d;
+                        indegree[d]++;
+                    }
+                }
+            }
+        }
+        condensation = new CSRDigraph(offsets, targets, indegree);
+        return condensation;
+    }
+
+    // unit test code
+    // PearceSCC tinyDG.txt
+    // PearceSCC -random V E
+    // compares with KosarajuSharirSCC
+    public static void main(String[] args) {
+        CSRDigraph G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            int[] from = new int[E];
+            int[] to = new int[E];
+            for(int i = 0; i < E; i++) {
+                from[i] = StdRandom.uniform(V);
+                to[i] = StdRandom.uniform(V);
+            }
+            G = new CSRDigraph(V, from, to);
+        }
+        else {
+            G = new CSRDigraph(new In(args[0]));
+        }
+
+        Stopwatch timer = new Stopwatch();
+        PearceSCC scc = new PearceSCC(G);
+        StdOut.printf("PearceSCC         %.3f s, %d components\n", timer.elapsedTime(), scc.count());
+        timer = new Stopwatch();
+        KosarajuSharirSCC kosaraju = new KosarajuSharirSCC(G);
+        StdOut.printf("KosarajuSharirSCC %.3f s, %d components\n", timer.elapsedTime(), kosaraju.count());
+
+        // the same partition: the ids map one to one
+        int errors = 0;
+        int[] map = new int[scc.count()];
+        Arrays.fill(map, -1);
+        for(int v = 0; v < G.V(); v++) {
+            int k = scc.id(v);
+            if (map[k] == -1) map[k] = kosaraju.id(v);
+            else if (map[k] != kosaraju.id(v)) errors++;
+        }
+        if (scc.count() != kosaraju.count()) errors++;
+
+        timer = new Stopwatch();
+        CSRDigraph dag = scc.condensation();
+        double time = timer.elapsedTime();
+        for(int k = 0; k < dag.V(); k++) {
+            for(int i = dag.begin(k); i < dag.end(k); i++) {
+                if (dag.target(i) >= k) errors++;
+            }
+        }
+        StdOut.printf("condensation      %.3f s, %d vertices, %d edges\n", time, dag.V(), dag.E());
+        StdOut.println(errors + " errors");
+
+        if (G.V() <= 20) {
+            for(int k = 0; k < scc.count(); k++) {
+                for(int v = 0; v < G.V(); v++) {
+                    if (scc.id(v) == k) StdOut.print(v + " ");
+                }
+                StdOut.println();
+            }
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code PushRelabel} class computes a max-flow and a min-cut in a
+ * {@link FlowNetwork} by the push-relabel algorithm of Goldberg and Tarjan,
+ * with the highest-label selection rule and the gap and global relabeling
+ * heuristics.
+ * <p>
+ * The residual network is packed in arrays: the arcs leaving vertex
+ * <em>v</em> are {@code first[v]} to {@code first[v+1]}-1, each edge giving
+ * one arc at its tail and its reverse arc at its head, with their residual
+ * capacities. Every active vertex, a vertex with excess, pushes its excess
+ * along the arcs to the vertices whose label is one less, and is relabeled
+ * when it has none. The active vertex of highest label is discharged first.
+ * <p>
+ * The labels are exact distances to the sink, or to the source plus
+ * <em>V</em> for the vertices cut off from the sink, after a global
+ * relabeling: a breadth-first search run at the start and whenever the
+ * relabels have done work in proportion to <em>V</em> + <em>E</em>. When the
+ * last vertex of a label under <em>V</em> is relabeled, the vertices above
+ * it cannot reach the sink any more and are lifted above <em>V</em> at once,
+ * the gap heuristic. The excess that cannot reach the sink then goes back
+ * to the source in the same run, so the result is a flow, written back to
+ * the edges of the network as {@link FordFulkerson} does.
+ * <p>
+ * The worst case is O(<em>V</em><sup>2</sup> &radic;<em>E</em>) time; the
+ * heuristics make it much faster in practice.
+ */
+public class PushRelabel {
+    private static final double FLOATING_POINT_EPSILON = 1E-11;
+    private static final int ALPHA = 6;  // a global relabeling every ALPHA V + E units of work
+    private static final int BETA = 12;  // units of work of a relabel, plus the degree
+
+    private final int V;          // number of vertices in the given FlowNetwork
+    private final int s, t;       // source and sink
+    private final int[] first;    // the arcs leaving v are first[v] to first[v+1]-1
+    private final int[] head;     // head[a] = vertex arc a points to
+    private final int[] rev;      // rev[a] = reverse arc of arc a
+    private final double[] cap;   // cap[a] = residual capacity of arc a
+    private final int[] label;    // label[v] = distance label of v
+    private final double[] excess;// excess[v] = flow into v minus flow out of v
+    private final int[] cur;      // cur[v] = current arc of v
+    private final int[] queue;    // queue of the breadth-first searches
+    private final double epsilon; // excess up to epsilon is rounding error, taken as none
+
+    // active[h] = first active vertex of label h, linked by nextActive
+    private final int[] active, nextActive;
+    // all[h] = first vertex of label h < V, doubly linked by nextAll and prevAll
+    private final int[] all, nextAll, prevAll;
+    private int maxActive;        // no active vertex has a label above maxActive
+    private int maxLabel;         // no vertex has a label between maxLabel and V
+
+    private long work;            // work of the relabels since the last global relabeling
+    private int relabels;         // number of relabels
+    private int globalRelabels;   // number of global relabelings
+    private int gaps;             // number of gaps
+
+    private boolean[] marked;     // marked[v] = is v in min-cut?
+    private double value;         // max-flow
+
+    /**
+     * Compute max-flow and find min-cut.
+     * @param G the flow-network
+     * @param s the source
+     * @param t the sink
+     */
+    public PushRelabel(FlowNetwork G, int s, int t) {
+        V = G.V();
+        validateVertex(s);
+        validateVertex(t);
+        if (s == t) throw new IllegalArgumentException("Source equals sink");
+        this.s = s;
+        this.t = t;
+
+        // the residual network, starting from the flow of the edges
+        first = new int[V + 1];
+        FlowEdge[] edges = new FlowEdge[G.E()];
+        int E = 0;
+        double maxCapacity = 1.0;
+        for(FlowEdge e : G.edges()) {
+            if (e.flow() < -FLOATING_POINT_EPSILON || e.flow() > e.capacity() + FLOATING_POINT_EPSILON)
+                throw new IllegalArgumentException("Initial flow is infeasible");
+            maxCapacity = Math.max(maxCapacity, e.capacity());
+            first[e.from() + 1]++;
+            first[e.to() + 1]++;
+            edges[E++] = e;
+        }
+        for(int v = 0; v < V; v++) {
+            first[v + 1] += first[v];
+        }
+        epsilon = FLOATING_POINT_EPSILON * maxCapacity;
+        head = new int[2 * E];
+        rev = new int[2 * E];
+        cap = new double[2 * E];
+        excess = new double[V];
+        int[] next = first.clone();
+        int[] arc = new int[E]; // arc[i] = arc of edges[i] at its tail
+        for(int i = 0; i < E; i++) {
+            FlowEdge e = edges[i];
+            int a = next[e.from()]++;
+            int b = next[e.to()]++;
+            head[a] = e.to();
+            head[b] = e.from();
+            rev[a] = b;
+            rev[b] = a;
+            cap[a] = e.capacity() - e.flow();
+            cap[b] = e.flow();
+            excess[e.from()] -= e.flow();
+            excess[e.to()] += e.flow();
+            arc[i] = a;
+        }
+        for(int v = 0; v < V; v++) {
+            if (v == s || v == t) continue;
+            if (Math.abs(excess[v]) > FLOATING_POINT_EPSILON)
+                throw new IllegalArgumentException("Initial flow is infeasible");
+            excess[v] = 0.0;
+        }
+
+        label = new int[V];
+        cur = new int[V];
+        queue = new int[V];
+        active = new int[2 * V + 1];
+        nextActive = new int[V];
+        all = new int[V];
+        nextAll = new int[V];
+        prevAll = new int[V];
+
+        // saturates the arcs leaving the source
+        for(int a = first[s]; a < first[s + 1]; a++) {
+            int w = head[a];
+            if (w != s && cap[a] > 0.0) {
+                excess[w] += cap[a];
+                excess[s] -= cap[a];
+                cap[rev[a]] += cap[a];
+                cap[a] = 0.0;
+            }
+        }
+
+        globalRelabel();
+        while (maxActive >= 0) {
+            if (active[maxActive] == -1) {
+                maxActive--;
+                continue;
+            }
+            int v = active[maxActive];
+            active[maxActive] = nextActive[v];
+            discharge(v);
+            if (work > (long) ALPHA * V + head.length) globalRelabel();
+        }
+
+        // writes the flow back to the edges, the rounding of the pushes
+        // may have taken it slightly out of [0, capacity]
+        for(int i = 0; i < E; i++) {
+            FlowEdge e = edges[i];
+            double flow = Math.min(Math.max(cap[rev[arc[i]]], 0.0), e.capacity());
+            double delta = flow == e.capacity() ? e.residualCapacityTo(e.to()) : flow - e.flow();
+            if (delta > 0.0)      e.addResidualFlowTo(e.to(), delta);
+            else if (delta < 0.0) e.addResidualFlowTo(e.from(), -delta);
+        }
+        value = excess[t];
+        cut();
+
+        assert check(G, s, t);
+    }
+
+    // pushes the excess of active vertex v, relabeling it if some is left
+    private void discharge(int v) {
+        if (excess[v] <= epsilon) return;
+        int h = label[v];
+        for(int a = cur[v]; a < first[v + 1]; a++) {
+            int w = head[a];
+            if (cap[a] > 0.0 && label[w] == h - 1) {
+                double delta = Math.min(excess[v], cap[a]);
+                if (excess[w] <= epsilon && excess[w] + delta > epsilon && w != t && w != s) {
+                    nextActive[w] = active[h - 1];
+                    active[h - 1] = w;
+                }
+                cap[a] -= delta;
+                cap[rev[a]] += delta;
+                excess[v] -= delta;
+                excess[w] += delta;
+                if (excess[v] <= epsilon) {
+                    cur[v] = a;
+                    return;
+                }
+            }
+        }
+
+        // the last vertex of its label below V: a gap
+        if (h < V && all[h] == v && nextAll[v] == -1) {
+            gaps++;
+            for(int k = h; k <= maxLabel; k++) {
+                for(int u = all[k]; u != -1; u = nextAll[u]) {
+                    label[u] = V + 1;
+                    cur[u] = first[u];
+                }
+                all[k] = -1;
+            }
+            maxLabel = h - 1;
+        }
+        else if (!relabel(v)) {
+            // a residual arc always leads back to s unless the excess is rounding error
+            return;
+        }
+        h = label[v];
+        nextActive[v] = active[h];
+        active[h] = v;
+        maxActive = Math.max(maxActive, h);
+    }
+
+    // the label of v becomes one more than the lowest label across a residual arc,
+    // returns false and leaves v unchanged if it has no residual arc
+    private boolean relabel(int v) {
+        relabels++;
+        work += BETA + first[v + 1] - first[v];
+        int h = 2 * V;
+        for(int a = first[v]; a < first[v + 1]; a++) {
+            if (cap[a] > 0.0 && label[head[a]] + 1 < h) {
+                h = label[head[a]] + 1;
+                cur[v] = a;
+            }
+        }
+        if (h == 2 * V) return false;
+        if (label[v] < V) unlist(v);
+        label[v] = h;
+        if (h < V) list(v);
+        return true;
+    }
+
+    // adds v to the vertices of its label
+    private void list(int v) {
+        int h = label[v];
+        prevAll[v] = -1;
+        nextAll[v] = all[h];
+        if (all[h] != -1) prevAll[all[h]] = v;
+        all[h] = v;
+        maxLabel = Math.max(maxLabel, h);
+    }
+
+    // removes v from the vertices of its label
+    private void unlist(int v) {
+        if (prevAll[v] != -1) nextAll[prevAll[v]] = nextAll[v];
+        else                  all[label[v]] = nextAll[v];
+        if (nextAll[v] != -1) prevAll[nextAll[v]] = prevAll[v];
+    }
+
+    // exact labels by breadth-first searches from t, then from s, backwards along residual arcs
+    private void globalRelabel() {
+        globalRelabels++;
+        work = 0;
+        for(int v = 0; v < V; v++) {
+            label[v] = -1;
+        }
+        label[s] = V;
+        label[t] = 0;
+        search(t);
+        search(s);
+
+        maxActive = -1;
+        maxLabel = -1;
+        for(int h = 0; h < active.length; h++) {
+            active[h] = -1;
+        }
+        for(int h = 0; h < V; h++) {
+            all[h] = -1;
+        }
+        for(int v = 0; v < V; v++) {
+            if (v == s || v == t) continue;
+            if (label[v] == -1) label[v] = 2 * V - 1; // reaches neither t nor s, never active
+            cur[v] = first[v];
+            if (label[v] < V) list(v);
+            if (excess[v] > epsilon) {
+                nextActive[v] = active[label[v]];
+                active[label[v]] = v;
+                maxActive = Math.max(maxActive, label[v]);
+            }
+        }
+    }
+
+    // labels the vertices with a residual path to root not labeled yet, by their distance
+    private void search(int root) {
+        int n = 0;
+        queue[n++] = root;
+        for(int p = 0; p < n; p++) {
+            int w = queue[p];
+            for(int a = first[w]; a < first[w + 1]; a++) {
+                int u = head[a];
+                if (label[u] == -1 && cap[rev[a]] > 0.0) {
+                    label[u] = label[w] + 1;
+                    queue[n++] = u;
+                }
+            }
+        }
+    }
+
+    // marks the vertices reachable from s in the residual network
+    private void cut() {
+        marked = new boolean[V];
+        int[] queue = new int[V];
+        int n = 0;
+        marked[s] = true;
+        queue[n++] = s;
+        for(int p = 0; p < n; p++) {
+            int v = queue[p];
+            for(int a = first[v]; a < first[v + 1]; a++) {
+                int w = head[a];
+                if (cap[a] > 0.0 && !marked[w]) {
+                    marked[w] = true;
+                    queue[n++] = w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Is {@code v} in min-cut?
+     * @param v the vertex
+     * @return {@code true} if {@code v} is in min-cut,
+     * {@code false} otherwise
+     */
+    public boolean inCut(int v) {
+        validateVertex(v);
+        return marked[v];
+    }
+
+    /**
+     * Returns max-flow of the given flow-network.
+     * @return max-flow of the given flow-network
+     */
+    public double value() {
+        return value;
+    }
+
+    /**
+     * Returns the number of relabels.
+     * @return the number of relabels
+     */
+    public int relabels() {
+        return relabels;
+    }
+
+    /**
+     * Returns the number of global relabelings.
+     * @return the number of global relabelings
+     */
+    public int globalRelabels() {
+        return globalRelabels;
+    }
+
+    /**
+     * Returns the number of gaps found.
+     * @return the number of gaps found
+     */
+    public int gaps() {
+        return gaps;
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    // excess of v in the flow of the edges
+    private static double excess(FlowNetwork G, int v) {
+        double excess = 0.0;
+        for(FlowEdge e : G.adj(v)) {
+            if (e.from() == v) excess -= e.flow();
+            if (e.to() == v)   excess += e.flow();
+        }
+        return excess;
+    }
+
+    // the flow is feasible, its value that of the cut, up to the rounding of the pushes and sums
+    private boolean check(FlowNetwork G, int s, int t) {
+        double tolerance = epsilon * Math.max(1.0, G.E());
+        for(FlowEdge e : G.edges()) {
+            if (e.flow() < 0.0 || e.flow() > e.capacity()) {
+                System.err.println("edge does not satisfy capacity constraint: " + e);
+                return false;
+            }
+        }
+        if (Math.abs(value + excess(G, s)) > tolerance) {
+            System.err.println("excess at source " + excess(G, s));
+            System.err.println("max flow         " + value);
+            return false;
+        }
+        if (Math.abs(value - excess(G, t)) > tolerance) {
+            System.err.println("excess at sink " + excess(G, t));
+            System.err.println("max flow       " + value);
+            return false;
+        }
+        for(int v = 0; v < G.V(); v++) {
+            if (v == s || v == t) continue;
+            if (Math.abs(excess(G, v)) > tolerance) {
+                System.err.println("net flow out of " + v + " does not equal zero");
+                return false;
+            }
+        }
+
+        if (!inCut(s)) {
+            System.err.println(s + " is not on source side of min cut");
+            return false;
+        }
+        if (inCut(t)) {
+            System.err.println(t + " is on source side of min cut");
+            return false;
+        }
+        double mincutValue = 0.0;
+        for(FlowEdge e : G.edges()) {
+            if (inCut(e.from()) && !inCut(e.to())) {
+                mincutValue += e.capacity();
+            }
+        }
+        if (Math.abs(mincutValue - value) > tolerance) {
+            System.err.println("max flow: " + value + ", min cut value: " + mincutValue);
+            return false;
+        }
+        return true;
+    }
+
+    // a copy of the network, flows included
+    private static FlowNetwork copy(FlowNetwork G) {
+        FlowNetwork H = new FlowNetwork(G.V());
+        for(FlowEdge e : G.edges()) {
+            H.addEdge(new FlowEdge(e));
+        }
+        return H;
+    }
+
+    // unit test code
+    // PushRelabel tinyFN.txt
+    // PushRelabel -random V E [capacity]
+    // PushRelabel -layered L W d
+    // the layered network has L layers of W vertices between s and t, each
+    // vertex having d edges to random vertices of the next layer;
+    // compares with FordFulkerson when E <= 50000,
+    // after two parallel edges whose returned excess rounds to 1 ulp
+    public static void main(String[] args) {
+        FlowNetwork rounding = new FlowNetwork(3);
+        rounding.addEdge(new FlowEdge(0, 1, 0.7106383303719895));
+        rounding.addEdge(new FlowEdge(0, 1, 0.6868024604903895));
+        StdOut.printf("rounded excess: max flow %.5f, FordFulkerson %.5f\n",
+                new PushRelabel(copy(rounding), 0, 2).value(), new FordFulkerson(rounding, 0, 2).value());
+
+        FlowNetwork G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            double capacity = args.length > 3 ? Double.parseDouble(args[3]) : 100.0;
+            G = new FlowNetwork(V);
+            for(int i = 0; i < E; i++) {
+                G.addEdge(new FlowEdge(StdRandom.uniform(V), StdRandom.uniform(V), StdRandom.uniform(capacity)));
+            }
+        }
+        else if (args[0].equals("-layered")) {
+            int L = Integer.parseInt(args[1]);
+            int W = Integer.parseInt(args[2]);
+            int d = Integer.parseInt(args[3]);
+            G = new FlowNetwork(L * W + 2);
+            int t = L * W + 1;
+            for(int x = 0; x < W; x++) {
+                G.addEdge(new FlowEdge(0, 1 + x, StdRandom.uniform(100.0)));
+                G.addEdge(new FlowEdge(1 + (L - 1) * W + x, t, StdRandom.uniform(100.0)));
+            }
+            for(int l = 0; l + 1 < L; l++) {
+                for(int x = 0; x < W; x++) {
+                    for(int i = 0; i < d; i++) {
+                        int w = 1 + (l + 1) * W + StdRandom.uniform(W);
+                        G.addEdge(new FlowEdge(1 + l * W + x, w, StdRandom.uniform(100.0)));
+                    }
+                }
+            }
+        }
+        else {
+            G = new FlowNetwork(new In(args[0]));
+        }
+        int s = 0, t = G.V() - 1;
+        boolean compare = G.E() <= 50000;
+        FlowNetwork H = compare ? copy(G) : null;
+
+        Stopwatch timer = new Stopwatch();
+        PushRelabel maxflow = new PushRelabel(G, s, t);
+        StdOut.printf("V = %d, E = %d\n", G.V(), G.E());
+        StdOut.printf("PushRelabel   %.3f s, max flow %.5f, %d relabels, %d global relabelings, %d gaps\n",
+                timer.elapsedTime(), maxflow.value(), maxflow.relabels(), maxflow.globalRelabels(), maxflow.gaps());
+        if (compare) {
+            timer = new Stopwatch();
+            FordFulkerson ff = new FordFulkerson(H, s, t);
+            int differences = 0;
+            for(int v = 0; v < G.V(); v++) {
+                if (ff.inCut(v) != maxflow.inCut(v)) differences++;
+            }
+            StdOut.printf("FordFulkerson %.3f s, max flow %.5f, %d vertices on another side of the cut\n",
+                    timer.elapsedTime(), ff.value(), differences);
+        }
+
+        if (G.V() <= 20) {
+            StdOut.println("Max flow from " + s + " to " + t);
+            for(FlowEdge e : G.edges()) {
+                if (e.flow() > 0) StdOut.println("   " + e);
+            }
+            StdOut.print("Min cut: ");
+            for(int v = 0; v < G.V(); v++) {
+                if (maxflow.inCut(v)) StdOut.print(v + " ");
+            }
+            StdOut.println();
+        }
+    }
+}
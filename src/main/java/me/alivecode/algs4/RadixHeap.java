@@ -0,0 +1,153 @@
+package me.alivecode.algs4;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code RadixHeap} class represents a monotone priority queue of
+ * {@code int} items with nonnegative {@code long} keys.
+ * It is monotone: a key inserted must not be less than the last key removed,
+ * which always holds for Dijkstra's algorithm with integer weights.
+ * <p>
+ * Bucket 0 holds the keys equal to the last removed key,
+ * bucket b holds the keys whose highest bit differing from it is bit b-1.
+ * Every item moves to a lower bucket each time it is touched,
+ * so insert and delMin take amortized O(log C) for keys up to C.
+ * There is no decreaseKey, insert the item again and skip the stale copy.
+ */
+public class RadixHeap {
+    private static final int BUCKETS = 65;
+
+    private final int[][] items = new int[BUCKETS][];
+    private final long[][] keys = new long[BUCKETS][];
+    private final int[] sizes = new int[BUCKETS];
+    private long last; // the last removed key
+    private int n; // number of items
+
+    /**
+     * Initializes an empty radix heap.
+     */
+    public RadixHeap() {
+        for(int b = 0; b < BUCKETS; b++) {
+            items[b] = new int[4];
+            keys[b] = new long[4];
+        }
+    }
+
+    private int bucket(long key) {
+        return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void add(int b, int item, long key) {
+        if (sizes[b] == items[b].length) {
+            int[] itemCopy = new int[2 * sizes[b]];
+            long[] keyCopy = new long[2 * sizes[b]];
+            System.arraycopy(items[b], 0, itemCopy, 0, sizes[b]);
+            System.arraycopy(keys[b], 0, keyCopy, 0, sizes[b]);
+            items[b] = itemCopy;
+            keys[b] = keyCopy;
+        }
+        items[b][sizes[b]] = item;
+        keys[b][sizes[b]] = key;
+        sizes[b]++;
+    }
+
+    /**
+     * Is the heap empty?
+     *
+     * @return {@code true} if the heap is empty, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Returns the number of items in the heap, stale copies included.
+     *
+     * @return the number of items in the heap
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Inserts {@code item} with {@code key}.
+     *
+     * @param item the item
+     * @param key the key
+     * @throws IllegalArgumentException if {@code key} is less than the last removed key
+     */
+    public void insert(int item, long key) {
+        if (key < last) throw new IllegalArgumentException("key " + key + " is less than the last removed key " + last);
+        add(bucket(key), item, key);
+        n++;
+    }
+
+    // moves the smallest keys into bucket 0
+    private void pull() {
+        if (sizes[0] > 0) return;
+        int b = 1;
+        while (sizes[b] == 0) b++;
+        long min = Long.MAX_VALUE;
+        for(int i = 0; i < sizes[b]; i++) {
+            min = Math.min(min, keys[b][i]);
+        }
+        last = min;
+        int size = sizes[b];
+        sizes[b] = 0;
+        int[] bItems = items[b];
+        long[] bKeys = keys[b];
+        for(int i = 0; i < size; i++) {
+            add(bucket(bKeys[i]), bItems[i], bKeys[i]);
+        }
+    }
+
+    /**
+     * Returns the minimum key.
+     *
+     * @return the minimum key
+     */
+    public long minKey() {
+        if (isEmpty()) throw new NoSuchElementException("priority queue underflow");
+        pull();
+        return last;
+    }
+
+    /**
+     * Removes an item with the minimum key and returns it.
+     * Its key is {@link #minKey()} before the call.
+     *
+     * @return an item with the minimum key
+     */
+    public int delMin() {
+        if (isEmpty()) throw new NoSuchElementException("priority queue underflow");
+        pull();
+        n--;
+        return items[0][--sizes[0]];
+    }
+
+    /**
+     * Removes all the items and resets the last removed key to 0.
+     */
+    public void clear() {
+        for(int b = 0; b < BUCKETS; b++) {
+            sizes[b] = 0;
+        }
+        n = 0;
+        last = 0;
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        RadixHeap heap = new RadixHeap();
+        long[] keys = {7, 3, 3, 12, 1024, 5, 8};
+        for(int i = 0; i < keys.length; i++) {
+            heap.insert(i, keys[i]);
+        }
+        while (!heap.isEmpty()) {
+            long key = heap.minKey();
+            StdOut.println(heap.delMin() + " " + key);
+        }
+    }
+}
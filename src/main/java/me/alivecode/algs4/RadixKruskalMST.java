@@ -0,0 +1,276 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * The {@code RadixKruskalMST} class computes a minimum spanning forest
+ * by Kruskal's algorithm, on edges kept in primitive arrays.
+ * <p>
+ * Unlike {@link KruskalMST} it does not box the edges in a {@link MinPQ}:
+ * their weights are turned into {@code long} keys that compare as unsigned
+ * integers in the order of the weights, and the edge indices are sorted by
+ * an LSD radix sort, one byte per pass, in parallel on a {@link ForkJoinPool}.
+ * Every pass counts the bytes of its block of keys, then after a prefix sum
+ * over the blocks moves them to their place; a pass whose byte is the same
+ * for every key is skipped. The edges are then taken in order and joined with
+ * a {@link UF} of <em>V</em> sites, until <em>V</em>-1 edges are taken or the
+ * edges run out.
+ */
+public class RadixKruskalMST {
+    private static final int BLOCK = 1 << 16; // keys of a block, handled by one task
+    private static final int RADIX = 256;     // byte
+
+    private final int[] v, w;        // endpoints of edge i
+    private final double[] weights;  // weights[i] = weight of edge i
+    private final Edge[] source;     // the edges of the graph, or null
+    private final Queue<Integer> mst = new Queue<Integer>(); // indices of the edges in the forest
+    private double weight;           // weight of the forest
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G}
+     * on the common fork-join pool.
+     *
+     * @param G the edge-weighted graph
+     */
+    public RadixKruskalMST(EdgeWeightedGraph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G}
+     * on the fork-join pool {@code pool}.
+     *
+     * @param G the edge-weighted graph
+     * @param pool the pool running the sort
+     */
+    public RadixKruskalMST(EdgeWeightedGraph G, ForkJoinPool pool) {
+        int E = G.E();
+        v = new int[E];
+        w = new int[E];
+        weights = new double[E];
+        source = new Edge[E];
+        int i = 0;
+        for(Edge e : G.edges()) {
+            v[i] = e.either();
+            w[i] = e.other(v[i]);
+            weights[i] = e.weight();
+            source[i++] = e;
+        }
+        kruskal(G.V(), pool);
+    }
+
+    /**
+     * Computes a minimum spanning forest of the graph of <em>V</em> vertices
+     * whose edge {@code i} joins {@code v[i]} and {@code w[i]} and weighs
+     * {@code weight[i]}, on the fork-join pool {@code pool}.
+     * The arrays are not copied nor changed.
+     *
+     * @param V the number of vertices
+     * @param v one endpoint of every edge
+     * @param w the other endpoint of every edge
+     * @param weight the weight of every edge
+     * @param pool the pool running the sort
+     * @throws IllegalArgumentException if the arrays do not have the same length,
+     * if an endpoint is not between 0 and <em>V</em>-1 or if a weight is NaN
+     */
+    public RadixKruskalMST(int V, int[] v, int[] w, double[] weight, ForkJoinPool pool) {
+        if (v.length != w.length || v.length != weight.length) {
+            throw new IllegalArgumentException("arrays of different lengths");
+        }
+        for(int i = 0; i < v.length; i++) {
+            if (v[i] < 0 || v[i] >= V || w[i] < 0 || w[i] >= V) {
+                throw new IllegalArgumentException("edge " + v[i] + "-" + w[i] + " has a vertex not between 0 and " + (V-1));
+            }
+            if (Double.isNaN(weight[i])) throw new IllegalArgumentException("weight is NaN");
+        }
+        this.v = v;
+        this.w = w;
+        this.weights = weight;
+        this.source = null;
+        kruskal(V, pool);
+    }
+
+    private void kruskal(int V, ForkJoinPool pool) {
+        int[] order = sort(weights, pool);
+        UF uf = new UF(V);
+        for(int p = 0; p < order.length && mst.size() < V - 1; p++) {
+            int i = order[p];
+            if (!uf.connected(v[i], w[i])) {
+                uf.union(v[i], w[i]);
+                mst.enqueue(i);
+                weight += weights[i];
+            }
+        }
+    }
+
+    // the bits of d, flipped so that they compare as unsigned longs in the order of
+    // the doubles: all of them for a negative d, the sign bit only otherwise
+    static long key(double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns the indices of {@code weight[]} in increasing order of weight,
+     * equal weights in increasing order of index.
+     *
+     * @param weight the weights, none of them NaN
+     * @param pool the pool running the sort
+     * @return the indices of {@code weight[]} in increasing order of weight
+     */
+    static int[] sort(double[] weight, ForkJoinPool pool) {
+        int n = weight.length;
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        long[] keys = new long[n];
+        int[] index = new int[n];
+        if (n == 0) return index;
+        long[] keys2 = new long[n];
+        int[] index2 = new int[n];
+        pool.invoke(new ParallelFor(0, blocks, 1, b -> {
+            for(int i = b * BLOCK; i < b * BLOCK + Math.min(BLOCK, n - b * BLOCK); i++) {
+                keys[i] = key(weight[i]);
+                index[i] = i;
+            }
+        }));
+
+        int[][] count = new int[blocks][RADIX];
+        long[][] from = { keys, keys2 };
+        int[][] fromIndex = { index, index2 };
+        int f = 0;
+        for(int shift = 0; shift < 64; shift += 8) {
+            final int r = shift;
+            final long[] a = from[f], aux = from[1 - f];
+            final int[] ia = fromIndex[f], iaux = fromIndex[1 - f];
+
+            pool.invoke(new ParallelFor(0, blocks, 1, b -> {
+                int[] c = count[b];
+                Arrays.fill(c, 0);
+                for(int i = b * BLOCK; i < b * BLOCK + Math.min(BLOCK, n - b * BLOCK); i++) {
+                    c[(int) (a[i] >>> r) & (RADIX - 1)]++;
+                }
+            }));
+
+            // the first position of byte d of block b, blocks in order for the sort to be stable
+            int position = 0;
+            boolean same = false;
+            for(int d = 0; d < RADIX; d++) {
+                int start = position;
+                for(int b = 0; b < blocks; b++) {
+                    int c = count[b][d];
+                    count[b][d] = position;
+                    position += c;
+                }
+                if (position - start == n) same = true;
+            }
+            if (same) continue;
+
+            pool.invoke(new ParallelFor(0, blocks, 1, b -> {
+                int[] next = count[b];
+                for(int i = b * BLOCK; i < b * BLOCK + Math.min(BLOCK, n - b * BLOCK); i++) {
+                    int p = next[(int) (a[i] >>> r) & (RADIX - 1)]++;
+                    aux[p] = a[i];
+                    iaux[p] = ia[i];
+                }
+            }));
+            f = 1 - f;
+        }
+        return fromIndex[f];
+    }
+
+    /**
+     * Returns the edges of the minimum spanning forest, in increasing order
+     * of weight. With a graph they are its own edges, with arrays they are
+     * new edges of the same endpoints and weights.
+     *
+     * @return the edges of the minimum spanning forest
+     */
+    public Iterable<Edge> edges() {
+        Queue<Edge> edges = new Queue<Edge>();
+        for(int i : mst) {
+            edges.enqueue(source != null ? source[i] : new Edge(v[i], w[i], weights[i]));
+        }
+        return edges;
+    }
+
+    /**
+     * Returns the indices of the edges of the minimum spanning forest
+     * in the arrays given to the constructor, in increasing order of weight.
+     *
+     * @return the indices of the edges of the minimum spanning forest
+     */
+    public Iterable<Integer> indices() {
+        return mst;
+    }
+
+    /**
+     * Returns the weight of the minimum spanning forest.
+     *
+     * @return the weight of the minimum spanning forest
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // unit test code
+    // RadixKruskalMST tinyEWG.txt
+    // RadixKruskalMST -random V E
+    // runs on 1, 2, 4, ... threads and compares with KruskalMST
+    public static void main(String[] args) {
+        EdgeWeightedGraph G;
+        if (args[0].equals("-random")) {
+            int V = Integer.parseInt(args[1]);
+            int E = Integer.parseInt(args[2]);
+            G = new EdgeWeightedGraph(V);
+            for(int i = 0; i < E; i++) {
+                G.addEdge(new Edge(StdRandom.uniform(V), StdRandom.uniform(V), StdRandom.uniform(1.0)));
+            }
+        }
+        else {
+            G = new EdgeWeightedGraph(new In(args[0]));
+        }
+
+        Stopwatch timer = new Stopwatch();
+        KruskalMST kruskal = new KruskalMST(G);
+        StdOut.printf("KruskalMST       %.3f s, weight %.5f\n", timer.elapsedTime(), kruskal.weight());
+
+        int[] v = new int[G.E()];
+        int[] w = new int[G.E()];
+        double[] weight = new double[G.E()];
+        int i = 0;
+        for(Edge e : G.edges()) {
+            v[i] = e.either();
+            w[i] = e.other(v[i]);
+            weight[i++] = e.weight();
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for(int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = Double.POSITIVE_INFINITY;
+            RadixKruskalMST mst = null;
+            for(int run = 0; run < 3; run++) {
+                timer = new Stopwatch();
+                mst = new RadixKruskalMST(G.V(), v, w, weight, pool);
+                best = Math.min(best, timer.elapsedTime());
+            }
+            pool.shutdown();
+            if (threads == 1) single = best;
+            StdOut.printf("%2d threads       %.3f s, speedup %.2f, weight %.5f, %s\n",
+                    threads, best, single / best, mst.weight(),
+                    mst.weight() == kruskal.weight() ? "same" : "different");
+            if (threads == processors) break;
+        }
+
+        if (G.V() <= 20) {
+            for(Edge e : new RadixKruskalMST(G).edges()) {
+                StdOut.println(e);
+            }
+        }
+    }
+}
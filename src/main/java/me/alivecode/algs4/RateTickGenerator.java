@@ -0,0 +1,189 @@
+package me.alivecode.algs4;
+
+import java.util.Random;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code RateTickGenerator} class simulates a feed of exchange-rate quotes
+ * between <em>n</em> currencies, to drive an {@link ArbitrageDetector}
+ * without a live feed.
+ * <p>
+ * Every currency has a hidden log-price that follows a random walk pulled back
+ * to its starting value. A tick moves the price of one currency and quotes one
+ * pair at the ratio of the two prices, less a spread, with some noise. Since the quotes of the other pairs are not
+ * refreshed at the same time, they go stale and arbitrage opportunities appear
+ * from time to time, as they do on a real feed.
+ * The same seed gives the same ticks.
+ */
+public class RateTickGenerator {
+    private static final double REVERSION = 0.05; // share of the gap to base closed by a move
+
+    private final int n;
+    private final double volatility; // standard deviation of a price move
+    private final double spread;     // relative cost of an exchange
+    private final double[] base;     // base[v] = the log-price the price of v goes back to
+    private final double[] logPrice;
+    private final Random random;
+
+    /**
+     * An exchange-rate quote: one unit of {@code from()} buys
+     * {@code rate()} units of {@code to()}.
+     */
+    public static class Tick {
+        private final int from;
+        private final int to;
+        private final double rate;
+        private final long time;
+
+        /**
+         * Initializes a quote.
+         *
+         * @param from the currency sold
+         * @param to the currency bought
+         * @param rate the units of {@code to} per unit of {@code from}
+         * @param time the time of the quote, from {@link System#nanoTime()}
+         */
+        public Tick(int from, int to, double rate, long time) {
+            this.from = from;
+            this.to = to;
+            this.rate = rate;
+            this.time = time;
+        }
+
+        /**
+         * Returns the currency sold.
+         *
+         * @return the currency sold
+         */
+        public int from() {
+            return from;
+        }
+
+        /**
+         * Returns the currency bought.
+         *
+         * @return the currency bought
+         */
+        public int to() {
+            return to;
+        }
+
+        /**
+         * Returns the units of {@code to()} per unit of {@code from()}.
+         *
+         * @return the rate
+         */
+        public double rate() {
+            return rate;
+        }
+
+        /**
+         * Returns the time of the quote, from {@link System#nanoTime()}.
+         *
+         * @return the time of the quote in nanoseconds
+         */
+        public long time() {
+            return time;
+        }
+
+        /**
+         * Returns a string representation of this quote.
+         *
+         * @return a string representation of this quote
+         */
+        public String toString() {
+            return String.format("%d->%d %.6f", from, to, rate);
+        }
+    }
+
+    /**
+     * Initializes a generator for {@code n} currencies with a volatility of
+     * 0.0001 and a spread of 0.001.
+     *
+     * @param n the number of currencies
+     * @param seed the seed of the random walk
+     */
+    public RateTickGenerator(int n, long seed) {
+        this(n, 0.0001, 0.001, seed);
+    }
+
+    /**
+     * Initializes a generator for {@code n} currencies.
+     *
+     * @param n the number of currencies
+     * @param volatility the standard deviation of the relative price move of a tick
+     * @param spread the relative cost of an exchange
+     * @param seed the seed of the random walk
+     * @throws IllegalArgumentException if {@code n < 2}
+     */
+    public RateTickGenerator(int n, double volatility, double spread, long seed) {
+        if (n < 2) throw new IllegalArgumentException("at least 2 currencies are needed");
+        this.n = n;
+        this.volatility = volatility;
+        this.spread = spread;
+        random = new Random(seed);
+        base = new double[n];
+        logPrice = new double[n];
+        for(int v = 0; v < n; v++) {
+            base[v] = random.nextGaussian();
+            logPrice[v] = base[v];
+        }
+    }
+
+    /**
+     * Returns the number of currencies.
+     *
+     * @return the number of currencies
+     */
+    public int currencies() {
+        return n;
+    }
+
+    /**
+     * Returns the quote of every pair of distinct currencies at the current prices,
+     * to start a detector from a complete table.
+     *
+     * @return the quotes of all the pairs
+     */
+    public Tick[] snapshot() {
+        Tick[] ticks = new Tick[n * (n - 1)];
+        int k = 0;
+        for(int v = 0; v < n; v++) {
+            for(int w = 0; w < n; w++) {
+                if (v != w) ticks[k++] = quote(v, w);
+            }
+        }
+        return ticks;
+    }
+
+    /**
+     * Moves the price of a random currency and returns the quote of a random pair
+     * that includes it.
+     *
+     * @return the next quote
+     */
+    public Tick next() {
+        int v = random.nextInt(n);
+        int w = random.nextInt(n - 1);
+        if (w >= v) w++;
+        logPrice[v] += REVERSION * (base[v] - logPrice[v]) + volatility * random.nextGaussian();
+        return random.nextBoolean() ? quote(v, w) : quote(w, v);
+    }
+
+    private Tick quote(int from, int to) {
+        double noise = volatility * random.nextGaussian();
+        double rate = Math.exp(logPrice[from] - logPrice[to] + noise) * (1.0 - spread);
+        return new Tick(from, to, rate, System.nanoTime());
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        int ticks = Integer.parseInt(args[1]);
+        RateTickGenerator generator = new RateTickGenerator(n, 1L);
+        for(int i = 0; i < ticks; i++) {
+            StdOut.println(generator.next());
+        }
+    }
+}
@@ -17,6 +17,15 @@ public class Topological {
      * @param G the directed graph.
      */
     public Topological(Digraph G) {
+        this(new CSRDigraph(G));
+    }
+
+    /**
+     * Computes the topological order of the specified compressed digraph.
+     *
+     * @param G the compressed digraph.
+     */
+    public Topological(CSRDigraph G) {
         DirectedCycle cycle = new DirectedCycle(G);
 
         if (!cycle.hasCycle()) {
@@ -36,12 +45,7 @@ public class Topological {
      * @param G the acyclic edge-weighted digraph
      */
     public Topological(EdgeWeightedDigraph G) {
-        EdgeWeightedDirectedCycle cycle = new EdgeWeightedDirectedCycle(G);
-
-        if (!cycle.hasCycle()) {
-            DepthFirstOrder dfo = new DepthFirstOrder(G);
-            order = dfo.reversePostOrder();
-        }
+        this(new CSREdgeWeightedDigraph(G).digraph());
     }
 
     /**
@@ -0,0 +1,232 @@
+package me.alivecode.algs4;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * The {@code TopologicalLevels} class computes a topological order of a DAG
+ * by Kahn's algorithm, grouped in levels.
+ * Level 0 holds the vertices without incoming edges, and level <em>k</em>
+ * the vertices whose incoming edges all come from the levels before <em>k</em>,
+ * so the vertices of one level do not depend on each other and can be
+ * handled in parallel, see {@link ParallelAcyclicSP}.
+ * <p>
+ * The order is built from the indegrees with a queue instead of a
+ * recursive depth-first search, so the depth of the DAG is not limited
+ * by the stack. The vertices of level <em>k</em> are
+ * {@code vertex(begin(k))} through {@code vertex(end(k)-1)}.
+ */
+public class TopologicalLevels {
+    private int[] order;  // vertices in topological order, level by level, or null
+    private int[] levels; // vertices of level k are order[levels[k]..levels[k+1])
+    private int[] level;  // level[v] = level of v
+    private int[] rank;   // rank[v] = position of v in order
+
+    /**
+     * Computes the topological levels of the digraph {@code G}.
+     *
+     * @param G the digraph
+     */
+    public TopologicalLevels(Digraph G) {
+        this(new CSRDigraph(G));
+    }
+
+    /**
+     * Computes the topological levels of the edge-weighted digraph {@code G}.
+     *
+     * @param G the edge-weighted digraph
+     */
+    public TopologicalLevels(EdgeWeightedDigraph G) {
+        this(new CSREdgeWeightedDigraph(G).digraph());
+    }
+
+    /**
+     * Computes the topological levels of the compressed digraph {@code G}.
+     *
+     * @param G the compressed digraph
+     */
+    public TopologicalLevels(CSRDigraph G) {
+        int V = G.V();
+        int[] count = new int[V]; // count[v] = incoming edges from vertices not ordered yet
+        int[] queue = new int[V];
+        int[] bounds = new int[V + 2];
+        level = new int[V];
+        int size = 0;
+        for(int v = 0; v < V; v++) {
+            count[v] = G.indegree(v);
+            if (count[v] == 0) queue[size++] = v;
+        }
+
+        // queue[first..last) is the current level, the next one is appended to it
+        int k = 0;
+        int first = 0;
+        while (first < size) {
+            int last = size;
+            bounds[k] = first;
+            for(int q = first; q < last; q++) {
+                int v = queue[q];
+                level[v] = k;
+                for(int i = G.begin(v); i < G.end(v); i++) {
+                    int w = G.target(i);
+                    if (--count[w] == 0) queue[size++] = w;
+                }
+            }
+            first = last;
+            k++;
+        }
+        bounds[k] = size;
+
+        // a vertex on a cycle or after one never gets to 0
+        if (size < V) {
+            level = null;
+            return;
+        }
+        order = queue;
+        levels = Arrays.copyOf(bounds, k + 1);
+        rank = new int[V];
+        for(int i = 0; i < V; i++) {
+            rank[order[i]] = i;
+        }
+    }
+
+    /**
+     * Does the digraph have a topological order?
+     *
+     * @return {@code true} if the digraph is a DAG, {@code false} otherwise
+     */
+    public boolean hasOrder() {
+        return order != null;
+    }
+
+    private void validateVertex(int v) {
+        int V = order.length;
+        if (v < 0 || v >= V) {
+            throw new IllegalArgumentException(v + " is not between 0 and " + (V-1));
+        }
+    }
+
+    private void validateOrder() {
+        if (!hasOrder()) throw new UnsupportedOperationException("the digraph is not acyclic");
+    }
+
+    /**
+     * Returns the vertices in topological order, level by level.
+     *
+     * @return the vertices in topological order,
+     * or {@code null} if the digraph is not acyclic
+     */
+    public Iterable<Integer> order() {
+        if (!hasOrder()) return null;
+        return new Iterable<Integer>() {
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    private int i = 0;
+
+                    public boolean hasNext() {
+                        return i < order.length;
+                    }
+
+                    public Integer next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return order[i++];
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns the position of vertex {@code v} in the topological order.
+     *
+     * @param v the vertex
+     * @return the position of {@code v}, or -1 if the digraph is not acyclic
+     */
+    public int rank(int v) {
+        if (!hasOrder()) return -1;
+        validateVertex(v);
+        return rank[v];
+    }
+
+    /**
+     * Returns the number of levels, the number of vertices on a longest path.
+     *
+     * @return the number of levels
+     * @throws UnsupportedOperationException if the digraph is not acyclic
+     */
+    public int levels() {
+        validateOrder();
+        return levels.length - 1;
+    }
+
+    /**
+     * Returns the level of vertex {@code v}.
+     *
+     * @param v the vertex
+     * @return the level of {@code v}
+     * @throws UnsupportedOperationException if the digraph is not acyclic
+     */
+    public int level(int v) {
+        validateOrder();
+        validateVertex(v);
+        return level[v];
+    }
+
+    /**
+     * Returns the position in the order of the first vertex of level {@code k}.
+     *
+     * @param k the level
+     * @return the position of the first vertex of level {@code k}
+     * @throws UnsupportedOperationException if the digraph is not acyclic
+     */
+    public int begin(int k) {
+        validateOrder();
+        return levels[k];
+    }
+
+    /**
+     * Returns the position in the order after the last vertex of level {@code k}.
+     *
+     * @param k the level
+     * @return the position after the last vertex of level {@code k}
+     * @throws UnsupportedOperationException if the digraph is not acyclic
+     */
+    public int end(int k) {
+        validateOrder();
+        return levels[k + 1];
+    }
+
+    /**
+     * Returns the vertex at position {@code i} in the order.
+     *
+     * @param i the position
+     * @return the vertex at position {@code i}
+     * @throws UnsupportedOperationException if the digraph is not acyclic
+     */
+    public int vertex(int i) {
+        validateOrder();
+        return order[i];
+    }
+
+    // unit test code
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        Digraph dag = new Digraph(in);
+        TopologicalLevels order = new TopologicalLevels(dag);
+        if (order.hasOrder()) {
+            for(int k = 0; k < order.levels(); k++) {
+                StdOut.print("level " + k + ":");
+                for(int i = order.begin(k); i < order.end(k); i++) {
+                    StdOut.print(" " + order.vertex(i));
+                }
+                StdOut.println();
+            }
+        }
+        else {
+            StdOut.println("has no order");
+        }
+    }
+}